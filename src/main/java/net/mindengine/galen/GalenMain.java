@@ -26,16 +26,27 @@ import java.io.StringWriter;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
 
 import net.mindengine.galen.api.Galen;
 import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.browser.BrowserPool;
+import net.mindengine.galen.browser.PageDumpBrowserFactory;
 import net.mindengine.galen.browser.SeleniumBrowserFactory;
 import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.parser.SyntaxException;
@@ -49,7 +60,9 @@ import net.mindengine.galen.runner.CompleteListener;
 import net.mindengine.galen.runner.EventHandler;
 import net.mindengine.galen.runner.GalenArguments;
 import net.mindengine.galen.runner.JsTestCollector;
+import net.mindengine.galen.runner.LazyTestList;
 import net.mindengine.galen.runner.SuiteListener;
+import net.mindengine.galen.runner.SuiteProgress;
 import net.mindengine.galen.runner.TestListener;
 import net.mindengine.galen.runner.events.TestFilterEvent;
 import net.mindengine.galen.suite.GalenPageAction;
@@ -71,6 +84,8 @@ public class GalenMain {
     
     private CompleteListener listener;
 
+    private volatile SuiteProgress suiteProgress;
+
     public void execute(GalenArguments arguments) throws Exception {
         if (arguments.getAction() != null) {
             
@@ -93,6 +108,9 @@ public class GalenMain {
             else if ("dump".equals(arguments.getAction())) {
                 performPageDump(arguments);
             }
+            else if ("checkdump".equals(arguments.getAction())) {
+                performCheckDump(arguments, combinedListener);
+            }
             combinedListener.done();
             
             if (GalenConfig.getConfig().getUseFailExitCode()){
@@ -208,7 +226,7 @@ public class GalenMain {
                 .withUrl(arguments.getUrl())
                 .withSize(arguments.getScreenSize())
                 .withBrowserFactory(new SeleniumBrowserFactory(SeleniumBrowserFactory.FIREFOX))
-                .withActions(asList((GalenPageAction)new GalenPageActionCheck()
+                .withActions(Arrays.<GalenPageAction>asList(new GalenPageActionCheck()
                     .withSpecs(asList(pageSpecPath))
                     .withIncludedTags(arguments.getIncludedTags())
                     .withExcludedTags(arguments.getExcludedTags())
@@ -220,6 +238,60 @@ public class GalenMain {
         runTests(new EventHandler(), arguments, galenTests, listener);
     }
 
+    /**
+     * Checks specs against previously exported page dumps. No browser is needed for it
+     * so by default all dumps are checked in as many threads as there are processors
+     */
+    private void performCheckDump(GalenArguments arguments, CombinedListener listener) throws IOException {
+        File dumpsFolder = new File(arguments.getDumps());
+        if (!dumpsFolder.isDirectory()) {
+            throw new FileNotFoundException(arguments.getDumps());
+        }
+
+        List<File> dumpFolders = new LinkedList<File>();
+        searchForPageDumps(dumpsFolder, dumpFolders);
+        if (dumpFolders.isEmpty()) {
+            throw new RuntimeException("Couldn't find any page dumps in " + dumpsFolder.getAbsolutePath());
+        }
+
+        List<GalenTest> galenTests = new LinkedList<GalenTest>();
+        for (File dumpFolder : dumpFolders) {
+            GalenBasicTest test = new GalenBasicTest();
+            test.setName(dumpFolder.getPath());
+            test.setPageTests(asList(new GalenPageTest()
+                .withTitle("Page dump check")
+                .withBrowserFactory(new PageDumpBrowserFactory(dumpFolder))
+                .withActions(Arrays.<GalenPageAction>asList(new GalenPageActionCheck()
+                    .withSpecs(arguments.getPaths())
+                    .withIncludedTags(arguments.getIncludedTags())
+                    .withExcludedTags(arguments.getExcludedTags())
+                    .withOriginalCommand(arguments.getOriginal()))
+                )));
+            galenTests.add(test);
+        }
+
+        int amountOfThreads = arguments.getParallelSuites();
+        if (amountOfThreads < 1) {
+            amountOfThreads = Runtime.getRuntime().availableProcessors();
+        }
+        runTestsInThreads(new EventHandler(), galenTests, arguments, listener, amountOfThreads);
+    }
+
+    private void searchForPageDumps(File folder, List<File> dumpFolders) {
+        if (new File(folder, "page.json").isFile()) {
+            dumpFolders.add(folder);
+        }
+
+        File[] childFiles = folder.listFiles();
+        if (childFiles != null) {
+            for (File childFile : childFiles) {
+                if (childFile.isDirectory()) {
+                    searchForPageDumps(childFile, dumpFolders);
+                }
+            }
+        }
+    }
+
     private void verifyArgumentsForPageCheck(GalenArguments arguments) {
         if (arguments.getUrl() == null) {
             throw new IllegalArgumentException("Url is not specified");
@@ -275,19 +347,21 @@ public class GalenMain {
     private void runTestFiles(List<File> basicTestFiles, List<File> jsTestFiles, CompleteListener listener, GalenArguments arguments) throws IOException {
         GalenSuiteReader reader = new GalenSuiteReader();
         
-        List<GalenTest> tests = new LinkedList<GalenTest>();
+        List<Iterable<? extends GalenTest>> testSources = new LinkedList<Iterable<? extends GalenTest>>();
         for (File file : basicTestFiles) {
-            tests.addAll(reader.read(file));
+            testSources.add(reader.readLazily(file));
         }
-        
-        JsTestCollector testCollector = new JsTestCollector(tests);
+
+        List<GalenTest> jsTests = new LinkedList<GalenTest>();
+        JsTestCollector testCollector = new JsTestCollector(jsTests);
         for (File jsFile: jsTestFiles) {
             testCollector.execute(jsFile);
         }
+        testSources.add(jsTests);
         
         testCollector.getEventHandler().invokeBeforeTestSuiteEvents();
         
-        runTests(testCollector.getEventHandler(), arguments, tests, listener);
+        runTests(testCollector.getEventHandler(), arguments, new LazyTestList(testSources), listener);
         
         testCollector.getEventHandler().invokeAfterTestSuiteEvents();
     }
@@ -303,7 +377,7 @@ public class GalenMain {
     }
 
     private void runTestsInThreads(final EventHandler eventHandler, List<GalenTest> tests, GalenArguments arguments, final CompleteListener listener, int amountOfThreads) {
-        ExecutorService executor = Executors.newFixedThreadPool(amountOfThreads);
+        final ExecutorService executor = Executors.newFixedThreadPool(amountOfThreads);
         
         Pattern filterPattern = createTestFilter(arguments.getFilter());
         final List<GalenTestInfo> testInfos = new LinkedList<GalenTestInfo>();
@@ -314,12 +388,55 @@ public class GalenMain {
         tellBeforeTestSuite(listener, tests);
         
         final ReentrantLock testInfoLock = new ReentrantLock();
-        
-        for (final GalenTest test : tests) {
+        final HtmlReportBuilder htmlReportBuilder = startHtmlReport(arguments.getHtmlReport());
+        final SuiteProgress progress = new SuiteProgress();
+        this.suiteProgress = progress;
+
+        if (BrowserPool.isEnabled()) {
+            BrowserPool.getInstance().ensureCapacity(amountOfThreads);
+        }
+
+        GalenConfig config = GalenConfig.getConfig();
+        long timeout = TimeUnit.SECONDS.toMillis(config.getIntProperty(GalenConfig.SUITE_TIMEOUT, 0));
+        long deadline = timeout > 0 ? System.currentTimeMillis() + timeout : Long.MAX_VALUE;
+
+        // Tests are pulled from the list only when there is a free slot so that lazily read suites
+        // are not expanded all at once and are not kept in executor queue
+        final Semaphore slots = new Semaphore(amountOfThreads * 2);
+        final Set<TestTask> tasks = Collections.synchronizedSet(new LinkedHashSet<TestTask>());
+        final AtomicBoolean cancelled = new AtomicBoolean(false);
+        Exception cancelReason = null;
+        List<GalenTest> notSubmittedTests = new LinkedList<GalenTest>();
+
+        Iterator<GalenTest> testsIterator = tests.iterator();
+        while (testsIterator.hasNext()) {
+            final GalenTest test = testsIterator.next();
             if (matchesPattern(test.getName(), filterPattern)) {
-                Runnable thread = new Runnable() {
+                if (!waitUntilDeadline(deadline, progress, new Condition() {
+                    @Override
+                    public boolean await(long millis) throws InterruptedException {
+                        return slots.tryAcquire(millis, TimeUnit.MILLISECONDS);
+                    }
+                })) {
+                    cancelReason = suiteTimeoutException(timeout);
+                    notSubmittedTests.add(test);
+                    break;
+                }
+
+                TestTask task = new TestTask(test) {
                     @Override
                     public void run() {
+                        try {
+                            runTest();
+                        }
+                        finally {
+                            tasks.remove(this);
+                            slots.release();
+                            setFinished();
+                        }
+                    }
+
+                    private void runTest() {
                         
                         GalenTestInfo info = new GalenTestInfo(test.getName(), test);
                         TestReport report = new TestReport();
@@ -330,10 +447,16 @@ public class GalenMain {
                         
                         testInfoLock.lock();
                         try {
+                            // Once the suite is cancelled the test is reported as timed out by the main thread
+                            if (cancelled.get()) {
+                                return;
+                            }
+                            setInfo(info);
                             testInfos.add(info);
                             TestSession session = TestSession.register(info);
                             session.setReport(report);
                             session.setListener(listener);
+                            session.setScreenshotsReported(htmlReportBuilder != null);
                         }
                         catch (Exception ex) {
                             ex.printStackTrace();
@@ -344,6 +467,7 @@ public class GalenMain {
                         
                         eventHandler.invokeBeforeTestEvents(info);
                         
+                        progress.onTestStarted(test);
                         tellTestStarted(listener, test);
                         try {
                             test.execute(report, listener);
@@ -357,20 +481,219 @@ public class GalenMain {
                         
                         eventHandler.invokeAfterTestEvents(info);
                         tellTestFinished(listener, test);
+                        if (htmlReportBuilder != null && !cancelled.get()) {
+                            htmlReportBuilder.addTest(info);
+                        }
+                        progress.onTestFinished(test);
                         
                         TestSession.clear();
                     }
                 };
-                executor.execute(thread);
+                progress.onTestQueued(test);
+                tasks.add(task);
+                task.setFuture(executor.submit(task));
             }
         }
         executor.shutdown();
-        while (!executor.isTerminated()) {
+
+        if (cancelReason == null && !waitUntilDeadline(deadline, progress, new Condition() {
+            @Override
+            public boolean await(long millis) throws InterruptedException {
+                return executor.awaitTermination(millis, TimeUnit.MILLISECONDS);
+            }
+        })) {
+            cancelReason = suiteTimeoutException(timeout);
+        }
+        if (cancelReason != null) {
+            while (testsIterator.hasNext()) {
+                GalenTest test = testsIterator.next();
+                if (matchesPattern(test.getName(), filterPattern)) {
+                    notSubmittedTests.add(test);
+                }
+            }
+            cancelTests(executor, tasks, notSubmittedTests, testInfos, testInfoLock, cancelled, cancelReason);
+        }
+
+        if (BrowserPool.isEnabled()) {
+            BrowserPool.getInstance().closeAll();
+        }
+
+        List<GalenTestInfo> finishedTestInfos;
+        testInfoLock.lock();
+        try {
+            finishedTestInfos = new ArrayList<GalenTestInfo>(testInfos);
+        }
+        finally {
+            testInfoLock.unlock();
         }
         
-        tellAfterTestSuite(listener, testInfos);
+        tellAfterTestSuite(listener, finishedTestInfos);
         
-        createAllReports(testInfos, arguments);
+        createAllReports(finishedTestInfos, arguments, htmlReportBuilder);
+    }
+
+    private interface Condition {
+        boolean await(long millis) throws InterruptedException;
+    }
+
+    /**
+     * Blocks until the condition is met or until the suite deadline is reached.
+     * Prints the suite progress periodically if it is enabled in config
+     * @return false if the suite deadline was reached or the thread was interrupted
+     */
+    private boolean waitUntilDeadline(long deadline, SuiteProgress progress, Condition condition) {
+        long progressInterval = TimeUnit.SECONDS.toMillis(GalenConfig.getConfig().getIntProperty(GalenConfig.SUITE_PROGRESS_INTERVAL, 0));
+
+        try {
+            while (true) {
+                long waitTime = deadline - System.currentTimeMillis();
+                if (progressInterval > 0) {
+                    waitTime = Math.min(waitTime, progressInterval);
+                }
+
+                if (waitTime > 0 && condition.await(waitTime)) {
+                    return true;
+                }
+                else if (System.currentTimeMillis() >= deadline) {
+                    return false;
+                }
+                else {
+                    System.out.println(progress);
+                }
+            }
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private RuntimeException suiteTimeoutException(long timeout) {
+        String message;
+        if (Thread.currentThread().isInterrupted()) {
+            message = "Test suite was interrupted";
+        }
+        else {
+            message = String.format("Test suite timed out after %d seconds", TimeUnit.MILLISECONDS.toSeconds(timeout));
+        }
+        System.err.println(message);
+        return new RuntimeException(message);
+    }
+
+    /**
+     * Cancels all unfinished tests and waits for a limited time until they are stopped.
+     * Tests which did not start or were not yet pulled from the suite are reported as failed with the given reason.
+     * Tests which are still running after that are reported with a copy of their info so that reports
+     * are not built from the info which is still being changed
+     */
+    private void cancelTests(ExecutorService executor, Set<TestTask> tasks, List<GalenTest> notSubmittedTests,
+                             List<GalenTestInfo> testInfos, ReentrantLock testInfoLock, AtomicBoolean cancelled, Exception reason) {
+        List<TestTask> unfinishedTasks;
+        testInfoLock.lock();
+        try {
+            cancelled.set(true);
+            synchronized (tasks) {
+                unfinishedTasks = new ArrayList<TestTask>(tasks);
+            }
+        }
+        finally {
+            testInfoLock.unlock();
+        }
+
+        for (TestTask task : unfinishedTasks) {
+            task.getFuture().cancel(true);
+        }
+        executor.shutdownNow();
+
+        long cancelTimeout = GalenConfig.getConfig().getIntProperty(GalenConfig.SUITE_CANCEL_TIMEOUT, 10);
+        try {
+            executor.awaitTermination(cancelTimeout, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        testInfoLock.lock();
+        try {
+            for (TestTask task : unfinishedTasks) {
+                GalenTestInfo info = task.getInfo();
+                if (info == null) {
+                    testInfos.add(createCancelledTestInfo(task.getTest(), reason, new Date()));
+                }
+                else if (task.isFinished()) {
+                    if (info.getException() == null) {
+                        info.setException(reason);
+                    }
+                }
+                else {
+                    testInfos.set(testInfos.indexOf(info), createCancelledTestInfo(task.getTest(), reason, info.getStartedAt()));
+                }
+            }
+
+            for (GalenTest test : notSubmittedTests) {
+                testInfos.add(createCancelledTestInfo(test, reason, new Date()));
+            }
+        }
+        finally {
+            testInfoLock.unlock();
+        }
+    }
+
+    private GalenTestInfo createCancelledTestInfo(GalenTest test, Exception reason, Date startedAt) {
+        GalenTestInfo info = new GalenTestInfo(test.getName(), test);
+        TestReport report = new TestReport();
+        report.error(reason);
+        info.setReport(report);
+        info.setException(reason);
+        info.setStartedAt(startedAt);
+        info.setEndedAt(new Date());
+        return info;
+    }
+
+    private static abstract class TestTask implements Runnable {
+        private final GalenTest test;
+        private volatile GalenTestInfo info;
+        private volatile boolean finished = false;
+        private Future<?> future;
+
+        public TestTask(GalenTest test) {
+            this.test = test;
+        }
+
+        public GalenTest getTest() {
+            return test;
+        }
+
+        public GalenTestInfo getInfo() {
+            return info;
+        }
+
+        public void setInfo(GalenTestInfo info) {
+            this.info = info;
+        }
+
+        public boolean isFinished() {
+            return finished;
+        }
+
+        public void setFinished() {
+            this.finished = true;
+        }
+
+        public Future<?> getFuture() {
+            return future;
+        }
+
+        public void setFuture(Future<?> future) {
+            this.future = future;
+        }
+    }
+
+    /**
+     * @return progress of the currently running (or the last finished) test suite
+     */
+    public SuiteProgress getSuiteProgress() {
+        return suiteProgress;
     }
 
     private List<GalenTest> filterTests(List<GalenTest> tests, EventHandler eventHandler) {
@@ -435,18 +758,36 @@ public class GalenMain {
         }
     }
 
-    private void createAllReports(List<GalenTestInfo> testInfos, GalenArguments arguments) {
+    private void createAllReports(List<GalenTestInfo> testInfos, GalenArguments arguments, HtmlReportBuilder htmlReportBuilder) {
         if (arguments.getTestngReport() != null) {
             createTestngReport(arguments.getTestngReport(), testInfos);
         }
-        if (arguments.getHtmlReport() != null) {
-            createHtmlReport(arguments.getHtmlReport(), testInfos);
+        if (htmlReportBuilder != null) {
+            finishHtmlReport(htmlReportBuilder, testInfos);
+        }
+    }
+
+    /**
+     * Starts html report so that test reports are rendered as soon as tests are finished
+     * @return null if html report is not needed or could not be started
+     */
+    private HtmlReportBuilder startHtmlReport(String htmlReportPath) {
+        if (htmlReportPath != null) {
+            try {
+                HtmlReportBuilder htmlReportBuilder = new HtmlReportBuilder();
+                htmlReportBuilder.start(htmlReportPath);
+                return htmlReportBuilder;
+            }
+            catch (Exception ex) {
+                ex.printStackTrace();
+            }
         }
+        return null;
     }
 
-    private void createHtmlReport(String htmlReportPath, List<GalenTestInfo> testInfos) {
+    private void finishHtmlReport(HtmlReportBuilder htmlReportBuilder, List<GalenTestInfo> testInfos) {
         try {
-            new HtmlReportBuilder().build(testInfos, htmlReportPath);
+            htmlReportBuilder.finish(testInfos);
         }
         catch (Exception ex) {
             ex.printStackTrace();
@@ -16,15 +16,27 @@
 package net.mindengine.galen.api;
 
 import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.browser.PageDumpBrowser;
 import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.page.Page;
 import net.mindengine.galen.page.PageElement;
 import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.page.Screenshot;
 import net.mindengine.galen.reports.model.LayoutReport;
+import net.mindengine.galen.specs.Spec;
+import net.mindengine.galen.specs.SpecColorScheme;
+import net.mindengine.galen.specs.SpecImage;
+import net.mindengine.galen.specs.page.ConditionalBlock;
+import net.mindengine.galen.specs.page.ConditionalBlockStatement;
+import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.galen.specs.page.ObjectSpecs;
 import net.mindengine.galen.specs.page.PageSection;
 import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.specs.reader.page.PageSpecCache;
 import net.mindengine.galen.specs.reader.page.PageSpecReader;
 import net.mindengine.galen.specs.reader.page.SectionFilter;
+import net.mindengine.galen.tests.TestSession;
 import net.mindengine.galen.validation.*;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -42,12 +54,19 @@ public class Galen {
     public static LayoutReport checkLayout(Browser browser, List<String> specPaths,
                                            List<String> includedTags, List<String> excludedTags,
                                            Properties properties, ValidationListener validationListener) throws IOException {
-        PageSpecReader reader = new PageSpecReader(properties, browser.getPage());
-
         List<PageSpec> specs = new LinkedList<PageSpec>();
 
-        for (String specPath : specPaths) {
-            specs.add(reader.read(specPath));
+        if (PageSpecCache.isEnabled()) {
+            PageSpecCache cache = PageSpecCache.getInstance();
+            for (String specPath : specPaths) {
+                specs.add(cache.read(specPath, properties, browser.getPage()));
+            }
+        }
+        else {
+            PageSpecReader reader = new PageSpecReader(properties, browser.getPage());
+            for (String specPath : specPaths) {
+                specs.add(reader.read(specPath));
+            }
         }
 
         return checkLayout(browser, specs, includedTags, excludedTags, validationListener);
@@ -58,16 +77,21 @@ public class Galen {
                                    ValidationListener validationListener) throws IOException {
 
         Page page = browser.getPage();
+        // page could be changed by actions that do not go through the browser, so elements are resolved again
+        page.clearCache();
 
         CombinedValidationListener listener = new CombinedValidationListener();
         listener.add(validationListener);
 
+        String screenshotPolicy = GalenConfig.getConfig().getLayoutScreenshotPolicy();
+
+        SectionFilter sectionFilter = new SectionFilter(includedTags, excludedTags);
+
         LayoutReport layoutReport = new LayoutReport();
-        try {
-            layoutReport.setScreenshotFullPath(page.createScreenshot().getAbsolutePath());
-        }
-        catch (Exception ex) {
-            ex.printStackTrace();
+        Screenshot reportScreenshot = null;
+        if (GalenConfig.LAYOUT_SCREENSHOT_ALWAYS.equals(screenshotPolicy)
+                || (GalenConfig.LAYOUT_SCREENSHOT_AUTO.equals(screenshotPolicy) && isScreenshotNeeded(specs, sectionFilter))) {
+            reportScreenshot = takeScreenshot(page);
         }
         listener.add(new LayoutReportListener(layoutReport));
 
@@ -76,7 +100,6 @@ public class Galen {
 
         for (PageSpec spec : specs) {
 
-            SectionFilter sectionFilter = new SectionFilter(includedTags, excludedTags);
             List<PageSection> pageSections = spec.findSections(sectionFilter);
             SectionValidation sectionValidation = new SectionValidation(pageSections, new PageValidation(browser, page, spec, listener, sectionFilter), listener);
 
@@ -88,9 +111,92 @@ public class Galen {
 
         layoutReport.setValidationErrors(allValidationErrors);
 
+        if (GalenConfig.LAYOUT_SCREENSHOT_ON_FAILURE.equals(screenshotPolicy) && !allValidationErrors.isEmpty()) {
+            // specs do not change the page so it is still in the same state as when the errors were found
+            reportScreenshot = takeScreenshot(page);
+        }
+
+        if (reportScreenshot != null) {
+            attachScreenshot(layoutReport, reportScreenshot);
+        }
+
         return layoutReport;
     }
 
+    /**
+     * Screenshot is needed either when the test is reported or when some specs compare pixels anyway.
+     * Specs of components are not known before validation, so their pixel specs make a screenshot on their own
+     */
+    private static boolean isScreenshotNeeded(List<PageSpec> specs, SectionFilter sectionFilter) {
+        TestSession session = TestSession.current();
+        if (session == null || session.isScreenshotsReported()) {
+            return true;
+        }
+
+        for (PageSpec spec : specs) {
+            for (PageSection section : spec.findSections(sectionFilter)) {
+                if (hasPixelSpecs(section.getObjects())) {
+                    return true;
+                }
+                if (section.getConditionalBlocks() != null) {
+                    for (ConditionalBlock block : section.getConditionalBlocks()) {
+                        if (hasPixelSpecs(block.getBodyObjects()) || hasPixelSpecs(block.getOtherwiseObjects())) {
+                            return true;
+                        }
+                        for (ConditionalBlockStatement statement : block.getStatements()) {
+                            if (hasPixelSpecs(statement.getObjects())) {
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasPixelSpecs(List<ObjectSpecs> objects) {
+        if (objects != null) {
+            for (ObjectSpecs object : objects) {
+                for (Spec spec : object.getSpecs()) {
+                    if (spec instanceof SpecImage || spec instanceof SpecColorScheme) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Page caches its screenshot, so if "image" or "color scheme" specs need pixels
+     * they share the same capture with the report
+     */
+    private static Screenshot takeScreenshot(Page page) {
+        try {
+            return page.getScreenshot();
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Report only keeps the path to the screenshot file, so pixels are not kept in memory
+     * for every layout check until the end of test suite
+     */
+    private static void attachScreenshot(LayoutReport layoutReport, Screenshot screenshot) {
+        try {
+            screenshot.releaseMemory();
+            layoutReport.setScreenshotFullPath(screenshot.getFile().getAbsolutePath());
+            layoutReport.setScreenshotTemporary(screenshot.isTemporaryFile());
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
     public static LayoutReport checkLayout(WebDriver driver, List<String> specPath,
                                            List<String> includedTags, List<String> excludedTags,
                                            Properties properties, ValidationListener validationListener) throws IOException {
@@ -103,6 +209,16 @@ public class Galen {
         return checkLayout(new SeleniumBrowser(driver), asList(specPath), includedTags, excludedTags, properties, validationListener);
     }
 
+    /**
+     * Checks the layout against a page dump made with {@link #dumpPage(Browser, String, PageSpec, File, Integer, Integer)}
+     * without opening any browser
+     */
+    public static LayoutReport checkPageDump(File dumpFolder, List<String> specPaths,
+                                             List<String> includedTags, List<String> excludedTags,
+                                             Properties properties, ValidationListener validationListener) throws IOException {
+        return checkLayout(new PageDumpBrowser(dumpFolder), specPaths, includedTags, excludedTags, properties, validationListener);
+    }
+
     public static void dumpPage(WebDriver driver, String pageName, String specPath, String pageDumpPath) throws IOException {
         dumpPage(driver, pageName, specPath, pageDumpPath, null, null);
     }
@@ -139,6 +255,12 @@ public class Galen {
             if (pageElement.isVisible() && pageElement.getArea() != null) {
                 PageDump.Element element = new PageDump.Element(objectName, pageElement.getArea().toIntArray(), pageElement.getText());
 
+                Locator locator = pageSpec.getObjectLocator(objectName);
+                if (locator != null) {
+                    element.setLocator(locator.prettyString());
+                    element.setIndex(locator.getIndex());
+                }
+
                 if (pageElement.isPresent() && pageElement.isVisible() && isWithinArea(pageElement, maxWidth, maxHeight)) {
                     element.setHasImage(true);
                 }
@@ -146,6 +268,9 @@ public class Galen {
             }
         }
 
+        pageDump.setScreenArea(specialObjectArea(browser.getPage(), "screen"));
+        pageDump.setViewportArea(specialObjectArea(browser.getPage(), "viewport"));
+
         pageDump.setPageName(pageName);
         pageDump.exportAsJson(new File(reportFolder.getAbsoluteFile() + File.separator + "page.json"));
         pageDump.exportAsHtml(pageName, new File(reportFolder.getAbsoluteFile() + File.separator + "page.html"));
@@ -157,6 +282,22 @@ public class Galen {
         copyResource("/pagedump/galen-pagedump.css", new File(reportFolder.getAbsolutePath() + File.separator + "galen-pagedump.css"));
     }
 
+    /**
+     * Screen and viewport areas are optional in page dump. If they are missing the screenshot size is used instead
+     */
+    private static int[] specialObjectArea(Page page, String objectName) {
+        try {
+            PageElement element = page.getSpecialObject(objectName);
+            if (element != null && element.getArea() != null) {
+                return element.getArea().toIntArray();
+            }
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+        }
+        return null;
+    }
+
     private static void copyResource(String resourceName, File destFile) throws IOException {
         String value = IOUtils.toString(Galen.class.getResourceAsStream(resourceName));
         FileUtils.writeStringToFile(destFile, value);
@@ -17,8 +17,10 @@ package net.mindengine.galen.api;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.page.Screenshot;
 import net.mindengine.rainbow4j.Rainbow4J;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -33,6 +35,8 @@ public class PageDump {
     private String pageName;
     private String title;
     private Map<String, Element> items = new HashMap<String, Element>();
+    private int[] screenArea;
+    private int[] viewportArea;
 
     public void setTitle(String title) {
         this.title = title;
@@ -60,6 +64,21 @@ public class PageDump {
         objectMapper.writeValue(file, this);
     }
 
+    /**
+     * Loads the page dump previously exported with {@link #exportAsJson(File)}
+     * so that the layout could be validated against it without a browser
+     */
+    public static PageDump loadFromJson(File file) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        PageDump pageDump = objectMapper.readValue(file, PageDump.class);
+
+        for (Map.Entry<String, Element> item : pageDump.getItems().entrySet()) {
+            item.getValue().setObjectName(item.getKey());
+        }
+        return pageDump;
+    }
+
     public void exportAsHtml(String title, File file) throws IOException {
         makeSureFileExists(file);
         ObjectMapper objectMapper = new ObjectMapper();
@@ -84,11 +103,11 @@ public class PageDump {
 
     public void exportAllScreenshots(Browser browser, File reportFolder) throws IOException {
 
-        File screenshotOriginalFile = browser.createScreenshot();
+        Screenshot screenshot = browser.takeScreenshot();
 
-        FileUtils.copyFile(screenshotOriginalFile, new File(reportFolder.getAbsolutePath() + File.separator + "page.png"));
+        screenshot.writeTo(new File(reportFolder.getAbsolutePath() + File.separator + "page.png"));
 
-        BufferedImage image = Rainbow4J.loadImage(screenshotOriginalFile.getAbsolutePath());
+        BufferedImage image = screenshot.getImage();
 
 
         File objectsFolder = new File(reportFolder.getAbsolutePath() + File.separator + "objects");
@@ -117,6 +136,22 @@ public class PageDump {
         this.pageName = pageName;
     }
 
+    public int[] getScreenArea() {
+        return screenArea;
+    }
+
+    public void setScreenArea(int[] screenArea) {
+        this.screenArea = screenArea;
+    }
+
+    public int[] getViewportArea() {
+        return viewportArea;
+    }
+
+    public void setViewportArea(int[] viewportArea) {
+        this.viewportArea = viewportArea;
+    }
+
     public static class Element {
 
         @JsonIgnore
@@ -124,6 +159,11 @@ public class PageDump {
         private int[] area;
         private String text;
         private boolean hasImage = false;
+        private String locator;
+        private int index = 0;
+
+        public Element() {
+        }
 
         public Element(String objectName, int[] area, String text) {
             setObjectName(objectName);
@@ -162,5 +202,21 @@ public class PageDump {
         public boolean getHasImage() {
             return hasImage;
         }
+
+        public String getLocator() {
+            return locator;
+        }
+
+        public void setLocator(String locator) {
+            this.locator = locator;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
     }
 }
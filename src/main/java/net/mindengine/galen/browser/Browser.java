@@ -19,6 +19,7 @@ import java.awt.Dimension;
 import java.io.File;
 
 import net.mindengine.galen.page.Page;
+import net.mindengine.galen.page.Screenshot;
 
 public interface Browser {
 
@@ -48,4 +49,10 @@ public interface Browser {
      */
     File createScreenshot();
 
+    /**
+     * Makes a screenshot and keeps it in memory. The file is only written when it is requested from the screenshot
+     * @return Screenshot of the current page
+     */
+    Screenshot takeScreenshot();
+
 }
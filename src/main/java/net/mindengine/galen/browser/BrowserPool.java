@@ -0,0 +1,242 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.browser;
+
+import java.awt.Dimension;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import net.mindengine.galen.config.GalenConfig;
+
+import org.openqa.selenium.JavascriptExecutor;
+
+/**
+ * Keeps Selenium browser sessions opened between tests so that the same session can be used by
+ * different tests which are using the same browser factory configuration.
+ * A session is reset (cookies, local and session storage, window size, blank page) when it is returned to the pool,
+ * checked before it is given to the next test and closed after a configured amount of uses.
+ * Browsers only allow to clear cookies and storage of the currently opened page, so if a test visited
+ * several domains only the data of the last one is cleared.
+ * Only {@link SeleniumBrowser} instances are pooled, all other browsers are closed as usual.
+ */
+public class BrowserPool {
+
+    private static final String BLANK_PAGE = "about:blank";
+    public static final String JS_CLEAR_STORAGE = "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}";
+
+    private static BrowserPool instance;
+
+    private final Map<BrowserFactory, LinkedList<PooledSession>> idleSessions = new HashMap<BrowserFactory, LinkedList<PooledSession>>();
+    private final Map<Browser, PooledSession> leasedSessions = new IdentityHashMap<Browser, PooledSession>();
+
+    private int maxIdleSessions;
+    private int maxUses;
+
+    private int createdSessions = 0;
+    private int reusedSessions = 0;
+
+    public BrowserPool(int maxIdleSessions, int maxUses) {
+        this.maxIdleSessions = maxIdleSessions;
+        this.maxUses = maxUses;
+    }
+
+    public synchronized static BrowserPool getInstance() {
+        if (instance == null) {
+            GalenConfig config = GalenConfig.getConfig();
+            instance = new BrowserPool(config.getIntProperty(GalenConfig.BROWSER_POOL_SIZE, 1),
+                    config.getIntProperty(GalenConfig.BROWSER_POOL_MAX_USES, 20));
+
+            Runtime.getRuntime().addShutdownHook(new Thread() {
+                @Override
+                public void run() {
+                    instance.closeAll();
+                }
+            });
+        }
+        return instance;
+    }
+
+    public static boolean isEnabled() {
+        return GalenConfig.getConfig().getBooleanProperty(GalenConfig.BROWSER_POOL_ENABLED, false);
+    }
+
+    /**
+     * Gives an idle healthy session opened by the same factory configuration or opens a new one
+     */
+    public Browser lease(BrowserFactory browserFactory) {
+        PooledSession session = takeIdleSession(browserFactory);
+        while (session != null && !isHealthy(session)) {
+            quitQuietly(session.browser);
+            session = takeIdleSession(browserFactory);
+        }
+
+        synchronized (this) {
+            if (session != null) {
+                reusedSessions++;
+            }
+        }
+
+        if (session == null) {
+            Browser browser = browserFactory.openBrowser();
+            if (!(browser instanceof SeleniumBrowser)) {
+                return browser;
+            }
+            session = new PooledSession(browserFactory, browser, browser.getScreenSize());
+            synchronized (this) {
+                createdSessions++;
+            }
+        }
+
+        session.uses++;
+        synchronized (this) {
+            leasedSessions.put(session.browser, session);
+        }
+        return session.browser;
+    }
+
+    /**
+     * Takes the browser back to the pool. The browser is closed if it was not opened by the pool,
+     * if it was used too many times or if there are already enough idle sessions
+     */
+    public void release(Browser browser) {
+        PooledSession session;
+        synchronized (this) {
+            session = leasedSessions.remove(browser);
+        }
+
+        if (session == null || session.uses >= maxUses || !reset(session)) {
+            quitQuietly(browser);
+            return;
+        }
+
+        synchronized (this) {
+            List<PooledSession> sessions = idleSessionsFor(session.browserFactory);
+            if (sessions.size() < maxIdleSessions) {
+                sessions.add(session);
+                return;
+            }
+        }
+        quitQuietly(browser);
+    }
+
+    /**
+     * Allows the pool to keep as many idle sessions per factory configuration as there are threads running tests
+     */
+    public synchronized void ensureCapacity(int amountOfThreads) {
+        if (amountOfThreads > maxIdleSessions) {
+            maxIdleSessions = amountOfThreads;
+        }
+    }
+
+    public void closeAll() {
+        List<PooledSession> sessions = new LinkedList<PooledSession>();
+        synchronized (this) {
+            for (LinkedList<PooledSession> factorySessions : idleSessions.values()) {
+                sessions.addAll(factorySessions);
+            }
+            idleSessions.clear();
+        }
+
+        for (PooledSession session : sessions) {
+            quitQuietly(session.browser);
+        }
+    }
+
+    private synchronized PooledSession takeIdleSession(BrowserFactory browserFactory) {
+        LinkedList<PooledSession> sessions = idleSessions.get(browserFactory);
+        if (sessions != null && !sessions.isEmpty()) {
+            return sessions.removeFirst();
+        }
+        return null;
+    }
+
+    private LinkedList<PooledSession> idleSessionsFor(BrowserFactory browserFactory) {
+        LinkedList<PooledSession> sessions = idleSessions.get(browserFactory);
+        if (sessions == null) {
+            sessions = new LinkedList<PooledSession>();
+            idleSessions.put(browserFactory, sessions);
+        }
+        return sessions;
+    }
+
+    private boolean isHealthy(PooledSession session) {
+        try {
+            session.browser.getUrl();
+            return true;
+        }
+        catch (Exception ex) {
+            return false;
+        }
+    }
+
+    private boolean reset(PooledSession session) {
+        try {
+            SeleniumBrowser browser = (SeleniumBrowser) session.browser;
+            browser.getDriver().manage().deleteAllCookies();
+            // storage can only be cleared for the origin which is currently opened
+            ((JavascriptExecutor) browser.getDriver()).executeScript(JS_CLEAR_STORAGE);
+            browser.load(BLANK_PAGE);
+            if (session.initialSize != null && !session.initialSize.equals(browser.getScreenSize())) {
+                browser.changeWindowSize(session.initialSize);
+            }
+            return true;
+        }
+        catch (Exception ex) {
+            return false;
+        }
+    }
+
+    private void quitQuietly(Browser browser) {
+        try {
+            browser.quit();
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    public synchronized int getCreatedSessions() {
+        return createdSessions;
+    }
+
+    public synchronized int getReusedSessions() {
+        return reusedSessions;
+    }
+
+    public synchronized int getIdleSessions() {
+        int amount = 0;
+        for (List<PooledSession> sessions : idleSessions.values()) {
+            amount += sessions.size();
+        }
+        return amount;
+    }
+
+    private static class PooledSession {
+        private final BrowserFactory browserFactory;
+        private final Browser browser;
+        private final Dimension initialSize;
+        private int uses = 0;
+
+        private PooledSession(BrowserFactory browserFactory, Browser browser, Dimension initialSize) {
+            this.browserFactory = browserFactory;
+            this.browser = browser;
+            this.initialSize = initialSize;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.browser;
+
+import static java.lang.String.format;
+
+import java.awt.Dimension;
+import java.io.File;
+import java.io.IOException;
+
+import net.mindengine.galen.api.PageDump;
+import net.mindengine.galen.page.Page;
+import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.page.Screenshot;
+import net.mindengine.galen.page.dump.PageDumpPage;
+
+/**
+ * Browser that only replays a page dump. It can't navigate, resize or run javascript,
+ * so it is only suitable for checking layout specs
+ */
+public class PageDumpBrowser implements Browser {
+
+    private final File dumpFolder;
+    private final PageDumpPage page;
+
+    public PageDumpBrowser(File dumpFolder) throws IOException {
+        this(PageDump.loadFromJson(new File(dumpFolder, "page.json")), dumpFolder);
+    }
+
+    public PageDumpBrowser(PageDump pageDump, File dumpFolder) {
+        this.dumpFolder = dumpFolder;
+        this.page = new PageDumpPage(pageDump, dumpFolder);
+    }
+
+    @Override
+    public void quit() {
+    }
+
+    @Override
+    public void changeWindowSize(Dimension screenSize) {
+        throw unsupported("resizing browser window");
+    }
+
+    @Override
+    public void load(String url) {
+        throw unsupported(format("loading url \"%s\"", url));
+    }
+
+    @Override
+    public Object executeJavascript(String javascript) {
+        throw unsupported("executing javascript");
+    }
+
+    @Override
+    public Page getPage() {
+        return page;
+    }
+
+    @Override
+    public void refresh() {
+        throw unsupported("refreshing page");
+    }
+
+    @Override
+    public String getUrl() {
+        return dumpFolder.getAbsolutePath();
+    }
+
+    @Override
+    public Dimension getScreenSize() {
+        Rect area = page.getSpecialObject("screen").getArea();
+        return new Dimension(area.getWidth(), area.getHeight());
+    }
+
+    @Override
+    public File createScreenshot() {
+        return page.createScreenshot();
+    }
+
+    @Override
+    public Screenshot takeScreenshot() {
+        return page.getScreenshot();
+    }
+
+    private RuntimeException unsupported(String operation) {
+        return new RuntimeException(format("Page dump doesn't support %s. Only layout specs without browser actions and javascript can be checked against page dump: %s",
+                operation, dumpFolder.getAbsolutePath()));
+    }
+
+}
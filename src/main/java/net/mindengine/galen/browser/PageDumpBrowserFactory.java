@@ -0,0 +1,43 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.browser;
+
+import java.io.File;
+import java.io.IOException;
+
+public class PageDumpBrowserFactory implements BrowserFactory {
+
+    private final File dumpFolder;
+
+    public PageDumpBrowserFactory(File dumpFolder) {
+        this.dumpFolder = dumpFolder;
+    }
+
+    @Override
+    public Browser openBrowser() {
+        try {
+            return new PageDumpBrowser(dumpFolder);
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Couldn't load page dump: " + dumpFolder.getAbsolutePath(), e);
+        }
+    }
+
+    public File getDumpFolder() {
+        return dumpFolder;
+    }
+
+}
@@ -22,6 +22,7 @@ import java.io.IOException;
 
 import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.page.Page;
+import net.mindengine.galen.page.Screenshot;
 import net.mindengine.galen.page.selenium.SeleniumPage;
 import net.mindengine.galen.utils.GalenUtils;
 
@@ -33,6 +34,7 @@ import org.openqa.selenium.WebDriver;
 public class SeleniumBrowser implements Browser {
 
     private WebDriver driver;
+    private SeleniumPage page;
 
     public SeleniumBrowser(WebDriver driver) {
         this.driver = driver;
@@ -50,21 +52,38 @@ public class SeleniumBrowser implements Browser {
     @Override
     public void changeWindowSize(Dimension windowSize) {
         driver.manage().window().setSize(new org.openqa.selenium.Dimension(windowSize.width, windowSize.height));
+        clearPageCache();
     }
 
     @Override
     public void load(String url) {
         driver.get(url);
+        clearPageCache();
     }
 
     @Override
     public Object executeJavascript(String javascript) {
-        return ((JavascriptExecutor)driver).executeScript(javascript);
+        Object result = ((JavascriptExecutor)driver).executeScript(javascript);
+        clearPageCache();
+        return result;
     }
 
+    /**
+     * Returns the same page instance so that all resolved elements and screenshots can be reused.
+     * Its cache is cleared once the page state is changed via this browser, on wait actions and before every layout check
+     */
     @Override
     public Page getPage() {
-        return new SeleniumPage(driver);
+        if (page == null) {
+            page = new SeleniumPage(driver);
+        }
+        return page;
+    }
+
+    private void clearPageCache() {
+        if (page != null) {
+            page.clearCache();
+        }
     }
 
     @Override
@@ -80,23 +99,29 @@ public class SeleniumBrowser implements Browser {
 
     @Override
     public File createScreenshot() {
+        try {
+            return takeScreenshot().getFile();
+        } catch (IOException e) {
+            throw new RuntimeException("Error making screenshot", e);
+        }
+    }
+
+    @Override
+    public Screenshot takeScreenshot() {
         try {
             if (GalenConfig.getConfig().getBooleanProperty(GalenConfig.SCREENSHOT_FULLPAGE, false)) {
-                return GalenUtils.makeFullScreenshot(driver);
+                return GalenUtils.captureFullScreenshot(driver);
             }
-            else return makeSimpleScreenshot();
+            else return GalenUtils.captureScreenshot(driver);
         } catch (Exception e) {
             throw new RuntimeException("Error making screenshot", e);
         }
     }
     
-    private File makeSimpleScreenshot() throws IOException {
-        return GalenUtils.takeScreenshot(driver);
-    }
-    
     @Override
     public void refresh() {
         driver.navigate().refresh();
+        clearPageCache();
     }
 
 }
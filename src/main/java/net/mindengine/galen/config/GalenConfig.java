@@ -29,8 +29,30 @@ public class GalenConfig {
     
     private final static GalenConfig instance = new GalenConfig();
     public static final String SCREENSHOT_AUTORESIZE = "galen.screenshot.autoresize";
+    public static final String SCREENSHOT_AUTORESIZE_THREADS = "galen.screenshot.autoresize.threads";
     public static final String SCREENSHOT_FULLPAGE = "galen.browser.screenshots.fullPage";
     public static final String SCREENSHOT_FULLPAGE_SCROLLWAIT = "galen.browser.screenshots.fullPage.scrollWait";
+    public static final String SCREENSHOT_FULLPAGE_THREADS = "galen.browser.screenshots.fullPage.threads";
+    public static final String PAGE_SNAPSHOT = "galen.page.snapshot";
+    public static final String IMAGES_CACHE_SIZE = "galen.images.cache.size";
+    public static final String IMAGES_CACHE_SOFT_REFERENCES = "galen.images.cache.softReferences";
+    public static final String IMAGES_COMPARISON_THREADS = "galen.images.comparison.threads";
+    public static final String LAYOUT_SCREENSHOT = "galen.layout.screenshot";
+    public static final String LAYOUT_SCREENSHOT_AUTO = "auto";
+    public static final String LAYOUT_SCREENSHOT_ALWAYS = "always";
+    public static final String LAYOUT_SCREENSHOT_ON_FAILURE = "onFailure";
+    public static final String LAYOUT_SCREENSHOT_NEVER = "never";
+    public static final String SUITE_TIMEOUT = "galen.suite.timeout";
+    public static final String SUITE_PROGRESS_INTERVAL = "galen.suite.progress.interval";
+    public static final String SUITE_CANCEL_TIMEOUT = "galen.suite.cancel.timeout";
+    public static final String BROWSER_POOL_ENABLED = "galen.browserPool.enabled";
+    public static final String BROWSER_POOL_SIZE = "galen.browserPool.size";
+    public static final String BROWSER_POOL_MAX_USES = "galen.browserPool.maxUses";
+    public static final String SPEC_CACHE_ENABLED = "galen.spec.cache.enabled";
+    public static final String REPORTING_HTML_THREADS = "galen.reporting.html.threads";
+    public static final String VALIDATION_PARALLEL = "galen.validation.parallel";
+    public static final String VALIDATION_THREADS = "galen.validation.threads";
+    public static final String VALIDATION_MEMO = "galen.validation.memo";
     private int rangeApproximation;
     private List<String> reportingListeners;
     private String defaultBrowser;
@@ -165,4 +187,15 @@ public class GalenConfig {
     public boolean shouldAutoresizeScreenshots() {
         return getBooleanProperty(GalenConfig.SCREENSHOT_AUTORESIZE, true);
     }
+
+    public String getLayoutScreenshotPolicy() {
+        String value = readProperty(LAYOUT_SCREENSHOT, LAYOUT_SCREENSHOT_AUTO).trim();
+        if (LAYOUT_SCREENSHOT_AUTO.equals(value) || LAYOUT_SCREENSHOT_ALWAYS.equals(value) || LAYOUT_SCREENSHOT_ON_FAILURE.equals(value) || LAYOUT_SCREENSHOT_NEVER.equals(value)) {
+            return value;
+        }
+        else {
+            throw new RuntimeException(String.format("Property \"%s\"=%s in config file should be one of: %s, %s, %s, %s",
+                    LAYOUT_SCREENSHOT, value, LAYOUT_SCREENSHOT_AUTO, LAYOUT_SCREENSHOT_ALWAYS, LAYOUT_SCREENSHOT_ON_FAILURE, LAYOUT_SCREENSHOT_NEVER));
+        }
+    }
 }
@@ -19,6 +19,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
 
 import net.mindengine.galen.api.Galen;
 import net.mindengine.galen.browser.WebDriverWrapper;
@@ -32,6 +34,8 @@ import net.mindengine.galen.utils.GalenUtils;
 import org.apache.commons.io.IOUtils;
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.ImporterTopLevel;
+import org.mozilla.javascript.Script;
+import org.mozilla.javascript.Scriptable;
 import org.mozilla.javascript.ScriptableObject;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
@@ -40,22 +44,59 @@ import org.openqa.selenium.interactions.Actions;
 
 
 public class GalenJsExecutor {
-    
+
+    private static final String[] LIBRARIES = {"GalenCore.js", "GalenApi.js", "GalenPages.js"};
+
+    /**
+     * Top level scope with sealed standard objects and all major classes imported.
+     * It is initialized only once and is shared as a prototype of all executor scopes
+     */
+    private static ImporterTopLevel sharedScope;
+
+    private static final Map<String, Script> compiledLibraries = new HashMap<String, Script>();
+
     private Context context;
     private ImporterTopLevel scope;
     private JsFunctionLoad scriptExecutor;
 
     public GalenJsExecutor() {
         this.context = Context.enter();
-        this.scope = new ImporterTopLevel(context);
+        this.scope = createChildScope(context);
         
         this.scriptExecutor = new JsFunctionLoad();
         scope.defineProperty("load", scriptExecutor, ScriptableObject.DONTENUM);
-        importAllMajorClasses();
     }
 
-    private void importAllMajorClasses() {
-        importClasses(new Class[]{
+    /**
+     * Creates a lightweight scope which takes standard objects and imported classes from the shared scope.
+     * All variables defined by scripts stay in this scope, so scripts may also reassign globals (e.g. By or Galen).
+     */
+    private static ImporterTopLevel createChildScope(Context context) {
+        ImporterTopLevel shared = getSharedScope(context);
+        ImporterTopLevel childScope = new ImporterTopLevel();
+        childScope.setPrototype(shared);
+        childScope.setParentScope(null);
+
+        // functions of JavaImporter import into the object they are called on, so scripts import classes into this scope
+        Scriptable importerPrototype = ScriptableObject.getClassPrototype(shared, "JavaImporter");
+        for (String functionName : new String[]{"importClass", "importPackage"}) {
+            childScope.defineProperty(functionName, ScriptableObject.getProperty(importerPrototype, functionName), ScriptableObject.DONTENUM);
+        }
+        return childScope;
+    }
+
+    private static synchronized ImporterTopLevel getSharedScope(Context context) {
+        if (sharedScope == null) {
+            ImporterTopLevel topLevel = new ImporterTopLevel(context, true);
+            importAllMajorClasses(context, topLevel);
+            topLevel.sealObject();
+            sharedScope = topLevel;
+        }
+        return sharedScope;
+    }
+
+    private static void importAllMajorClasses(Context context, ImporterTopLevel scope) {
+        importClasses(context, scope, new Class[]{
                 Thread.class,
                 WebDriverWrapper.class,
                 By.class,
@@ -73,12 +114,37 @@ public class GalenJsExecutor {
         });
     }
     
-    private void importClasses(Class<?>[] classes) {
+    private static void importClasses(Context context, ImporterTopLevel scope, Class<?>[] classes) {
         for (Class<?> clazz : classes) {
             context.evaluateString(scope, "importClass(" + clazz.getName() + ");", "<cmd>", 1, null);
         }
     }
 
+    /**
+     * Runs one of the standard Galen javascript libraries (e.g. GalenPages.js) in this executor.
+     * Libraries are compiled only once and then shared between all executors
+     */
+    public Object evalLibrary(String name) {
+        return compileLibrary(context, name).exec(context, scope);
+    }
+
+    private static synchronized Script compileLibrary(Context context, String name) {
+        Script script = compiledLibraries.get(name);
+        if (script == null) {
+            script = context.compileString(loadJsFromLibrary(name), name, 1, null);
+            compiledLibraries.put(name, script);
+        }
+        return script;
+    }
+
+    /**
+     * Runs all standard Galen javascript libraries in this executor
+     */
+    public void evalAllLibraries() {
+        for (String library : LIBRARIES) {
+            evalLibrary(library);
+        }
+    }
 
     public void putObject(String name, Object object) {
         ScriptableObject.putProperty(scope, name, Context.javaToJS(object, scope));
@@ -88,10 +154,25 @@ public class GalenJsExecutor {
         return context.evaluateString(scope, jsCode, "<cmd>", 1, null);
     }
 
+    public Script compile(String jsCode) {
+        return context.compileString(jsCode, "<cmd>", 1, null);
+    }
+
+    public Object execute(Script script) {
+        return script.exec(context, scope);
+    }
+
+    /**
+     * Exits the javascript context entered by this executor. The executor should not be used afterwards
+     */
+    public void exit() {
+        Context.exit();
+    }
+
     public Object eval(Reader scriptFileReader, String javascriptPath) throws IOException {
         File file = new File(javascriptPath);
         scriptExecutor.putContextPath(file.getParent());
-        return context.evaluateReader(scope, scriptFileReader, javascriptPath, 1, null);
+        return JsScriptCache.getInstance().compile(context, scriptFileReader, javascriptPath).exec(context, scope);
     }
 
     public static String loadJsFromLibrary(String path) {
@@ -17,7 +17,6 @@ package net.mindengine.galen.javascript;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
@@ -26,7 +25,7 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.Stack;
 
-import net.mindengine.galen.utils.GalenUtils;
+import net.mindengine.galen.utils.FileContent;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.mozilla.javascript.BaseFunction;
@@ -78,7 +77,8 @@ public class JsFunctionLoad extends BaseFunction {
                 fullPath = contextPath + File.separator + filePath;
             }
 
-            String fileId = GalenUtils.calculateFileId(fullPath);
+            FileContent fileContent = FileContent.load(fullPath);
+            String fileId = fileContent.getFileId();
 
             if (!loadedFileIds.contains(fileId)) {
 
@@ -88,9 +88,7 @@ public class JsFunctionLoad extends BaseFunction {
                     contextPathStack.push(file.getParent());
                 }
 
-                InputStream is = GalenUtils.findFileOrResourceAsStream(fullPath);
-
-                cx.evaluateReader(scope, new InputStreamReader(is), file.getAbsolutePath(), 1, null);
+                JsScriptCache.getInstance().compile(cx, new InputStreamReader(fileContent.openStream(), "UTF-8"), file.getAbsolutePath()).exec(cx, scope);
                 loadedFileIds.add(fileId);
                 
                 if (!contextPathStack.isEmpty()) {
@@ -0,0 +1,78 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.javascript;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Script;
+
+/**
+ * Keeps compiled javascript files so that the same file is not parsed and compiled again
+ * by every executor. A file is compiled again once its modification time or size changes.
+ */
+public class JsScriptCache {
+
+    private static final JsScriptCache instance = new JsScriptCache();
+
+    private final Map<String, CompiledScript> scripts = new ConcurrentHashMap<String, CompiledScript>();
+
+    public static JsScriptCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param reader - is only read in case there is no compiled script for this file yet
+     * @param sourceName - path to javascript file. Scripts which are not stored in files (e.g. classpath resources) are not cached
+     */
+    public Script compile(Context context, Reader reader, String sourceName) throws IOException {
+        File file = new File(sourceName);
+        if (!file.isFile()) {
+            return context.compileReader(reader, sourceName, 1, null);
+        }
+
+        String key = file.getAbsolutePath() + "#" + sourceName;
+        long lastModified = file.lastModified();
+        long length = file.length();
+
+        CompiledScript compiledScript = scripts.get(key);
+        if (compiledScript == null || compiledScript.lastModified != lastModified || compiledScript.length != length) {
+            compiledScript = new CompiledScript(context.compileReader(reader, sourceName, 1, null), lastModified, length);
+            scripts.put(key, compiledScript);
+        }
+        return compiledScript.script;
+    }
+
+    public void clear() {
+        scripts.clear();
+    }
+
+    private static class CompiledScript {
+        private final Script script;
+        private final long lastModified;
+        private final long length;
+
+        private CompiledScript(Script script, long lastModified, long length) {
+            this.script = script;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+    }
+}
@@ -17,6 +17,7 @@ package net.mindengine.galen.page;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.Collection;
 
 import net.mindengine.galen.specs.page.Locator;
 
@@ -36,5 +37,29 @@ public interface Page {
 
     File createScreenshot();
 
+    /**
+     * Gives the screenshot of the page which is made only once and is kept in memory until cache is cleared
+     */
+    Screenshot getScreenshot();
+
     String getTitle();
+
+    /**
+     * Gives the page a chance to fetch all the specified objects at once before they are validated.
+     * Implementations are free to ignore it
+     * @param locators - locators of all objects that are going to be checked
+     */
+    void prefetchObjects(Collection<Locator> locators);
+
+    /**
+     * Drops all cached elements and screenshots. Should be invoked whenever the page state changes
+     * (e.g. page was reloaded, resized or modified by javascript)
+     */
+    void clearCache();
+
+    /**
+     * Tells whether objects and screenshot of this page can be read from several threads at once.
+     * Only such pages are validated in parallel
+     */
+    boolean isThreadSafe();
 }
@@ -0,0 +1,185 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.page;
+
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+import net.mindengine.rainbow4j.Rainbow4J;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Keeps a page screenshot in memory. Depending on how it was made it holds the original png bytes
+ * and/or the decoded image. The decoded image is only created when specs need pixels
+ * and the file is only written once somebody (e.g. report) asks for it.
+ */
+public class Screenshot {
+
+    private static final int[] RGB_BAND_OFFSETS = {0, 1, 2};
+    private static final int[] RGBA_BAND_OFFSETS = {0, 1, 2, 3};
+
+    private byte[] pngBytes;
+    private BufferedImage image;
+    private File file;
+    private boolean temporaryFile = false;
+
+    private Screenshot() {
+    }
+
+    public static Screenshot fromPngBytes(byte[] pngBytes) {
+        Screenshot screenshot = new Screenshot();
+        screenshot.pngBytes = pngBytes;
+        return screenshot;
+    }
+
+    /**
+     * @param pngBytes original png bytes
+     * @param decodedImage image decoded from the same bytes
+     */
+    public static Screenshot fromPngBytes(byte[] pngBytes, BufferedImage decodedImage) {
+        Screenshot screenshot = new Screenshot();
+        screenshot.pngBytes = pngBytes;
+        screenshot.image = decodedImage;
+        return screenshot;
+    }
+
+    public static Screenshot fromImage(BufferedImage image) {
+        Screenshot screenshot = new Screenshot();
+        screenshot.image = image;
+        return screenshot;
+    }
+
+    public static Screenshot fromFile(File file) {
+        Screenshot screenshot = new Screenshot();
+        screenshot.file = file;
+        return screenshot;
+    }
+
+    /**
+     * Gives the decoded screenshot in the same raster format as images loaded with Rainbow4J
+     * so that it can be used for image comparison and color spectrum
+     */
+    public synchronized BufferedImage getImage() throws IOException {
+        if (image == null) {
+            if (pngBytes != null) {
+                image = Rainbow4J.loadImage(new ByteArrayInputStream(pngBytes));
+            }
+            else {
+                image = Rainbow4J.loadImage(file.getAbsolutePath());
+            }
+        }
+        else if (!hasRgbByteRaster(image)) {
+            image = convertToRgbByteRaster(image);
+        }
+        return image;
+    }
+
+    /**
+     * Writes the screenshot into a temporary png file on first invocation.
+     * The temporary file is deleted on exit unless the report has moved it away before
+     * @return File with the screenshot
+     */
+    public synchronized File getFile() throws IOException {
+        if (file == null) {
+            File tempFile = File.createTempFile("screenshot", ".png");
+            tempFile.deleteOnExit();
+            writeTo(tempFile);
+            file = tempFile;
+            temporaryFile = true;
+        }
+        return file;
+    }
+
+    /**
+     * @return true if the file was created by Galen in {@link #getFile()}, so that it can be moved instead of copied
+     */
+    public synchronized boolean isTemporaryFile() {
+        return temporaryFile;
+    }
+
+    public synchronized void writeTo(File destination) throws IOException {
+        if (file != null) {
+            FileUtils.copyFile(file, destination);
+        }
+        else if (pngBytes != null) {
+            FileUtils.writeByteArrayToFile(destination, pngBytes);
+        }
+        else {
+            ImageIO.write(image, "png", destination);
+        }
+    }
+
+    /**
+     * Writes the screenshot to file (if it was not written yet) and drops png bytes and decoded image
+     * so that only the file is kept. The image is read from the file again if somebody needs it later
+     */
+    public synchronized void releaseMemory() throws IOException {
+        getFile();
+        pngBytes = null;
+        image = null;
+    }
+
+    private static boolean hasRgbByteRaster(BufferedImage image) {
+        Raster raster = image.getRaster();
+        if (raster.getDataBuffer() instanceof DataBufferByte && raster.getSampleModel() instanceof PixelInterleavedSampleModel) {
+            PixelInterleavedSampleModel sampleModel = (PixelInterleavedSampleModel) raster.getSampleModel();
+            int[] bandOffsets = sampleModel.getBandOffsets();
+            boolean hasAlpha = image.getColorModel().hasAlpha();
+
+            return raster.getMinX() == 0 && raster.getMinY() == 0
+                    && sampleModel.getScanlineStride() == image.getWidth() * sampleModel.getPixelStride()
+                    && Arrays.equals(bandOffsets, hasAlpha ? RGBA_BAND_OFFSETS : RGB_BAND_OFFSETS);
+        }
+        return false;
+    }
+
+    private static BufferedImage convertToRgbByteRaster(BufferedImage source) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+
+        ComponentColorModel colorModel = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_sRGB),
+                false, false, Transparency.OPAQUE, DataBuffer.TYPE_BYTE);
+        WritableRaster raster = Raster.createInterleavedRaster(DataBuffer.TYPE_BYTE, width, height, width * 3, 3, RGB_BAND_OFFSETS, null);
+        byte[] bytes = ((DataBufferByte) raster.getDataBuffer()).getData();
+
+        int[] row = new int[width];
+        int k = 0;
+        for (int y = 0; y < height; y++) {
+            source.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                bytes[k++] = (byte) ((rgb >> 16) & 0xff);
+                bytes[k++] = (byte) ((rgb >> 8) & 0xff);
+                bytes[k++] = (byte) (rgb & 0xff);
+            }
+        }
+        return new BufferedImage(colorModel, raster, false, null);
+    }
+}
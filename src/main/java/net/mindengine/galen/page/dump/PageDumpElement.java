@@ -0,0 +1,79 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.page.dump;
+
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.Rect;
+
+/**
+ * Element restored from a page dump. Its area was stored with all corrections already applied
+ */
+public class PageDumpElement implements PageElement {
+
+    private final Rect area;
+    private final String text;
+
+    public PageDumpElement(Rect area, String text) {
+        this.area = area;
+        this.text = text;
+    }
+
+    @Override
+    public Rect getArea() {
+        return area;
+    }
+
+    @Override
+    public boolean isPresent() {
+        return true;
+    }
+
+    @Override
+    public boolean isVisible() {
+        return true;
+    }
+
+    @Override
+    public int getWidth() {
+        return area.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return area.getHeight();
+    }
+
+    @Override
+    public int getLeft() {
+        return area.getLeft();
+    }
+
+    @Override
+    public int getTop() {
+        return area.getTop();
+    }
+
+    @Override
+    public String getText() {
+        return text != null ? text : "";
+    }
+
+    @Override
+    public String getCssProperty(String cssPropertyName) {
+        return null;
+    }
+
+}
@@ -0,0 +1,163 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.page.dump;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+
+import net.mindengine.galen.api.PageDump;
+import net.mindengine.galen.page.AbsentPageElement;
+import net.mindengine.galen.page.Page;
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.page.Screenshot;
+import net.mindengine.galen.specs.page.Locator;
+
+/**
+ * Page which is restored from a page dump (page.json and page.png) so that specs could be checked
+ * without launching a browser. Only objects which were visible at the moment of dumping are stored
+ * so all other objects are treated as absent
+ */
+public class PageDumpPage implements Page {
+
+    private final PageDump pageDump;
+    private final File dumpFolder;
+    private Screenshot screenshot;
+
+    public PageDumpPage(PageDump pageDump, File dumpFolder) {
+        this.pageDump = pageDump;
+        this.dumpFolder = dumpFolder;
+    }
+
+    @Override
+    public PageElement getObject(Locator objectLocator) {
+        String locatorText = objectLocator.prettyString();
+        for (PageDump.Element element : pageDump.getItems().values()) {
+            if (locatorText.equals(element.getLocator()) && objectLocator.getIndex() == element.getIndex()) {
+                return toPageElement(element);
+            }
+        }
+        return new AbsentPageElement();
+    }
+
+    @Override
+    public PageElement getObject(String objectName, Locator objectLocator) {
+        PageDump.Element element = pageDump.getItems().get(objectName);
+        if (element != null) {
+            return toPageElement(element);
+        }
+        return new AbsentPageElement();
+    }
+
+    @Override
+    public PageElement getSpecialObject(String objectName) {
+        if ("screen".equals(objectName)) {
+            return new PageDumpElement(areaOrScreenshotSize(pageDump.getScreenArea()), "");
+        }
+        else if ("viewport".equals(objectName)) {
+            return new PageDumpElement(areaOrScreenshotSize(pageDump.getViewportArea()), "");
+        }
+        return null;
+    }
+
+    @Override
+    public int getObjectCount(Locator locator) {
+        String locatorText = locator.prettyString();
+        int count = 0;
+        for (PageDump.Element element : pageDump.getItems().values()) {
+            if (locatorText.equals(element.getLocator())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Page createObjectContextPage(Locator mainObjectLocator) {
+        return this;
+    }
+
+    @Override
+    public BufferedImage getScreenshotImage() {
+        try {
+            return getScreenshot().getImage();
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Couldn't load page dump screenshot", e);
+        }
+    }
+
+    @Override
+    public File createScreenshot() {
+        return getScreenshotFile();
+    }
+
+    @Override
+    public synchronized Screenshot getScreenshot() {
+        if (screenshot == null) {
+            File file = getScreenshotFile();
+            if (!file.exists()) {
+                throw new RuntimeException("Page dump doesn't contain a screenshot: " + file.getAbsolutePath());
+            }
+            screenshot = Screenshot.fromFile(file);
+        }
+        return screenshot;
+    }
+
+    @Override
+    public String getTitle() {
+        return pageDump.getTitle();
+    }
+
+    @Override
+    public void prefetchObjects(Collection<Locator> locators) {
+    }
+
+    @Override
+    public void clearCache() {
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    public PageDump getPageDump() {
+        return pageDump;
+    }
+
+    public File getScreenshotFile() {
+        return new File(dumpFolder, "page.png");
+    }
+
+    private PageElement toPageElement(PageDump.Element element) {
+        return new PageDumpElement(toRect(element.getArea()), element.getText());
+    }
+
+    private Rect areaOrScreenshotSize(int[] area) {
+        if (area != null) {
+            return toRect(area);
+        }
+        BufferedImage image = getScreenshotImage();
+        return new Rect(0, 0, image.getWidth(), image.getHeight());
+    }
+
+    private static Rect toRect(int[] area) {
+        return new Rect(area[0], area[1], area[2], area[3]);
+    }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.page.selenium;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.specs.page.Locator;
+
+import org.openqa.selenium.WebElement;
+
+/**
+ * Stores elements resolved by {@link SeleniumPage} so that each locator is looked up in the driver
+ * only once for the current state of the page. Should be cleared whenever the page state changes
+ */
+public class ElementCache {
+
+    private Map<String, List<WebElement>> webElements = new ConcurrentHashMap<String, List<WebElement>>();
+    private Map<List<Object>, PageElement> pageElements = new ConcurrentHashMap<List<Object>, PageElement>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param locatorKey - unique text representation of a locator (without index)
+     * @return all web elements found for this locator or null in case the locator was not resolved yet
+     */
+    public List<WebElement> getWebElements(String locatorKey) {
+        List<WebElement> elements = webElements.get(locatorKey);
+        if (elements != null) {
+            hits.incrementAndGet();
+        }
+        else {
+            misses.incrementAndGet();
+        }
+        return elements;
+    }
+
+    public void putWebElements(String locatorKey, List<WebElement> elements) {
+        webElements.put(locatorKey, elements);
+    }
+
+    public PageElement getPageElement(String objectName, Locator locator) {
+        return pageElements.get(objectKey(objectName, locator));
+    }
+
+    public void putPageElement(String objectName, Locator locator, PageElement pageElement) {
+        pageElements.put(objectKey(objectName, locator), pageElement);
+    }
+
+    private List<Object> objectKey(String objectName, Locator locator) {
+        // Locator equality covers corrections but not the index
+        return Arrays.<Object>asList(objectName, locator, locator.getIndex());
+    }
+
+    public void clear() {
+        webElements.clear();
+        pageElements.clear();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
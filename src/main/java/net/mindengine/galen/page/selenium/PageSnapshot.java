@@ -0,0 +1,192 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.page.selenium;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.mindengine.galen.page.AbsentPageElement;
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.specs.page.Locator;
+
+import org.apache.commons.io.IOUtils;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Keeps areas, visibility and text of all page objects which were fetched with a single javascript call.
+ * This way the validation doesn't have to ask the driver for location, size and visibility of each element separately
+ */
+public class PageSnapshot {
+
+    private static String snapshotScript;
+
+    private Map<String, List<ElementData>> elements = new HashMap<String, List<ElementData>>();
+    private Rect screenArea;
+    private Rect viewportArea;
+
+
+    @SuppressWarnings("unchecked")
+    public static PageSnapshot take(WebDriver driver, WebElement objectContext, Collection<Locator> locators) {
+        List<String> keys = new ArrayList<String>(uniqueKeys(locators));
+        List<List<String>> queries = new ArrayList<List<String>>(keys.size());
+        for (String key : keys) {
+            int index = key.indexOf(": ");
+            List<String> query = new ArrayList<String>(2);
+            query.add(key.substring(0, index));
+            query.add(key.substring(index + 2));
+            queries.add(query);
+        }
+
+        List<Object> result = (List<Object>) ((JavascriptExecutor)driver).executeScript(getScript(), queries, objectContext);
+
+        PageSnapshot snapshot = new PageSnapshot();
+        snapshot.screenArea = toArea((List<Object>) result.get(0));
+        snapshot.viewportArea = toArea((List<Object>) result.get(1));
+
+        List<Object> results = (List<Object>) result.get(2);
+        for (int i = 0; i < keys.size(); i++) {
+            List<Object> items = (List<Object>) results.get(i);
+            if (items != null) {
+                List<ElementData> elementsData = new ArrayList<ElementData>(items.size());
+                for (Object item : items) {
+                    elementsData.add(ElementData.fromList((List<Object>) item));
+                }
+                snapshot.elements.put(keys.get(i), elementsData);
+            }
+        }
+        return snapshot;
+    }
+
+    private static Set<String> uniqueKeys(Collection<Locator> locators) {
+        Set<String> keys = new LinkedHashSet<String>();
+        for (Locator locator : locators) {
+            if (isSupported(locator)) {
+                keys.add(locator.prettyString());
+            }
+        }
+        return keys;
+    }
+
+    private static boolean isSupported(Locator locator) {
+        String type = locator.getLocatorType();
+        return "css".equals(type) || "xpath".equals(type) || "id".equals(type);
+    }
+
+    private static Rect toArea(List<Object> size) {
+        return new Rect(0, 0, toInt(size.get(0)), toInt(size.get(1)));
+    }
+
+    private static int toInt(Object value) {
+        return ((Number) value).intValue();
+    }
+
+    public static synchronized String getScript() {
+        if (snapshotScript == null) {
+            InputStream stream = PageSnapshot.class.getResourceAsStream("/selenium/page-snapshot.js");
+            try {
+                snapshotScript = IOUtils.toString(stream, "UTF-8");
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Couldn't load page snapshot script", e);
+            }
+            finally {
+                IOUtils.closeQuietly(stream);
+            }
+        }
+        return snapshotScript;
+    }
+
+    /**
+     * @return Page element from the snapshot or null in case this locator was not fetched
+     */
+    public PageElement findElement(String objectName, Locator locator) {
+        List<ElementData> elementsData = elements.get(locator.prettyString());
+        if (elementsData != null) {
+            int index = locator.getIndex() > 0 ? locator.getIndex() - 1 : 0;
+            if (index < elementsData.size()) {
+                return new SnapshotPageElement(objectName, elementsData.get(index), locator);
+            }
+            else {
+                return new AbsentPageElement();
+            }
+        }
+        else return null;
+    }
+
+    /**
+     * @return Amount of elements for this locator or null in case this locator was not fetched
+     */
+    public Integer getObjectCount(Locator locator) {
+        List<ElementData> elementsData = elements.get(locator.prettyString());
+        if (elementsData != null) {
+            return elementsData.size();
+        }
+        else return null;
+    }
+
+    public Rect getScreenArea() {
+        return screenArea;
+    }
+
+    public Rect getViewportArea() {
+        return viewportArea;
+    }
+
+
+    public static class ElementData {
+        private WebElement webElement;
+        private Rect area;
+        private boolean visible;
+        private String text;
+
+        public ElementData(WebElement webElement, Rect area, boolean visible, String text) {
+            this.webElement = webElement;
+            this.area = area;
+            this.visible = visible;
+            this.text = text;
+        }
+
+        private static ElementData fromList(List<Object> item) {
+            Rect area = new Rect(toInt(item.get(1)), toInt(item.get(2)), toInt(item.get(3)), toInt(item.get(4)));
+            return new ElementData((WebElement) item.get(0), area, Boolean.TRUE.equals(item.get(5)), (String) item.get(6));
+        }
+
+        public WebElement getWebElement() {
+            return webElement;
+        }
+
+        public Rect getArea() {
+            return area;
+        }
+
+        public boolean isVisible() {
+            return visible;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+}
@@ -26,14 +26,23 @@ import org.openqa.selenium.WebDriver;
 public class ScreenElement implements PageElement {
 
     private WebDriver driver;
+    private Rect area;
 
     public ScreenElement(WebDriver driver) {
         this.driver = driver;
     }
 
+    public ScreenElement(WebDriver driver, Rect area) {
+        this.driver = driver;
+        this.area = area;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public Rect getArea() {
+        if (area != null) {
+            return area;
+        }
         List<Long> size = (List<Long>)((JavascriptExecutor)driver).executeScript("return [Math.max(" +
                     "document.body.scrollWidth, document.documentElement.scrollWidth," + 
                     "document.body.offsetWidth, document.documentElement.offsetWidth," +
@@ -17,20 +17,18 @@ package net.mindengine.galen.page.selenium;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 
 import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.page.AbsentPageElement;
 import net.mindengine.galen.page.Page;
 import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.Screenshot;
 import net.mindengine.galen.specs.page.Locator;
-import net.mindengine.rainbow4j.Rainbow4J;
 
 import org.openqa.selenium.By;
-import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
@@ -40,14 +38,14 @@ public class SeleniumPage implements Page {
 
     private WebDriver driver;
     
-    private Map<String, List<PageElement>> cachedElementsList = new HashMap<String, List<PageElement>>();
-    private Map<String, PageElement> cachedPageElements = new HashMap<String, PageElement>();
+    private ElementCache elementCache = new ElementCache();
     
     private WebElement objectContext;
     private Locator objectContextLocator;
 
-    private BufferedImage cachedScreenshotImage;
-    private File cachedScreenshotFile;
+    private Screenshot cachedScreenshot;
+
+    private PageSnapshot snapshot;
     
 
     public SeleniumPage(WebDriver driver) {
@@ -91,91 +89,68 @@ public class SeleniumPage implements Page {
 
     @Override
     public PageElement getObject(String objectName, Locator objectLocator) {
-        int index = objectLocator.getIndex() - 1;
-        
-        if (index >= 0) {
-            return getWebPageElement(objectName, objectLocator, index);
-        }
-        else {
-            return getWebPageElement(objectName, objectLocator);
+        if (snapshot != null) {
+            PageElement snapshotElement = snapshot.findElement(objectName, objectLocator);
+            if (snapshotElement != null) {
+                return snapshotElement;
+            }
         }
-    }
 
-    private PageElement getWebPageElement(String objectName, Locator objectLocator, int index) {
-        List<PageElement> pageElements = cachedElementsList.get(objectName);
-        
-        if (pageElements == null) {
-            By by = by(objectLocator);
-            if (by == null) {
-                return null;
-            }
-            
-            List<WebElement> webElements = driverFindElements(by);
-            
-            pageElements = new LinkedList<PageElement>();
-            int i = 1;
-            for (WebElement webElement : webElements) {
-                pageElements.add(new WebPageElement(objectName, webElement, new Locator(objectLocator.getLocatorType(), objectLocator.getLocatorValue(), i)));
-                i++;
+        PageElement pageElement = elementCache.getPageElement(objectName, objectLocator);
+        if (pageElement == null) {
+            pageElement = locatorToElement(objectName, objectLocator);
+            if (pageElement != null) {
+                elementCache.putPageElement(objectName, objectLocator, pageElement);
             }
         }
-        if (index < pageElements.size()) {
-             return pageElements.get(index);
-        }
-        else {
-            return new AbsentPageElement();
-        }
-        
+        return pageElement;
     }
 
-    private List<WebElement> driverFindElements(By by) {
-        if (objectContext == null) {
-            return driver.findElements(by);
+    private PageElement locatorToElement(String objectName, Locator objectLocator) {
+        List<WebElement> webElements = findWebElements(objectLocator);
+        if (webElements == null) {
+            return null;
         }
-        else {
-            return objectContext.findElements(by);
+
+        int index = objectLocator.getIndex() - 1;
+        if (index < 0) {
+            index = 0;
         }
-    }
 
-    private WebElement driverFindElement(By by) {
-        if (objectContext == null) {
-            return driver.findElement(by);
+        if (index < webElements.size()) {
+            return new WebPageElement(objectName, webElements.get(index), objectLocator);
         }
         else {
-            return objectContext.findElement(by);
+            return new AbsentPageElement();
         }
     }
-    
 
-    private PageElement getWebPageElement(String objectName, Locator objectLocator) {
-        PageElement pageElement = cachedPageElements.get(objectName);
-        
-        if (pageElement == null) {
-            pageElement = locatorToElement(objectName, objectLocator);
-            
-            cachedPageElements.put(objectName, pageElement);
-            return pageElement;
-        }
-        else {
-            return pageElement;
+    /**
+     * Resolves all elements for the given locator (ignoring its index) only once per page state
+     * @return list of found elements or null in case locator type is not supported
+     */
+    private List<WebElement> findWebElements(Locator locator) {
+        String locatorKey = locator.prettyString();
+        List<WebElement> webElements = elementCache.getWebElements(locatorKey);
+
+        if (webElements == null) {
+            By by = by(locator);
+            if (by == null) {
+                return null;
+            }
+            webElements = driverFindElements(by);
+            elementCache.putWebElements(locatorKey, webElements);
         }
+        return webElements;
     }
 
-    private PageElement locatorToElement(String objectName, Locator objectLocator) {
-        PageElement pageElement;
-        By by = by(objectLocator);
-        if (by == null) {
-            return null;
-        }
-        
-        try {
-            WebElement webElement = driverFindElement(by);
-            pageElement = new WebPageElement(objectName, webElement, objectLocator);
+    private List<WebElement> driverFindElements(By by) {
+        if (objectContext == null) {
+            return driver.findElements(by);
         }
-        catch (NoSuchElementException e) {
-            pageElement = new AbsentPageElement();
+        else {
+            return objectContext.findElements(by);
         }
-        return pageElement;
     }
 
     private By by(Locator locator) {
@@ -195,9 +170,15 @@ public class SeleniumPage implements Page {
     @Override
     public PageElement getSpecialObject(String objectName) {
         if ("screen".equals(objectName)) {
+            if (snapshot != null) {
+                return new ScreenElement(driver, snapshot.getScreenArea());
+            }
             return new ScreenElement(driver);
         }
         else if ("viewport".equals(objectName)) {
+            if (snapshot != null) {
+                return new ViewportElement(driver, snapshot.getViewportArea());
+            }
             return new ViewportElement(driver);
         }
         else if ("parent".equals(objectName)) {
@@ -212,7 +193,17 @@ public class SeleniumPage implements Page {
 
     @Override
     public int getObjectCount(Locator locator) {
-        return driverFindElements(by(locator)).size();
+        if (snapshot != null) {
+            Integer count = snapshot.getObjectCount(locator);
+            if (count != null) {
+                return count;
+            }
+        }
+        List<WebElement> webElements = findWebElements(locator);
+        if (webElements != null) {
+            return webElements.size();
+        }
+        else return 0;
     }
 
     @Override
@@ -222,23 +213,28 @@ public class SeleniumPage implements Page {
 
     @Override
     public File createScreenshot() {
-        if (this.cachedScreenshotFile == null) {
-            cachedScreenshotFile = new SeleniumBrowser(driver).createScreenshot();
+        try {
+            return getScreenshot().getFile();
+        } catch (Exception e) {
+            throw new RuntimeException("Couldn't save screenshot for page", e);
         }
+    }
 
-        return this.cachedScreenshotFile;
+    @Override
+    public synchronized Screenshot getScreenshot() {
+        if (this.cachedScreenshot == null) {
+            cachedScreenshot = new SeleniumBrowser(driver).takeScreenshot();
+        }
+        return this.cachedScreenshot;
     }
 
     @Override
     public BufferedImage getScreenshotImage() {
-        if (this.cachedScreenshotImage == null) {
-            try {
-                cachedScreenshotImage = Rainbow4J.loadImage(createScreenshot().getAbsolutePath());
-            } catch (Exception e) {
-                throw new RuntimeException("Couldn't take screenshot for page", e);
-            }
+        try {
+            return getScreenshot().getImage();
+        } catch (Exception e) {
+            throw new RuntimeException("Couldn't take screenshot for page", e);
         }
-        return this.cachedScreenshotImage;
     }
 
     @Override
@@ -246,5 +242,39 @@ public class SeleniumPage implements Page {
         return driver.getTitle();
     }
 
+    @Override
+    public void prefetchObjects(Collection<Locator> locators) {
+        if (GalenConfig.getConfig().getBooleanProperty(GalenConfig.PAGE_SNAPSHOT, false)) {
+            try {
+                snapshot = PageSnapshot.take(driver, objectContext, locators);
+            }
+            catch (Exception e) {
+                // falling back to fetching each element separately
+                e.printStackTrace();
+                snapshot = null;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clearCache() {
+        elementCache.clear();
+        snapshot = null;
+        cachedScreenshot = null;
+    }
+
+    /**
+     * Even with page snapshot some of the elements are still read from the driver
+     * and most drivers can't be used from several threads
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return false;
+    }
+
+    public ElementCache getElementCache() {
+        return elementCache;
+    }
+
 
 }
@@ -0,0 +1,58 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.page.selenium;
+
+import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.specs.page.Locator;
+
+/**
+ * A web page element which takes its area, visibility and text from a {@link PageSnapshot}
+ * instead of asking the driver. The web element is still used for fetching css properties
+ */
+public class SnapshotPageElement extends WebPageElement {
+
+    private PageSnapshot.ElementData elementData;
+    private Rect area;
+
+    public SnapshotPageElement(String objectName, PageSnapshot.ElementData elementData, Locator objectLocator) {
+        super(objectName, elementData.getWebElement(), objectLocator);
+        this.elementData = elementData;
+    }
+
+    @Override
+    public Rect getArea() {
+        if (area == null) {
+            area = elementData.getArea();
+            if (getLocator() != null && getLocator().getCorrections() != null) {
+                area = correctedRect(area, getLocator().getCorrections());
+            }
+        }
+        return area;
+    }
+
+    @Override
+    public boolean isVisible() {
+        return elementData.isVisible();
+    }
+
+    @Override
+    public String getText() {
+        if (elementData.getText() != null) {
+            return elementData.getText();
+        }
+        else return "";
+    }
+}
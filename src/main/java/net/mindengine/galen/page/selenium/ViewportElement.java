@@ -26,14 +26,23 @@ import org.openqa.selenium.WebDriver;
 public class ViewportElement implements PageElement {
 
     private WebDriver driver;
+    private Rect area;
 
     public ViewportElement(WebDriver driver) {
         this.driver = driver;
     }
 
+    public ViewportElement(WebDriver driver, Rect area) {
+        this.driver = driver;
+        this.area = area;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public Rect getArea() {
+        if (area != null) {
+            return area;
+        }
         List<Long> size = (List<Long>)((JavascriptExecutor)driver).executeScript("return [window.innerWidth" +
                     "|| document.documentElement.clientWidth" + 
                     "|| document.body.clientWidth," +
@@ -53,7 +53,7 @@ public class WebPageElement implements PageElement {
         return cachedArea;
     }
 
-    private Rect correctedRect(Rect rect, CorrectionsRect corrections) {
+    protected Rect correctedRect(Rect rect, CorrectionsRect corrections) {
         return new Rect(corrections.getLeft().correct(rect.getLeft()),
                 corrections.getTop().correct(rect.getTop()),
                 corrections.getWidth().correct(rect.getWidth()),
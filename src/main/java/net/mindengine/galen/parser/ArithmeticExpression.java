@@ -0,0 +1,176 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.parser;
+
+/**
+ * Evaluates simple arithmetic expressions like <code>index * 2 + 1</code> without javascript.
+ * Supports only numbers, <code>index</code> variable, parentheses and <code>+ - * / %</code> operators.
+ * All calculations are done with doubles, so that the result is the same as in javascript.
+ */
+public class ArithmeticExpression {
+
+    private final String expression;
+    private final double index;
+    private int position = 0;
+
+    private ArithmeticExpression(String expression, double index) {
+        this.expression = expression;
+        this.index = index;
+    }
+
+    /**
+     * @param expression - expression without whitespaces
+     * @return result of expression or null in case it is not supported and should be evaluated with javascript instead
+     */
+    public static Double evaluate(String expression, int index) {
+        if (expression.contains("++") || expression.contains("--")) {
+            // these are increment and decrement operators in javascript
+            return null;
+        }
+
+        ArithmeticExpression arithmeticExpression = new ArithmeticExpression(expression, index);
+        try {
+            double result = arithmeticExpression.readSum();
+            if (arithmeticExpression.position == expression.length()) {
+                return result;
+            }
+        }
+        catch (UnsupportedExpression ex) {
+            return null;
+        }
+        return null;
+    }
+
+    private double readSum() {
+        double result = readProduct();
+        while (position < expression.length()) {
+            char operator = expression.charAt(position);
+            if (operator == '+') {
+                position++;
+                result = result + readProduct();
+            }
+            else if (operator == '-') {
+                position++;
+                result = result - readProduct();
+            }
+            else {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private double readProduct() {
+        double result = readUnary();
+        while (position < expression.length()) {
+            char operator = expression.charAt(position);
+            if (operator == '*') {
+                position++;
+                result = result * readUnary();
+            }
+            else if (operator == '/') {
+                position++;
+                result = result / readUnary();
+            }
+            else if (operator == '%') {
+                position++;
+                result = result % readUnary();
+            }
+            else {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private double readUnary() {
+        if (position < expression.length()) {
+            char symbol = expression.charAt(position);
+            if (symbol == '-') {
+                position++;
+                return -readUnary();
+            }
+            else if (symbol == '+') {
+                position++;
+                return readUnary();
+            }
+        }
+        return readOperand();
+    }
+
+    private double readOperand() {
+        if (position >= expression.length()) {
+            throw new UnsupportedExpression();
+        }
+
+        char symbol = expression.charAt(position);
+        if (symbol == '(') {
+            position++;
+            double result = readSum();
+            if (position >= expression.length() || expression.charAt(position) != ')') {
+                throw new UnsupportedExpression();
+            }
+            position++;
+            return result;
+        }
+        else if (expression.startsWith("index", position)) {
+            position += "index".length();
+            if (position < expression.length() && Character.isJavaIdentifierPart(expression.charAt(position))) {
+                throw new UnsupportedExpression();
+            }
+            return index;
+        }
+        else if (Character.isDigit(symbol)) {
+            return readNumber();
+        }
+        else {
+            throw new UnsupportedExpression();
+        }
+    }
+
+    private double readNumber() {
+        int start = position;
+        while (position < expression.length() && Character.isDigit(expression.charAt(position))) {
+            position++;
+        }
+        if (position < expression.length() && expression.charAt(position) == '.') {
+            position++;
+            int fractionStart = position;
+            while (position < expression.length() && Character.isDigit(expression.charAt(position))) {
+                position++;
+            }
+            if (position == fractionStart) {
+                throw new UnsupportedExpression();
+            }
+        }
+
+        if (position < expression.length() && Character.isJavaIdentifierPart(expression.charAt(position))) {
+            // e.g. exponent or hex numbers
+            throw new UnsupportedExpression();
+        }
+
+        String number = expression.substring(start, position);
+        if (number.length() > 1 && number.charAt(0) == '0' && number.charAt(1) != '.') {
+            // octal numbers in javascript
+            throw new UnsupportedExpression();
+        }
+        return Double.parseDouble(number);
+    }
+
+    private static class UnsupportedExpression extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+}
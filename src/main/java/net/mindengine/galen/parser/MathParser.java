@@ -15,10 +15,14 @@
 ******************************************************************************/
 package net.mindengine.galen.parser;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import net.mindengine.galen.javascript.GalenJsExecutor;
 import org.apache.commons.lang3.StringUtils;
 
 import net.mindengine.galen.specs.reader.StringCharReader;
+import org.mozilla.javascript.Script;
 
 public class MathParser {
 	
@@ -65,6 +69,8 @@ public class MathParser {
 		return text.toString();
 	}
 
+    private static final Map<String, Script> compiledExpressions = new ConcurrentHashMap<String, Script>();
+
     private static final char[] mathOperations = {'+', '-', '/', '*','%'};
 
 	private String convertExpression(String initialValue, String expression) {
@@ -78,10 +84,27 @@ public class MathParser {
 	}
 
     private int execJavascript(int index, String expression) {
+        Double result = ArithmeticExpression.evaluate(expression, index);
+        if (result != null) {
+            return result.intValue();
+        }
+
+        // every expression runs in its own lightweight scope so that its globals are not visible to other expressions
         GalenJsExecutor jsExecutor = new GalenJsExecutor();
-        jsExecutor.putObject("index", index);
-        Number number = (Number)jsExecutor.eval(expression);
-        return number.intValue();
+        try {
+            Script script = compiledExpressions.get(expression);
+            if (script == null) {
+                script = jsExecutor.compile(expression);
+                compiledExpressions.put(expression, script);
+            }
+
+            jsExecutor.putObject("index", index);
+            Number number = (Number)jsExecutor.execute(script);
+            return number.intValue();
+        }
+        finally {
+            jsExecutor.exit();
+        }
     }
 
     private boolean startsWithOneOfTheseSymbols(String expression, char[] mathOperations) {
@@ -16,6 +16,7 @@
 package net.mindengine.galen.parser;
 
 import java.util.Properties;
+import java.util.Set;
 
 import net.mindengine.galen.specs.reader.page.PageSpecReader;
 import net.mindengine.galen.suite.reader.Context;
@@ -75,6 +76,10 @@ public class VarsContext extends Context {
         this.properties = properties;
     }
 
+    public Set<String> getUsedSystemProperties() {
+        return varsParser.getUsedSystemProperties();
+    }
+
     public void runJavascriptFromFile(String filePath, String contextPath) {
         if (jsProcessor != null) {
             jsProcessor.runJavascriptFromFile(filePath, contextPath);
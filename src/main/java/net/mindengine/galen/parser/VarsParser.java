@@ -18,7 +18,9 @@ package net.mindengine.galen.parser;
 import net.mindengine.galen.specs.reader.StringCharReader;
 import net.mindengine.galen.suite.reader.Context;
 
+import java.util.LinkedHashSet;
 import java.util.Properties;
+import java.util.Set;
 
 public class VarsParser {
 
@@ -30,6 +32,7 @@ public class VarsParser {
 
     private int state = PARSING_TEXT;
     private Properties properties;
+    private final Set<String> usedSystemProperties = new LinkedHashSet<String>();
    
 
     public VarsParser(Context context, Properties properties, VarsParserJsProcessor jsProcessor) {
@@ -95,6 +98,7 @@ public class VarsParser {
             }
 
             if (value == null) {
+                usedSystemProperties.add(expression);
                 value = System.getProperty(expression);
             }
         }
@@ -128,6 +132,13 @@ public class VarsParser {
         return properties;
     }
 
+    /**
+     * @return names of all system properties which were looked up because no variable or property was defined for them
+     */
+    public Set<String> getUsedSystemProperties() {
+        return usedSystemProperties;
+    }
+
     public void setProperties(Properties properties) {
         this.properties = properties;
     }
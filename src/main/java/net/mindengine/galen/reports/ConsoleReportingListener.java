@@ -26,7 +26,9 @@ import net.mindengine.galen.specs.Spec;
 import net.mindengine.galen.specs.page.PageSection;
 import net.mindengine.galen.suite.GalenPageAction;
 import net.mindengine.galen.tests.GalenTest;
+import net.mindengine.galen.utils.ImageCache;
 import net.mindengine.galen.validation.PageValidation;
+import net.mindengine.galen.validation.SpecResultMemo;
 import net.mindengine.galen.validation.ValidationError;
 
 public class ConsoleReportingListener implements CompleteListener {
@@ -46,10 +48,24 @@ public class ConsoleReportingListener implements CompleteListener {
     private ThreadLocal<Integer> currentObjectLevel = new ThreadLocal<Integer>();
     
     private int logLevel = getLogLevel();
+
+    private long imageCacheHits;
+    private long imageCacheMisses;
+    private long imageCacheEvictions;
+    private long specResultsHits;
     
     public ConsoleReportingListener(PrintStream out, PrintStream err) {
         this.out = out;
         this.err = err;
+        rememberCacheStats();
+    }
+
+    private void rememberCacheStats() {
+        ImageCache imageCache = ImageCache.getInstance();
+        imageCacheHits = imageCache.getHits();
+        imageCacheMisses = imageCache.getMisses();
+        imageCacheEvictions = imageCache.getEvictions();
+        specResultsHits = SpecResultMemo.getTotalHits();
     }
 
     private int getLogLevel() {
@@ -204,6 +220,7 @@ public class ConsoleReportingListener implements CompleteListener {
 
     @Override
     public void beforeTestSuite(List<GalenTest> tests) {
+        rememberCacheStats();
     }
 
     @Override
@@ -241,5 +258,22 @@ public class ConsoleReportingListener implements CompleteListener {
         else {
             out.println("PASS");
         }
+
+        printCacheStats();
+    }
+
+    private void printCacheStats() {
+        ImageCache imageCache = ImageCache.getInstance();
+        long hits = imageCache.getHits() - imageCacheHits;
+        long misses = imageCache.getMisses() - imageCacheMisses;
+
+        if (hits + misses > 0) {
+            out.println(String.format("Image cache: %d hits, %d misses, %d evictions", hits, misses, imageCache.getEvictions() - imageCacheEvictions));
+        }
+
+        long specHits = SpecResultMemo.getTotalHits() - specResultsHits;
+        if (specHits > 0) {
+            out.println(String.format("Spec results reused: %d", specHits));
+        }
     }
 }
@@ -76,11 +76,15 @@ public class GalenTestAggregatedInfo {
     }
     
     public String getStartedAtFormatted() {
-        return sdf.format(testInfo.getStartedAt());
+        synchronized (sdf) {
+            return sdf.format(testInfo.getStartedAt());
+        }
     }
     
     public String getEndedAtFormatted() {
-        return sdf.format(testInfo.getEndedAt());
+        synchronized (sdf) {
+            return sdf.format(testInfo.getEndedAt());
+        }
     }
 
     public String getHumanReadableDuration() {
@@ -15,16 +15,34 @@
 ******************************************************************************/
 package net.mindengine.galen.reports;
 
+import java.awt.image.BufferedImage;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.mindengine.galen.config.GalenConfig;
 
 import net.mindengine.galen.reports.model.LayoutObject;
 import net.mindengine.galen.reports.model.LayoutReport;
 import net.mindengine.galen.reports.model.LayoutSection;
 import net.mindengine.galen.reports.model.LayoutSpec;
+import net.mindengine.galen.utils.FileContent;
 import net.mindengine.galen.utils.GalenUtils;
 import net.mindengine.rainbow4j.Rainbow4J;
 import org.apache.commons.io.FileUtils;
@@ -34,44 +52,156 @@ import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
 
+/**
+ * Builds html report. Test reports can be rendered while the suite is still running:
+ * each test passed to {@link #addTest(GalenTestInfo)} is rendered in background
+ * and the main report is written once {@link #finish(List)} is called.
+ */
 public class HtmlReportBuilder {
-    
+
+    private static final String TEST_REPORT_TEMPLATE = "/html-report/report-test.ftl.html";
+    private static final String MAIN_REPORT_TEMPLATE = "/html-report/report.ftl.html";
+
+    private static final Configuration freemarkerConfiguration = new Configuration();
+    private static final Map<String, Template> templates = new HashMap<String, Template>();
+
     private final TestIdGenerator testIdGenerator = new TestIdGenerator();
     private final UniqueIdGenerator comparisonMapUniqueIdGenerator = new UniqueIdGenerator();
-    private Configuration freemarkerConfiguration = new Configuration();
-    
+
+    private final Map<GalenTestInfo, Future<GalenTestAggregatedInfo>> renderedTests =
+            Collections.synchronizedMap(new IdentityHashMap<GalenTestInfo, Future<GalenTestAggregatedInfo>>());
+    // Files which were already stored in report folder. Keys are source paths or content digests
+    private final ConcurrentMap<Object, String> storedFiles = new ConcurrentHashMap<Object, String>();
+    // temporary screenshots are moved, so the same screenshot should not be stored by several threads at once
+    private final Object screenshotsLock = new Object();
+    private String reportFolderPath;
+    private ExecutorService renderPool;
+
     public void build(List<GalenTestInfo> tests, String reportFolderPath) throws IOException, TemplateException {
-        List<GalenTestAggregatedInfo> aggregatedTests = new LinkedList<GalenTestAggregatedInfo>();
-        
-        for (GalenTestInfo test : tests) {
-            GalenTestAggregatedInfo aggregatedInfo = new GalenTestAggregatedInfo("report-" + testIdGenerator.generateTestId(test.getName()), test);
-            aggregatedTests.add(aggregatedInfo);
-            
-            try {
-                exportTestReport(aggregatedInfo, reportFolderPath);
+        start(reportFolderPath);
+        finish(tests);
+    }
+
+    /**
+     * Prepares report folder and starts the pool which renders reports for finished tests
+     */
+    public void start(String reportFolderPath) throws IOException {
+        makeSureReportFolderExists(reportFolderPath);
+        this.reportFolderPath = reportFolderPath;
+
+        int threads = Math.max(1, GalenConfig.getConfig().getIntProperty(GalenConfig.REPORTING_HTML_THREADS, 2));
+        this.renderPool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "galen-html-report-" + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
             }
-            catch (Exception ex) {
-                ex.printStackTrace();
+        });
+    }
+
+    /**
+     * Renders the report of the finished test in background. Does nothing if the test was already added
+     */
+    public void addTest(final GalenTestInfo test) {
+        if (renderPool == null) {
+            throw new IllegalStateException("Html report builder is not started");
+        }
+
+        synchronized (renderedTests) {
+            if (!renderedTests.containsKey(test)) {
+                final GalenTestAggregatedInfo aggregatedInfo = new GalenTestAggregatedInfo("report-" + testIdGenerator.generateTestId(test.getName()), test);
+                renderedTests.put(test, renderPool.submit(new Callable<GalenTestAggregatedInfo>() {
+                    @Override
+                    public GalenTestAggregatedInfo call() throws Exception {
+                        try {
+                            exportTestReport(aggregatedInfo, reportFolderPath);
+                        }
+                        catch (Exception ex) {
+                            ex.printStackTrace();
+                        }
+                        return aggregatedInfo;
+                    }
+                }));
+            }
+        }
+    }
+
+    /**
+     * Renders reports for the tests which were not added yet, waits for all reports to be rendered
+     * and writes the main report with the tests in the given order
+     */
+    public void finish(List<GalenTestInfo> tests) throws IOException, TemplateException {
+        if (renderPool == null) {
+            throw new IllegalStateException("Html report builder is not started");
+        }
+
+        for (GalenTestInfo test : tests) {
+            addTest(test);
+        }
+
+        List<GalenTestAggregatedInfo> aggregatedTests = new LinkedList<GalenTestAggregatedInfo>();
+        try {
+            for (GalenTestInfo test : tests) {
+                aggregatedTests.add(renderedTests.get(test).get());
             }
         }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering test reports", ex);
+        }
+        catch (ExecutionException ex) {
+            throw new IOException("Could not render test report", ex.getCause());
+        }
+        finally {
+            renderPool.shutdown();
+            renderPool = null;
+            renderedTests.clear();
+            storedFiles.clear();
+        }
+
         exportMainReport(reportFolderPath, aggregatedTests);
     }
 
     private void exportTestReport(GalenTestAggregatedInfo aggregatedInfo, String reportFolderPath) throws IOException, TemplateException {
-        makeSureReportFolderExists(reportFolderPath);
-        
         File file = createTestReportFile(aggregatedInfo, reportFolderPath);
         moveAllAttachmentsInReport(aggregatedInfo, reportFolderPath);
-        
-        
-        FileWriter fileWriter = new FileWriter(file);
+
         Map<String, Object> model = new HashMap<String, Object>();
         model.put("test", aggregatedInfo);
-        
-        Template template = new Template("report-main", new InputStreamReader(getClass().getResourceAsStream("/html-report/report-test.ftl.html")), freemarkerConfiguration);
-        template.process(model, fileWriter);
-        fileWriter.flush();
-        fileWriter.close();
+
+        writeTemplate(TEST_REPORT_TEMPLATE, model, file);
+    }
+
+    private static void writeTemplate(String templatePath, Map<String, Object> model, File file) throws IOException, TemplateException {
+        Writer writer = new BufferedWriter(new FileWriter(file));
+        try {
+            getTemplate(templatePath).process(model, writer);
+            writer.flush();
+        }
+        finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Templates are parsed only once as compiled freemarker templates can be processed by multiple threads
+     */
+    private static synchronized Template getTemplate(String templatePath) throws IOException {
+        Template template = templates.get(templatePath);
+        if (template == null) {
+            Reader reader = new InputStreamReader(HtmlReportBuilder.class.getResourceAsStream(templatePath));
+            try {
+                template = new Template(templatePath, reader, freemarkerConfiguration);
+            }
+            finally {
+                reader.close();
+            }
+            templates.put(templatePath, template);
+        }
+        return template;
     }
 
     private void moveAllAttachmentsInReport(GalenTestAggregatedInfo aggregatedInfo, String reportFolderPath) {
@@ -103,11 +233,17 @@ public class HtmlReportBuilder {
         }
     }
 
-    private void moveAttachmentFile(TestAttachment attachment, String reportFolderPath, String filePrefix) {
+    private void moveAttachmentFile(final TestAttachment attachment, String reportFolderPath, String filePrefix) {
         if (attachment.getFile() != null) {
-            String fileName = createUniqueFileName(filePrefix + "-attachment", "-" + attachment.getFile().getName());
             try {
-                FileUtils.copyFile(attachment.getFile(), new File(reportFolderPath + File.separator + fileName));
+                String fileName = storeOnce("file:" + attachment.getFile().getAbsolutePath(),
+                        createUniqueFileName(filePrefix + "-attachment", "-" + attachment.getFile().getName()),
+                        new FileWriteAction() {
+                            @Override
+                            public void write(File destination) throws IOException {
+                                FileUtils.copyFile(attachment.getFile(), destination);
+                            }
+                        });
                 attachment.setPathInReport(fileName);
             } catch (IOException e) {
                 e.printStackTrace();
@@ -116,12 +252,22 @@ public class HtmlReportBuilder {
     }
 
     private void moveAllFilesForLayoutReport(LayoutReportNode node, String reportFolderPath, String filePrefix) {
-        if (node.getLayoutReport() != null && node.getLayoutReport().getScreenshotFullPath() != null) {
-            String fileName = createUniqueFileName(filePrefix + "-screenshot", ".png");
-            
-            node.getLayoutReport().setScreenshot(fileName);
+        final LayoutReport layoutReport = node.getLayoutReport();
+        if (layoutReport != null && layoutReport.getScreenshotFullPath() != null) {
             try {
-                FileUtils.copyFile(new File(node.getLayoutReport().getScreenshotFullPath()), new File(reportFolderPath + File.separator + fileName));
+                // same screenshot is often used for a few layout checks so it is stored only once
+                String fileName;
+                synchronized (screenshotsLock) {
+                    fileName = storeOnce("file:" + new File(layoutReport.getScreenshotFullPath()).getAbsolutePath(),
+                            createUniqueFileName(filePrefix + "-screenshot", ".png"),
+                            new FileWriteAction() {
+                                @Override
+                                public void write(File destination) throws IOException {
+                                    moveOrCopyScreenshot(layoutReport, destination);
+                                }
+                            });
+                }
+                layoutReport.setScreenshot(fileName);
             } catch (IOException e) {
                 e.printStackTrace();
             }
@@ -130,6 +276,21 @@ public class HtmlReportBuilder {
         }
     }
 
+    /**
+     * Temporary screenshot files which belong to Galen are renamed into the report folder
+     * and are only copied if they are on a different file system
+     */
+    private static void moveOrCopyScreenshot(LayoutReport layoutReport, File destination) throws IOException {
+        File source = new File(layoutReport.getScreenshotFullPath());
+        if (layoutReport.isScreenshotTemporary() && source.renameTo(destination)) {
+            layoutReport.setScreenshotFullPath(destination.getAbsolutePath());
+            layoutReport.setScreenshotTemporary(false);
+        }
+        else {
+            FileUtils.copyFile(source, destination);
+        }
+    }
+
     private void searchForLayoutAttachmentsAndMoveThem(LayoutReport layoutReport, String reportFolderPath, String filePrefix) {
         for (LayoutSection section : layoutReport.getSections()) {
             for (LayoutObject layoutObject: section.getObjects()) {
@@ -143,19 +304,20 @@ public class HtmlReportBuilder {
         for (LayoutSpec spec : layoutObject.getSpecs()) {
             if (spec.getImageComparison() != null) {
 
-                File reportFolder = new File(reportFolderPath + File.separator + filePrefix);
-                reportFolder.mkdirs();
-
-                String newName = moveFileOrResourceTo(spec.getImageComparison().getImageSamplePath(), reportFolder);
-
-                spec.getImageComparison().setImageSamplePath(filePrefix + "/" + newName);
+                spec.getImageComparison().setImageSamplePath(moveSampleImage(spec.getImageComparison().getImageSamplePath(), filePrefix));
 
-                if (spec.getImageComparison().getComparisonMap() != null) {
+                final BufferedImage comparisonMap = spec.getImageComparison().getComparisonMap();
+                if (comparisonMap != null) {
                     try {
-                        String comparisonMapPath = layoutObject.getName() + "-" + comparisonMapUniqueIdGenerator.uniqueId() + ".map.png";
-                        File mapFile = new File(reportFolder.getAbsoluteFile() + File.separator + comparisonMapPath);
-                        spec.getImageComparison().setComparisonMapPath(filePrefix + "/" + comparisonMapPath);
-                        Rainbow4J.saveImage(spec.getImageComparison().getComparisonMap(), mapFile);
+                        String comparisonMapPath = storeOnce("map:" + imageDigest(comparisonMap),
+                                filePrefix + "/" + layoutObject.getName() + "-" + comparisonMapUniqueIdGenerator.uniqueId() + ".map.png",
+                                new FileWriteAction() {
+                                    @Override
+                                    public void write(File destination) throws IOException {
+                                        Rainbow4J.saveImage(comparisonMap, destination);
+                                    }
+                                });
+                        spec.getImageComparison().setComparisonMapPath(comparisonMapPath);
                     }
                     catch (Throwable ex) {
                         ex.printStackTrace();
@@ -171,29 +333,88 @@ public class HtmlReportBuilder {
         }
     }
 
-    private String moveFileOrResourceTo(String imagePath, File reportFolder) {
+    /**
+     * Sample images are stored once per report. Tests which use the same image (or an image with the same content)
+     * refer to the copy which was stored for the first test
+     * @return path of the image relative to report folder
+     */
+    private String moveSampleImage(String imagePath, String filePrefix) {
+        String pathKey = "sample-path:" + imagePath;
+        String storedPath = storedFiles.get(pathKey);
+        if (storedPath != null) {
+            return storedPath;
+        }
+
         try {
-            InputStream stream = GalenUtils.findFileOrResourceAsStream(imagePath);
+            final FileContent content = FileContent.load(imagePath);
+            storedPath = storeOnce("sample:" + content.getDigest(), filePrefix + "/" + GalenUtils.convertToFileName(imagePath),
+                    new FileWriteAction() {
+                        @Override
+                        public void write(File destination) throws IOException {
+                            content.writeTo(destination);
+                        }
+                    });
+            storedFiles.putIfAbsent(pathKey, storedPath);
+            return storedPath;
+        }
+        catch(Exception ex) {
+            ex.printStackTrace();
+            return filePrefix + "/" + imagePath;
+        }
+    }
 
-            if (stream == null) {
-                throw new FileNotFoundException(imagePath);
-            }
+    /**
+     * Writes the file to report only if a file with the same key was not stored yet
+     * @param key source object, source path or content digest of the file
+     * @param fileName path relative to report folder which is used if the file was not stored yet
+     * @return path relative to report folder of the stored file
+     */
+    private String storeOnce(Object key, String fileName, FileWriteAction writeAction) throws IOException {
+        String storedFileName = storedFiles.get(key);
+        if (storedFileName != null) {
+            return storedFileName;
+        }
+
+        File destination = new File(reportFolderPath + File.separator + fileName);
+        File parent = destination.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        writeAction.write(destination);
 
-            String newName = GalenUtils.convertToFileName(imagePath);
+        storedFileName = storedFiles.putIfAbsent(key, fileName);
+        if (storedFileName != null) {
+            // another thread has stored the same file in the meantime
+            destination.delete();
+            return storedFileName;
+        }
+        return fileName;
+    }
 
-            File file = new File(reportFolder.getAbsolutePath() + File.separator + newName);
-            file.createNewFile();
+    private static String imageDigest(BufferedImage image) throws NoSuchAlgorithmException {
+        MessageDigest md = MessageDigest.getInstance("MD5");
+        int width = image.getWidth();
+        int height = image.getHeight();
+        md.update(ByteBuffer.allocate(8).putInt(width).putInt(height).array());
 
-            FileOutputStream fos = new FileOutputStream(file);
-            IOUtils.copy(stream, fos);
-            fos.flush();
-            fos.close();
-            return newName;
+        int[] row = new int[width];
+        ByteBuffer rowBytes = ByteBuffer.allocate(width * 4);
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            rowBytes.clear();
+            rowBytes.asIntBuffer().put(row);
+            md.update(rowBytes.array());
         }
-        catch(Exception ex) {
-            ex.printStackTrace();
-            return imagePath;
+
+        StringBuilder builder = new StringBuilder();
+        for (byte b : md.digest()) {
+            builder.append(String.format("%02x", b));
         }
+        return builder.toString();
+    }
+
+    private interface FileWriteAction {
+        void write(File destination) throws IOException;
     }
 
     private Long _uniqueId = 0L;
@@ -221,14 +442,10 @@ public class HtmlReportBuilder {
                 throw new RuntimeException("Cannot create file: " + file.getAbsolutePath());
             }
         }
-        FileWriter fileWriter = new FileWriter(file);
         Map<String, Object> model = new HashMap<String, Object>();
         model.put("tests", tests);
-        
-        Template template = new Template("report-main", new InputStreamReader(getClass().getResourceAsStream("/html-report/report.ftl.html")), freemarkerConfiguration);
-        template.process(model, fileWriter);
-        fileWriter.flush();
-        fileWriter.close();
+
+        writeTemplate(MAIN_REPORT_TEMPLATE, model, file);
         
         copyHtmlResources(reportFolderPath);
     }
@@ -28,6 +28,7 @@ public class LayoutReport {
 
     private String screenshot;
     private String screenshotFullPath;
+    private boolean screenshotTemporary = false;
     private List<ValidationError> validationErrors;
 
     public String getTitle() {
@@ -62,6 +63,17 @@ public class LayoutReport {
         this.screenshotFullPath = screenshotFullPath;
     }
 
+    /**
+     * @return true if the screenshot file is a temporary file owned by Galen which can be moved into the report
+     */
+    public boolean isScreenshotTemporary() {
+        return screenshotTemporary;
+    }
+
+    public void setScreenshotTemporary(boolean screenshotTemporary) {
+        this.screenshotTemporary = screenshotTemporary;
+    }
+
     public void setValidationErrors(List<ValidationError> validationErrors) {
         this.validationErrors = validationErrors;
     }
@@ -54,6 +54,7 @@ public class GalenArguments {
     private String export;
     private Integer maxWidth;
     private Integer maxHeight;
+    private String dumps;
 
     public GalenArguments withAction(String action) {
         this.setAction(action);
@@ -159,6 +160,7 @@ public class GalenArguments {
         options.addOption("E", "export", true, "Export path for page dump");
         options.addOption("W", "max-width", true, "Maximum width for page dump");
         options.addOption("H", "max-height", true, "Maximum height for page dump");
+        options.addOption("d", "dumps", true, "Folder with page dumps which should be checked");
 
         
         CommandLineParser parser = new PosixParser();
@@ -206,6 +208,7 @@ public class GalenArguments {
         galen.setExport(cmd.getOptionValue("E"));
         galen.setMaxWidth(parseOptionalInt(cmd.getOptionValue("W")));
         galen.setMaxHeight(parseOptionalInt(cmd.getOptionValue("H")));
+        galen.setDumps(cmd.getOptionValue("d"));
         
         verifyArguments(galen);
         return galen;
@@ -257,6 +260,9 @@ public class GalenArguments {
             else if ("dump".equals(galen.getAction())) {
                 return;
             }
+            else if ("checkdump".equals(galen.getAction())) {
+                verifyCheckDumpAction(galen);
+            }
             else throw new IllegalArgumentException("Unknown action: " + galen.getAction());
         }
     }
@@ -267,6 +273,13 @@ public class GalenArguments {
         }
     }
 
+    private static void verifyCheckDumpAction(GalenArguments galen) {
+        verifyCheckAction(galen);
+        if (galen.getDumps() == null || galen.getDumps().trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing page dumps folder");
+        }
+    }
+
     private static void verifyTestAction(GalenArguments galen) {
         if (galen.getPaths() == null || galen.getPaths().isEmpty()) {
             throw new IllegalArgumentException("Missing test files");
@@ -338,6 +351,7 @@ public class GalenArguments {
         .append(export)
         .append(maxWidth)
         .append(maxHeight)
+        .append(dumps)
         .toHashCode();
     }
     
@@ -370,6 +384,7 @@ public class GalenArguments {
             .append(export, rhs.export)
             .append(maxWidth, rhs.maxWidth)
             .append(maxHeight, rhs.maxHeight)
+            .append(dumps, rhs.dumps)
             .isEquals();
     }
     
@@ -391,6 +406,7 @@ public class GalenArguments {
             .append("export", export)
             .append("maxWidth", maxWidth)
             .append("maxHeight", maxHeight)
+            .append("dumps", dumps)
             .toString();
     }
 
@@ -518,4 +534,17 @@ public class GalenArguments {
     public Integer getMaxHeight() {
         return maxHeight;
     }
-}
\ No newline at end of file
+
+    public GalenArguments withDumps(String dumps) {
+        setDumps(dumps);
+        return this;
+    }
+
+    public void setDumps(String dumps) {
+        this.dumps = dumps;
+    }
+
+    public String getDumps() {
+        return dumps;
+    }
+}
@@ -18,6 +18,7 @@ package net.mindengine.galen.runner;
 import java.util.List;
 
 import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.browser.BrowserPool;
 import net.mindengine.galen.reports.TestReport;
 import net.mindengine.galen.suite.GalenPageTest;
 import net.mindengine.galen.tests.GalenBasicTest;
@@ -55,12 +56,23 @@ public class GalenBasicTestRunner {
         
         GalenPageRunner pageRunner = new GalenPageRunner(report);
         pageRunner.setValidationListener(validationListener);
+
+        BrowserPool browserPool = null;
+        if (BrowserPool.isEnabled()) {
+            browserPool = BrowserPool.getInstance();
+        }
         
         for (GalenPageTest pageTest : pageTests) {
             report.gotoRoot();
             report.sectionStart(pageTest.getTitle());
             
-            Browser browser = pageTest.getBrowserFactory().openBrowser();
+            Browser browser;
+            if (browserPool != null) {
+                browser = browserPool.lease(pageTest.getBrowserFactory());
+            }
+            else {
+                browser = pageTest.getBrowserFactory().openBrowser();
+            }
 
             try {
                 pageRunner.run(browser, pageTest);
@@ -70,7 +82,12 @@ public class GalenBasicTestRunner {
                 report.error(ex);
             }
             
-            browser.quit();
+            if (browserPool != null) {
+                browserPool.release(browser);
+            }
+            else {
+                browser.quit();
+            }
             report.sectionEnd();
         }
         
@@ -47,9 +47,7 @@ public class JsTestCollector {
         GalenJsExecutor jsExector = new GalenJsExecutor();
         jsExector.putObject("_galenCore", this);
         
-        jsExector.eval(GalenJsExecutor.loadJsFromLibrary("GalenCore.js"));
-        jsExector.eval(GalenJsExecutor.loadJsFromLibrary("GalenApi.js"));
-        jsExector.eval(GalenJsExecutor.loadJsFromLibrary("GalenPages.js"));
+        jsExector.evalAllLibraries();
         return jsExector;
     }
 
@@ -0,0 +1,101 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.runner;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import net.mindengine.galen.tests.GalenTest;
+
+/**
+ * List of tests which are pulled from the given sources only when they are iterated.
+ * Tests which were iterated are not kept in memory, so the list can be iterated only once.
+ * If the list is accessed by index or its size is requested all of the remaining tests are loaded into memory
+ */
+public class LazyTestList extends AbstractList<GalenTest> {
+
+    private final Iterator<? extends Iterable<? extends GalenTest>> sources;
+    private Iterator<? extends GalenTest> currentSource;
+    private List<GalenTest> loadedTests;
+
+    public LazyTestList(List<? extends Iterable<? extends GalenTest>> sources) {
+        this.sources = sources.iterator();
+    }
+
+    @Override
+    public GalenTest get(int index) {
+        return loadAll().get(index);
+    }
+
+    @Override
+    public int size() {
+        return loadAll().size();
+    }
+
+    @Override
+    public Iterator<GalenTest> iterator() {
+        if (loadedTests != null) {
+            return loadedTests.iterator();
+        }
+
+        return new Iterator<GalenTest>() {
+            @Override
+            public boolean hasNext() {
+                if (loadedTests != null) {
+                    throw new IllegalStateException("Tests were loaded while being iterated");
+                }
+                return hasMoreTests();
+            }
+
+            @Override
+            public GalenTest next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return currentSource.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private boolean hasMoreTests() {
+        while (currentSource == null || !currentSource.hasNext()) {
+            if (!sources.hasNext()) {
+                return false;
+            }
+            currentSource = sources.next().iterator();
+        }
+        return true;
+    }
+
+    private List<GalenTest> loadAll() {
+        if (loadedTests == null) {
+            List<GalenTest> tests = new ArrayList<GalenTest>();
+            while (hasMoreTests()) {
+                tests.add(currentSource.next());
+            }
+            loadedTests = tests;
+        }
+        return loadedTests;
+    }
+}
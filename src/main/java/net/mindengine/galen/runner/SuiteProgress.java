@@ -0,0 +1,64 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.runner;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.mindengine.galen.tests.GalenTest;
+
+/**
+ * Tracks the amount of queued, running and completed tests of a test suite.
+ * It is notified together with the suite {@link CompleteListener} whenever a test starts or finishes
+ */
+public class SuiteProgress implements TestListener {
+
+    private final AtomicInteger queued = new AtomicInteger(0);
+    private final AtomicInteger running = new AtomicInteger(0);
+    private final AtomicInteger completed = new AtomicInteger(0);
+
+    public void onTestQueued(GalenTest test) {
+        queued.incrementAndGet();
+    }
+
+    @Override
+    public void onTestStarted(GalenTest test) {
+        queued.decrementAndGet();
+        running.incrementAndGet();
+    }
+
+    @Override
+    public void onTestFinished(GalenTest test) {
+        running.decrementAndGet();
+        completed.incrementAndGet();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public int getRunning() {
+        return running.get();
+    }
+
+    public int getCompleted() {
+        return completed.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Progress: %d completed, %d running, %d queued", getCompleted(), getRunning(), getQueued());
+    }
+}
@@ -32,6 +32,7 @@ public class Range {
     private Double from;
     private Double to;
     private String percentageOfValue;
+    private ValuePath percentagePath;
     private RangeType rangeType = RangeType.BETWEEN;
     
     public enum RangeType {
@@ -144,6 +145,15 @@ public class Range {
     }
     public void setPercentageOfValue(String percentageOfValue) {
         this.percentageOfValue = percentageOfValue;
+        if (percentageOfValue != null && !percentageOfValue.isEmpty()) {
+            this.percentagePath = ValuePath.compile(percentageOfValue);
+        }
+        else {
+            this.percentagePath = null;
+        }
+    }
+    public ValuePath getPercentagePath() {
+        return percentagePath;
     }
     public boolean isPercentage() {
         return percentageOfValue != null && !percentageOfValue.isEmpty();
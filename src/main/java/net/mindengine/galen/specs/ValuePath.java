@@ -0,0 +1,193 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.specs;
+
+import static java.lang.String.format;
+import static net.mindengine.galen.suite.reader.Line.UNKNOWN_LINE;
+
+import java.lang.reflect.Method;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.parser.SyntaxException;
+
+/**
+ * Path to a value of a page object which is used in percentage ranges, e.g. "screen/width" or "header/area/width".
+ * It is parsed only once when spec is read. Fields of page elements and their areas are read directly
+ * and getters for any other fields are looked up only once per class
+ */
+public class ValuePath {
+
+    private final String path;
+    private final String objectName;
+    private final List<FieldAccessor> fields;
+
+    private ValuePath(String path, String objectName, List<FieldAccessor> fields) {
+        this.path = path;
+        this.objectName = objectName;
+        this.fields = fields;
+    }
+
+    /**
+     * Parses the path. Incorrect paths are not reported until they are used, same as before they were compiled
+     */
+    public static ValuePath compile(String path) {
+        int index = path.indexOf("/");
+        if (index > 0 && index < path.length() - 1) {
+            List<FieldAccessor> fields = new LinkedList<FieldAccessor>();
+            String fieldPath = path.substring(index + 1);
+
+            int fieldIndex = fieldPath.indexOf("/");
+            while (fieldIndex > 0 && fieldIndex < fieldPath.length() - 1) {
+                fields.add(new FieldAccessor(fieldPath.substring(0, fieldIndex)));
+                fieldPath = fieldPath.substring(fieldIndex + 1);
+                fieldIndex = fieldPath.indexOf("/");
+            }
+            fields.add(new FieldAccessor(fieldPath));
+
+            return new ValuePath(path, path.substring(0, index), fields);
+        }
+        return new ValuePath(path, null, null);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return name of the object to which the path refers
+     * @throws SyntaxException in case the path is incorrect
+     */
+    public String getObjectName() {
+        if (objectName == null) {
+            throw new SyntaxException(UNKNOWN_LINE, format("Value path is incorrect %s", path));
+        }
+        return objectName;
+    }
+
+    public int readValue(PageElement pageElement) {
+        Object value = pageElement;
+        int index = 0;
+        for (FieldAccessor field : fields) {
+            value = field.read(value);
+            if (value == null && index < fields.size() - 1) {
+                throw new NullPointerException(format("\"%s\" returned null", field.fieldName));
+            }
+            index++;
+        }
+        return convertToInt(value);
+    }
+
+    private static int convertToInt(Object objectValue) {
+        if (objectValue == null) {
+            throw new NullPointerException("The returned value is null");
+        }
+        else {
+            if (objectValue instanceof Integer) {
+                return ((Integer)objectValue).intValue();
+            }
+            else if (objectValue instanceof Double) {
+                return ((Double)objectValue).intValue();
+            }
+            else {
+                throw new SyntaxException(UNKNOWN_LINE, format("Cannot convert value to integer. The obtained value is of %s type", objectValue.getClass()));
+            }
+        }
+    }
+
+    private enum KnownField {
+        AREA, WIDTH, HEIGHT, LEFT, TOP, OTHER;
+
+        private static KnownField forGetter(String getterName) {
+            if ("getArea".equals(getterName)) {
+                return AREA;
+            }
+            else if ("getWidth".equals(getterName)) {
+                return WIDTH;
+            }
+            else if ("getHeight".equals(getterName)) {
+                return HEIGHT;
+            }
+            else if ("getLeft".equals(getterName)) {
+                return LEFT;
+            }
+            else if ("getTop".equals(getterName)) {
+                return TOP;
+            }
+            else return OTHER;
+        }
+    }
+
+    private static class FieldAccessor {
+        private final String fieldName;
+        private final String getterName;
+        private final KnownField knownField;
+        private final ConcurrentMap<Class<?>, Method> getters = new ConcurrentHashMap<Class<?>, Method>();
+
+        private FieldAccessor(String fieldName) {
+            this.fieldName = fieldName;
+            this.getterName = "get" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
+            this.knownField = KnownField.forGetter(getterName);
+        }
+
+        private Object read(Object object) {
+            try {
+                if (object instanceof PageElement && knownField != KnownField.OTHER) {
+                    return readPageElementField((PageElement) object);
+                }
+                else if (object instanceof Rect && knownField != KnownField.OTHER && knownField != KnownField.AREA) {
+                    return readRectField((Rect) object);
+                }
+                return getter(object.getClass()).invoke(object);
+            }
+            catch (Exception e) {
+                throw new SyntaxException(UNKNOWN_LINE, format("Cannot read field: \"%s\"", fieldName));
+            }
+        }
+
+        private Object readPageElementField(PageElement pageElement) {
+            switch (knownField) {
+                case AREA: return pageElement.getArea();
+                case WIDTH: return pageElement.getWidth();
+                case HEIGHT: return pageElement.getHeight();
+                case LEFT: return pageElement.getLeft();
+                default: return pageElement.getTop();
+            }
+        }
+
+        private Object readRectField(Rect rect) {
+            switch (knownField) {
+                case WIDTH: return rect.getWidth();
+                case HEIGHT: return rect.getHeight();
+                case LEFT: return rect.getLeft();
+                default: return rect.getTop();
+            }
+        }
+
+        private Method getter(Class<?> objectClass) throws NoSuchMethodException {
+            Method method = getters.get(objectClass);
+            if (method == null) {
+                method = objectClass.getMethod(getterName);
+                getters.putIfAbsent(objectClass, method);
+            }
+            return method;
+        }
+    }
+}
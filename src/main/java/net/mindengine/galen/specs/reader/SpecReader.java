@@ -43,28 +43,51 @@ public class SpecReader {
     
     private static final Place NULL_PLACE = null;
     private Properties properties;
-    private Map<Pattern, SpecProcessor> specsMap = new HashMap<Pattern, SpecProcessor>();
+
+    /**
+     * Spec processors are stateless, so the processor table and the keyword index
+     * are built only once and are shared by all readers
+     */
+    private static final Map<Pattern, SpecProcessor> specsMap;
+
+    /**
+     * Patterns grouped by the keyword with which a spec starts (e.g. "inside", "near").
+     * Allows to test only a couple of patterns per spec instead of all of them
+     */
+    private static final Map<String, List<Pattern>> patternsByKeyword;
+
+    /**
+     * Patterns which do not start with a plain keyword and have to be tested for every spec
+     */
+    private static final List<Pattern> patternsWithoutKeyword;
+
+    static {
+        SpecTable table = new SpecTable();
+        initSpecs(table);
+        specsMap = Collections.unmodifiableMap(table.specsMap);
+        patternsByKeyword = table.immutablePatternsByKeyword();
+        patternsWithoutKeyword = Collections.unmodifiableList(table.patternsWithoutKeyword);
+    }
 
     public SpecReader(Properties properties) {
-        initSpecs();
         this.properties = properties;
     }
     
-    private void initSpecs() {
+    private static void initSpecs(SpecTable table) {
         
-        putSpec("absent", new SimpleSpecProcessor(new SpecInit() {
+        table.putSpec("absent", new SimpleSpecProcessor(new SpecInit() {
             public Spec init() {
                 return new SpecAbsent();
             }
         }));
         
-        putSpec("visible", new SimpleSpecProcessor(new SpecInit() {
+        table.putSpec("visible", new SimpleSpecProcessor(new SpecInit() {
             public Spec init() {
                 return new SpecVisible();
             }
         }));
         
-        putSpec("contains(\\s+partly)?", new SpecListProccessor(new SpecListInit() {
+        table.putSpec("contains(\\s+partly)?", new SpecListProccessor(new SpecListInit() {
             public Spec init(String specName, List<String> list) {
                 String arguments = specName.substring("contains".length()).trim();
                 
@@ -73,19 +96,19 @@ public class SpecReader {
             }
         }));
         
-        putSpec("width", new SpecComplexProcessor(expectThese(range()), new SpecComplexInit() {
+        table.putSpec("width", new SpecComplexProcessor(expectThese(range()), new SpecComplexInit() {
             public Spec init(String specName, String paramsText, String contextPath, Object[] args) {
                 return new SpecWidth((Range) args[0]);
             }
         }));
         
-        putSpec("height", new SpecComplexProcessor(expectThese(range()), new SpecComplexInit() {
+        table.putSpec("height", new SpecComplexProcessor(expectThese(range()), new SpecComplexInit() {
             public Spec init(String specName, String paramsText, String contextPath, Object[] args) {
                 return new SpecHeight((Range) args[0]);
             }
         }));
 
-        putSpec("text\\s+.*", new SpecProcessor() {
+        table.putSpec("text\\s+.*", new SpecProcessor() {
             @Override
             public Spec processSpec(String specName, String paramsText, String contextPath) {
                 String arguments = specName.substring("text".length()).trim();
@@ -102,7 +125,7 @@ public class SpecReader {
             }
         });
 
-        putSpec("css\\s+.*", new SpecProcessor() {
+        table.putSpec("css\\s+.*", new SpecProcessor() {
             @Override
             public Spec processSpec(String specName, String paramsText, String contextPath) {
                 String arguments = specName.substring("css".length()).trim();
@@ -122,7 +145,7 @@ public class SpecReader {
             }
         });
         
-        putSpec("inside.*", new SpecComplexProcessor(expectThese(objectName(), locations()), new SpecComplexInit() {
+        table.putSpec("inside.*", new SpecComplexProcessor(expectThese(objectName(), locations()), new SpecComplexInit() {
             @SuppressWarnings("unchecked")
             @Override
             public Spec init(String specName, String paramsText, String contextPath, Object[] args) {
@@ -140,7 +163,7 @@ public class SpecReader {
             }
         }));
         
-        putSpec("near", new SpecComplexProcessor(expectThese(objectName(), locations()), new SpecComplexInit() {
+        table.putSpec("near", new SpecComplexProcessor(expectThese(objectName(), locations()), new SpecComplexInit() {
             @SuppressWarnings("unchecked")
             @Override
             public Spec init(String specName, String paramsText, String contextPath, Object[] args) {
@@ -151,7 +174,7 @@ public class SpecReader {
             }
         }));
         
-        putSpec("(above|below)", new SpecProcessor() {
+        table.putSpec("(above|below)", new SpecProcessor() {
             @Override
             public Spec processSpec(String specName, String paramsText, String contextPath) throws IOException {
 				
@@ -173,7 +196,7 @@ public class SpecReader {
 			}
         });
         
-        putSpec("aligned\\s+.*", new SpecObjectAndErrorRateProcessor(new SpecObjectAndErrorRateInit() {
+        table.putSpec("aligned\\s+.*", new SpecObjectAndErrorRateProcessor(new SpecObjectAndErrorRateInit() {
             
             @Override
             public Spec init(String specName, String objectName, Integer errorRate) {
@@ -220,7 +243,7 @@ public class SpecReader {
             }
         }));
         
-        putSpec("centered\\s.*", new SpecObjectAndErrorRateProcessor(new SpecObjectAndErrorRateInit() {
+        table.putSpec("centered\\s.*", new SpecObjectAndErrorRateProcessor(new SpecObjectAndErrorRateInit() {
             
             @Override
             public Spec init(String specName, String objectName, Integer errorRate) {
@@ -246,7 +269,7 @@ public class SpecReader {
             }
 		}));
         
-        putSpec("(on\\s.*|on)", new SpecComplexProcessor(expectThese(objectName(), locations()), new SpecComplexInit() {
+        table.putSpec("(on\\s.*|on)", new SpecComplexProcessor(expectThese(objectName(), locations()), new SpecComplexInit() {
             @SuppressWarnings("unchecked")
             @Override
             public Spec init(String specName, String paramsText, String contextPath, Object[] args) {
@@ -295,7 +318,7 @@ public class SpecReader {
             }
         }));
         
-        putSpec("component", new SpecProcessor() {
+        table.putSpec("component", new SpecProcessor() {
             
             @Override
             public Spec processSpec(String specName, String paramsText, String contextPath) throws IOException {
@@ -315,7 +338,7 @@ public class SpecReader {
             }
         });
         
-        putSpec("color\\s+scheme", new SpecComplexProcessor(expectThese(colorRanges()), new SpecComplexInit() {
+        table.putSpec("color\\s+scheme", new SpecComplexProcessor(expectThese(colorRanges()), new SpecComplexInit() {
             @SuppressWarnings("unchecked")
             @Override
             public Spec init(String specName, String paramsText, String contextPath, Object[] args) {
@@ -331,7 +354,7 @@ public class SpecReader {
             }
         }));
 
-        putSpec("image", new SpecComplexProcessor(expectThese(commaSeparatedRepeatedKeyValues()), new SpecComplexInit() {
+        table.putSpec("image", new SpecComplexProcessor(expectThese(commaSeparatedRepeatedKeyValues()), new SpecComplexInit() {
             @Override
             public Spec init(String specName, String paramsText, String contextPath, Object[] args) {
                 List<Pair<String, String>> parameters = (List<Pair<String, String>>) args[0];
@@ -403,7 +426,7 @@ public class SpecReader {
 
     }
 
-    private ImageFilter parseImageFilter(String filterText) {
+    private static ImageFilter parseImageFilter(String filterText) {
         StringCharReader reader = new StringCharReader(filterText);
 
         String filterName = new ExpectWord().read(reader);
@@ -427,7 +450,7 @@ public class SpecReader {
         else throw new SyntaxException("Unknown image filter: " + filterName);
     }
 
-    private Rect parseRect(String text) {
+    private static Rect parseRect(String text) {
         Integer[] numbers = new Integer[4];
 
         StringCharReader reader = new StringCharReader(text);
@@ -438,7 +461,7 @@ public class SpecReader {
         return new Rect(numbers);
     }
 
-    private Pair<Double, String> parseError(String text) {
+    private static Pair<Double, String> parseError(String text) {
         StringCharReader reader = new StringCharReader(text);
 
         Double number = Expectations.number().read(reader);
@@ -447,7 +470,7 @@ public class SpecReader {
         return new ImmutablePair<Double, String>(number, unit);
     }
 
-    private Integer parseIntegerParameter(String name, String value) {
+    private static Integer parseIntegerParameter(String name, String value) {
         if (StringUtils.isNumeric(value)) {
             return Integer.parseInt(value);
         }
@@ -496,18 +519,132 @@ public class SpecReader {
     }
 
     private SpecProcessor findMatchingSpec(String specName) {
-        
-        for (Map.Entry<Pattern, SpecProcessor> entry : specsMap.entrySet()) {
-            Matcher matcher = entry.getKey().matcher(specName);
-            if (matcher.matches()) {
-                return entry.getValue();
+        List<Pattern> keywordPatterns = patternsByKeyword.get(firstWord(specName));
+        if (keywordPatterns != null) {
+            SpecProcessor processor = findMatchingSpec(specName, keywordPatterns);
+            if (processor != null) {
+                return processor;
             }
         }
+
+        SpecProcessor processor = findMatchingSpec(specName, patternsWithoutKeyword);
+        if (processor != null) {
+            return processor;
+        }
+
+        // Keyword might be glued with the rest of the spec (e.g. "inside" pattern allows any text after it)
+        processor = findMatchingSpec(specName, specsMap.keySet());
+        if (processor != null) {
+            return processor;
+        }
         throw new SyntaxException(UNKNOWN_LINE, "Such constraint does not exist: " + specName);
     }
 
-    private void putSpec(String patternText, SpecProcessor specProcessor) {
-        specsMap.put(Pattern.compile(patternText), specProcessor);
+    private SpecProcessor findMatchingSpec(String specName, Collection<Pattern> patterns) {
+        for (Pattern pattern : patterns) {
+            Matcher matcher = pattern.matcher(specName);
+            if (matcher.matches()) {
+                return specsMap.get(pattern);
+            }
+        }
+        return null;
+    }
+
+    private static class SpecTable {
+        private final Map<Pattern, SpecProcessor> specsMap = new HashMap<Pattern, SpecProcessor>();
+        private final Map<String, List<Pattern>> patternsByKeyword = new HashMap<String, List<Pattern>>();
+        private final List<Pattern> patternsWithoutKeyword = new ArrayList<Pattern>();
+
+        public void putSpec(String patternText, SpecProcessor specProcessor) {
+            Pattern pattern = Pattern.compile(patternText);
+            specsMap.put(pattern, specProcessor);
+
+            List<String> keywords = leadingKeywords(patternText);
+            if (keywords.isEmpty()) {
+                patternsWithoutKeyword.add(pattern);
+            }
+            else {
+                for (String keyword : keywords) {
+                    List<Pattern> patterns = patternsByKeyword.get(keyword);
+                    if (patterns == null) {
+                        patterns = new ArrayList<Pattern>();
+                        patternsByKeyword.put(keyword, patterns);
+                    }
+                    if (!patterns.contains(pattern)) {
+                        patterns.add(pattern);
+                    }
+                }
+            }
+        }
+
+        public Map<String, List<Pattern>> immutablePatternsByKeyword() {
+            Map<String, List<Pattern>> result = new HashMap<String, List<Pattern>>();
+            for (Map.Entry<String, List<Pattern>> entry : patternsByKeyword.entrySet()) {
+                result.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+            }
+            return Collections.unmodifiableMap(result);
+        }
+    }
+
+    /**
+     * Finds the literal words with which the pattern starts. E.g. "inside.*" gives "inside",
+     * "(above|below)" gives "above" and "below".
+     * @return empty list if any of the alternatives does not start with a literal word
+     */
+    private static List<String> leadingKeywords(String patternText) {
+        List<String> alternatives = new LinkedList<String>();
+        if (patternText.startsWith("(")) {
+            int depth = 0;
+            int start = 1;
+            for (int i = 0; i < patternText.length(); i++) {
+                char ch = patternText.charAt(i);
+                if (ch == '\\') {
+                    i++;
+                }
+                else if (ch == '(') {
+                    depth++;
+                }
+                else if (ch == ')') {
+                    depth--;
+                    if (depth == 0) {
+                        alternatives.add(patternText.substring(start, i));
+                        break;
+                    }
+                }
+                else if (ch == '|' && depth == 1) {
+                    alternatives.add(patternText.substring(start, i));
+                    start = i + 1;
+                }
+            }
+        }
+        else {
+            alternatives.add(patternText);
+        }
+
+        List<String> keywords = new LinkedList<String>();
+        for (String alternative : alternatives) {
+            int length = 0;
+            while (length < alternative.length() && Character.isLetter(alternative.charAt(length))) {
+                length++;
+            }
+            if (length == 0 || (length < alternative.length() && isQuantifier(alternative.charAt(length)))) {
+                return Collections.emptyList();
+            }
+            keywords.add(alternative.substring(0, length));
+        }
+        return keywords;
+    }
+
+    private static boolean isQuantifier(char ch) {
+        return ch == '?' || ch == '*' || ch == '+' || ch == '{';
+    }
+
+    private static String firstWord(String specName) {
+        int length = 0;
+        while (length < specName.length() && Character.isLetter(specName.charAt(length))) {
+            length++;
+        }
+        return specName.substring(0, length);
     }
 
     public Properties getProperties() {
@@ -19,6 +19,9 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 import net.mindengine.galen.page.Page;
@@ -29,7 +32,14 @@ import net.mindengine.galen.specs.page.PageSection;
 public class PageSpec {
 
     private static final List<String> EMPTY_TAGS = new LinkedList<String>();
-    private Map<String, Locator> objects = new HashMap<String, Locator>();
+    private static final String REGEX_SPECIAL_SYMBOLS = "\\^$.|?*+()[]{}";
+    private static final ConcurrentMap<String, Pattern> compiledPatterns = new ConcurrentHashMap<String, Pattern>();
+
+    /**
+     * Objects are kept sorted by name so that they can be searched by prefix of a wildcard expression
+     * (e.g. "menu-item-*") instead of checking every object
+     */
+    private TreeMap<String, Locator> objects = new TreeMap<String, Locator>();
     private Map<String, Locator> multiObjects = new HashMap<String, Locator>();
     private List<PageSection> sections = new LinkedList<PageSection>();
 
@@ -38,7 +48,12 @@ public class PageSpec {
     }
 
     public void setObjects(Map<String, Locator> objects) {
-        this.objects = objects;
+        if (objects instanceof TreeMap) {
+            this.objects = (TreeMap<String, Locator>) objects;
+        }
+        else {
+            this.objects = new TreeMap<String, Locator>(objects);
+        }
     }
 
     public List<PageSection> getSections() {
@@ -85,19 +100,52 @@ public class PageSpec {
      * @return
      */
     public List<String> findMatchingObjectNames(String objectNameSimpleRegex) {
-        
-        Pattern pattern = Pattern.compile(objectNameSimpleRegex.replace("*", "[a-zA-Z0-9_]+"));
+        return findObjectNames(objectNameSimpleRegex, "[a-zA-Z0-9_]+");
+    }
+
+    /**
+     * Find all objects that match expression in which '*' stands for any amount of any symbols
+     * @param wildcardExpression - e.g. "menu-*"
+     * @return
+     */
+    public List<String> findObjectNamesByWildcard(String wildcardExpression) {
+        return findObjectNames(wildcardExpression, ".*");
+    }
+
+    private List<String> findObjectNames(String simpleRegex, String wildcardRegex) {
+        String prefix = literalPrefix(simpleRegex);
+        Pattern pattern = compilePattern(simpleRegex.replace("*", wildcardRegex));
+
         List<String> foundObjects = new LinkedList<String>();
-        
-        for (String objectName : objects.keySet()) {
+        for (String objectName : objects.tailMap(prefix).keySet()) {
+            if (!objectName.startsWith(prefix)) {
+                break;
+            }
             if (pattern.matcher(objectName).matches()) {
                 foundObjects.add(objectName);
             }
         }
-        
         return foundObjects;
     }
 
+    private static String literalPrefix(String simpleRegex) {
+        for (int i = 0; i < simpleRegex.length(); i++) {
+            if (REGEX_SPECIAL_SYMBOLS.indexOf(simpleRegex.charAt(i)) >= 0) {
+                return simpleRegex.substring(0, i);
+            }
+        }
+        return simpleRegex;
+    }
+
+    private static Pattern compilePattern(String regex) {
+        Pattern pattern = compiledPatterns.get(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            compiledPatterns.putIfAbsent(regex, pattern);
+        }
+        return pattern;
+    }
+
     public Map<String, Locator> getMultiObjects() {
         return multiObjects;
     }
@@ -129,6 +177,18 @@ public class PageSpec {
         }
     }
 
+    /**
+     * Creates a copy with its own objects so that multi objects can be updated for a page
+     * without affecting the original. Sections and specs are shared as they are not modified during validation
+     */
+    public PageSpec copy() {
+        PageSpec copy = new PageSpec();
+        copy.objects = new TreeMap<String, Locator>(objects);
+        copy.multiObjects = new HashMap<String, Locator>(multiObjects);
+        copy.sections = new LinkedList<PageSection>(sections);
+        return copy;
+    }
+
 	public void merge(PageSpec spec) {
 		objects.putAll(spec.getObjects());
 		multiObjects.putAll(spec.getMultiObjects());
@@ -0,0 +1,180 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.specs.reader.page;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.galen.page.Page;
+import net.mindengine.galen.utils.FileContent;
+
+import org.apache.commons.lang3.ObjectUtils;
+
+/**
+ * Keeps parsed page specs so that the same spec file is not parsed again for every test, browser and screen size.
+ * Specs are keyed by the content hash of the spec file and by the properties it was read with.
+ * A cached spec is used only if all imported specs and scripts still have the same content
+ * and all system properties used as variables still have the same values.
+ * Specs which use page elements while being read (e.g. with find() function) are never cached.
+ * "@@ if" blocks are kept in parsed spec and are evaluated for each page during validation.
+ */
+public class PageSpecCache {
+
+    private static final PageSpecCache instance = new PageSpecCache();
+
+    private final Map<String, CachedPageSpec> specs = new ConcurrentHashMap<String, CachedPageSpec>();
+
+    private long hits = 0;
+    private long misses = 0;
+
+    public static PageSpecCache getInstance() {
+        return instance;
+    }
+
+    public static boolean isEnabled() {
+        return GalenConfig.getConfig().getBooleanProperty(GalenConfig.SPEC_CACHE_ENABLED, true);
+    }
+
+    /**
+     * Reads the spec for the given page or takes it from the cache.
+     * @return a page spec which can be modified by the caller without affecting the cache
+     */
+    public PageSpec read(String filePath, Properties properties, Page page) throws IOException {
+        FileContent fileContent = FileContent.load(filePath);
+        String key = filePath + "#" + fileContent.getDigest() + "#" + propertiesKey(properties);
+
+        CachedPageSpec cachedPageSpec = specs.get(key);
+        if (cachedPageSpec != null && cachedPageSpec.isUpToDate()) {
+            countHit();
+            if (properties != null) {
+                properties.putAll(cachedPageSpec.variables);
+            }
+            return cachedPageSpec.pageSpec.copy();
+        }
+        countMiss();
+
+        Map<Object, Object> initialProperties = new HashMap<Object, Object>();
+        if (properties != null) {
+            initialProperties.putAll(properties);
+        }
+
+        PageSpecReader reader = new PageSpecReader(properties, page);
+        PageSpec pageSpec = reader.read(fileContent);
+
+        if (!reader.isPageDependent()) {
+            Map<String, String> dependencies = new LinkedHashMap<String, String>();
+            for (String dependency : reader.getDependencies()) {
+                dependencies.put(dependency, contentHash(dependency));
+            }
+            Map<String, String> systemProperties = new HashMap<String, String>();
+            for (String name : reader.getUsedSystemProperties()) {
+                systemProperties.put(name, System.getProperty(name));
+            }
+            specs.put(key, new CachedPageSpec(pageSpec.copy(), dependencies, systemProperties, setVariables(initialProperties, properties)));
+        }
+        else {
+            specs.remove(key);
+        }
+        return pageSpec;
+    }
+
+    public void clear() {
+        specs.clear();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private synchronized void countHit() {
+        hits++;
+    }
+
+    private synchronized void countMiss() {
+        misses++;
+    }
+
+    /**
+     * Variables defined with "@@ set" are stored in the properties the spec is read with,
+     * so they have to be applied again whenever the cached spec is used
+     */
+    private static Map<Object, Object> setVariables(Map<Object, Object> initialProperties, Properties properties) {
+        Map<Object, Object> variables = new HashMap<Object, Object>();
+        if (properties != null) {
+            for (Map.Entry<Object, Object> property : properties.entrySet()) {
+                if (!property.getValue().equals(initialProperties.get(property.getKey()))) {
+                    variables.put(property.getKey(), property.getValue());
+                }
+            }
+        }
+        return variables;
+    }
+
+    private static String propertiesKey(Properties properties) {
+        if (properties != null) {
+            return new TreeMap<Object, Object>(properties).toString();
+        }
+        else return "";
+    }
+
+    private static String contentHash(String filePath) throws IOException {
+        try {
+            return FileContent.load(filePath).getDigest();
+        }
+        catch (FileNotFoundException ex) {
+            return "";
+        }
+    }
+
+    private static class CachedPageSpec {
+        private final PageSpec pageSpec;
+        private final Map<String, String> dependencies;
+        private final Map<String, String> systemProperties;
+        private final Map<Object, Object> variables;
+
+        private CachedPageSpec(PageSpec pageSpec, Map<String, String> dependencies, Map<String, String> systemProperties, Map<Object, Object> variables) {
+            this.pageSpec = pageSpec;
+            this.dependencies = dependencies;
+            this.systemProperties = systemProperties;
+            this.variables = variables;
+        }
+
+        private boolean isUpToDate() throws IOException {
+            for (Map.Entry<String, String> dependency : dependencies.entrySet()) {
+                if (!dependency.getValue().equals(contentHash(dependency.getKey()))) {
+                    return false;
+                }
+            }
+            for (Map.Entry<String, String> systemProperty : systemProperties.entrySet()) {
+                if (!ObjectUtils.equals(systemProperty.getValue(), System.getProperty(systemProperty.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
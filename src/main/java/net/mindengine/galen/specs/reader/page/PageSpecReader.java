@@ -24,12 +24,12 @@ import net.mindengine.galen.parser.VarsContext;
 import net.mindengine.galen.parser.VarsParserJsFunctions;
 import net.mindengine.galen.specs.page.Locator;
 import net.mindengine.galen.specs.reader.Place;
+import net.mindengine.galen.utils.FileContent;
 import net.mindengine.galen.utils.GalenUtils;
 
 import java.io.*;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.regex.Pattern;
 
 public class PageSpecReader implements VarsParserJsFunctions {
 
@@ -41,6 +41,12 @@ public class PageSpecReader implements VarsParserJsFunctions {
     // Used to store information about spec files that were already loaded
     private Set<String> processedFileIds;
 
+    // Paths of all imported spec files and scripts which the resulting page spec depends on
+    private List<String> dependencies;
+
+    // Set to true once the spec accesses page elements (e.g. with find() function or multi objects) so it can't be shared between pages
+    private boolean pageDependent = false;
+
     /*
      *  This field is needed to look up early building of objects
      *  so they could be used within js functions
@@ -56,6 +62,7 @@ public class PageSpecReader implements VarsParserJsFunctions {
         }
         this.varsContext = new VarsContext(properties, this);
         this.processedFileIds = new HashSet<String>();
+        this.dependencies = new LinkedList<String>();
         this.page = page;
     }
 
@@ -70,6 +77,7 @@ public class PageSpecReader implements VarsParserJsFunctions {
         this.varsContext = pageSpecReader.varsContext;
         pageSpecReader.addChild(this);
         this.processedFileIds = pageSpecReader.processedFileIds;
+        this.dependencies = pageSpecReader.dependencies;
         this.page = pageSpecReader.page;
     }
 
@@ -83,11 +91,11 @@ public class PageSpecReader implements VarsParserJsFunctions {
 
 
     public PageSpec read(String filePath) throws IOException {
-        InputStream is = GalenUtils.findFileOrResourceAsStream(filePath);
-        if (is == null) {
-            throw new FileNotFoundException("Can't find file or resource: " + filePath);
-        }
-        return read(is, filePath, GalenUtils.getParentForFile(filePath));
+        return read(FileContent.load(filePath));
+    }
+
+    public PageSpec read(FileContent fileContent) throws IOException {
+        return read(fileContent.openStream(), fileContent.getPath(), GalenUtils.getParentForFile(fileContent.getPath()));
     }
 
 
@@ -120,24 +128,13 @@ public class PageSpecReader implements VarsParserJsFunctions {
     }
 
     public int count(String regex) {
-        String jRegex = regex.replace("*", ".*");
-        Pattern pattern = Pattern.compile(jRegex);
-
-        Set<String> collectedNames = new HashSet<String>();
-
-        for (String name : pageSpec.getObjects().keySet()) {
-            if (pattern.matcher(name).matches()) {
-               collectedNames.add(name);
-            }
-        }
+        Set<String> collectedNames = new HashSet<String>(pageSpec.findObjectNamesByWildcard(regex));
 
+        // imported specs are merged only once they are completely read
+        // so objects of a spec which is being imported right now are only known to its reader
         if (childReaders != null) {
             for (PageSpecReader childReader : childReaders) {
-                for (String name : childReader.pageSpec.getObjects().keySet()) {
-                    if (pattern.matcher(name).matches()) {
-                        collectedNames.add(name);
-                    }
-                }
+                collectedNames.addAll(childReader.pageSpec.findObjectNamesByWildcard(regex));
             }
         }
 
@@ -145,6 +142,7 @@ public class PageSpecReader implements VarsParserJsFunctions {
     }
 
     public JsPageElement find(String objectName) {
+        markPageDependent();
         JsPageElement pageElement = findJsPageElement(objectName);
         if (pageElement != null) {
             return pageElement;
@@ -187,10 +185,45 @@ public class PageSpecReader implements VarsParserJsFunctions {
     }
 
     public void runJavascriptFromFile(String filePath, String contextPath) {
+        if (!filePath.startsWith("/") && contextPath != null && !contextPath.isEmpty()) {
+            dependencies.add(contextPath + File.separator + filePath);
+        }
+        else {
+            dependencies.add(filePath);
+        }
 
         varsContext.runJavascriptFromFile(filePath, contextPath);
     }
 
+    void markPageDependent() {
+        PageSpecReader reader = this;
+        while (reader != null) {
+            reader.pageDependent = true;
+            reader = reader.parent;
+        }
+    }
+
+    /**
+     * @return true if the spec used page elements while it was read
+     */
+    public boolean isPageDependent() {
+        return pageDependent;
+    }
+
+    /**
+     * @return paths of imported specs and scripts which were used while reading the spec
+     */
+    public List<String> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * @return names of system properties which were used as variables while reading the spec
+     */
+    public Set<String> getUsedSystemProperties() {
+        return varsContext.getUsedSystemProperties();
+    }
+
     public PageSpecReader createNewSubReader() {
         return new PageSpecReader(this);
     }
@@ -209,10 +242,11 @@ public class PageSpecReader implements VarsParserJsFunctions {
             path = filePath;
         }
 
-        String fileId = GalenUtils.calculateFileId(path);
-        if (!processedFileIds.contains(fileId)) {
-            processedFileIds.add(fileId);
-            PageSpec spec = createNewSubReader().read(path);
+        FileContent fileContent = FileContent.load(path);
+        if (!processedFileIds.contains(fileContent.getFileId())) {
+            processedFileIds.add(fileContent.getFileId());
+            dependencies.add(path);
+            PageSpec spec = createNewSubReader().read(fileContent);
             if (spec != null) {
                 pageSpec.merge(spec);
             }
@@ -87,6 +87,7 @@ public class StateObjectDefinition extends State {
         else {
             
             if (pageSpecReader.getPage() != null) {
+                pageSpecReader.markPageDependent();
                 pageSpec.updateMultiObject(pageSpecReader.getPage(), objectName, locator);
             }
             else {
@@ -51,12 +51,15 @@ public class GalenPageActionRunJavascript extends GalenPageAction{
         Reader scriptFileReader = new FileReader(file);
         
         GalenJsExecutor js = new GalenJsExecutor();
-        js.eval(GalenJsExecutor.loadJsFromLibrary("GalenPages.js"));
+        js.evalLibrary("GalenPages.js");
         js.putObject("browser", browser);
         provideWrappedWebDriver(js, browser);
         
         js.eval("var arg = " + jsonArguments);
         js.eval(scriptFileReader, javascriptPath);
+
+        // script could have changed anything on the page
+        browser.getPage().clearCache();
     }
     
     private void provideWrappedWebDriver(GalenJsExecutor jsExecutor, Browser browser) {
@@ -135,6 +135,7 @@ public class GalenPageActionWait extends GalenPageAction {
         
         if (untilElements == null || untilElements.isEmpty()) {
             Thread.sleep(timeout);
+            page.clearCache();
         }
         else  {
             // waiting for elements
@@ -142,11 +143,13 @@ public class GalenPageActionWait extends GalenPageAction {
             int tries = timeout / period;
             while(tries-- > 0) {
                 Thread.sleep(period);
+                page.clearCache();
                 if (checkAllConditions(page, null)) {
                     return;
                 }
             }
             
+            page.clearCache();
             StringBuffer results = new StringBuffer();
             if (!checkAllConditions(page, results)) {
                 throw new TimeoutException("Failed waiting for:\n" + results.toString());
@@ -156,6 +156,10 @@ public class GalenSuiteLineProcessor {
         return rootNode.build(new VarsContext(properties));
     }
 
+    public Iterable<GalenBasicTest> buildSuitesLazily() {
+        return rootNode.buildLazily(new VarsContext(properties));
+    }
+
     private int indentationSpaces(String line) {
         int spacesCount = 0;
         for (int i=0; i<line.length(); i++) {
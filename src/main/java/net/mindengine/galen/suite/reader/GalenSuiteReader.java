@@ -19,6 +19,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
 
@@ -26,6 +27,8 @@ import net.mindengine.galen.parser.FileSyntaxException;
 import net.mindengine.galen.parser.SyntaxException;
 import net.mindengine.galen.tests.GalenBasicTest;
 
+import org.apache.commons.io.IOUtils;
+
 
 public class GalenSuiteReader {
 
@@ -43,14 +46,73 @@ public class GalenSuiteReader {
             return lineProcessor.buildSuites();
         }
         catch (SyntaxException e) {
-            
-            int lineNumber = -1;
-            if (e.getLine() != null) {
-                lineNumber = e.getLine().getNumber();
+            throw fileSyntaxException(e, filePath);
+        }
+    }
+
+    /**
+     * Reads the suite file but builds its tests only when they are iterated.
+     * Syntax errors in parameterized tests are thrown during iteration
+     */
+    public Iterable<GalenBasicTest> readLazily(File file) throws IOException {
+        final String filePath = file.getAbsolutePath();
+        final Iterable<GalenBasicTest> tests;
+
+        InputStream inputStream = new FileInputStream(file);
+        try {
+            GalenSuiteLineProcessor lineProcessor = new GalenSuiteLineProcessor(new Properties(), getContextPath(filePath));
+            lineProcessor.readLines(inputStream);
+            tests = lineProcessor.buildSuitesLazily();
+        }
+        catch (SyntaxException e) {
+            throw fileSyntaxException(e, filePath);
+        }
+        finally {
+            IOUtils.closeQuietly(inputStream);
+        }
+
+        return new Iterable<GalenBasicTest>() {
+            @Override
+            public Iterator<GalenBasicTest> iterator() {
+                final Iterator<GalenBasicTest> it = tests.iterator();
+                return new Iterator<GalenBasicTest>() {
+                    @Override
+                    public boolean hasNext() {
+                        try {
+                            return it.hasNext();
+                        }
+                        catch (SyntaxException e) {
+                            throw fileSyntaxException(e, filePath);
+                        }
+                    }
+
+                    @Override
+                    public GalenBasicTest next() {
+                        try {
+                            return it.next();
+                        }
+                        catch (SyntaxException e) {
+                            throw fileSyntaxException(e, filePath);
+                        }
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
             }
-            throw new FileSyntaxException(e, filePath, lineNumber);
+        };
+    }
+
+    private static FileSyntaxException fileSyntaxException(SyntaxException e, String filePath) {
+        int lineNumber = -1;
+        if (e.getLine() != null) {
+            lineNumber = e.getLine().getNumber();
         }
+        return new FileSyntaxException(e, filePath, lineNumber);
     }
+
     private String getContextPath(String filePath) {
         return new File(filePath).getParent();
     }
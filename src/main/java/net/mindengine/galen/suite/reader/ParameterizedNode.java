@@ -17,6 +17,8 @@ package net.mindengine.galen.suite.reader;
 
 import static java.lang.String.format;
 
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -38,29 +40,53 @@ public class ParameterizedNode extends Node<List<GalenBasicTest>>{
 
     @Override
     public List<GalenBasicTest> build(VarsContext context) {
-        
-        Table table = createTable(context);
-        
-        final VarsContext parameterizedContext = new VarsContext(new Properties(), context);
-        final List<GalenBasicTest> suites = new LinkedList<GalenBasicTest>();
-        
-        table.forEach(new RowVisitor() {
+        List<GalenBasicTest> suites = new LinkedList<GalenBasicTest>();
+        for (GalenBasicTest suite : buildLazily(context)) {
+            suites.add(suite);
+        }
+        return suites;
+    }
+
+    /**
+     * Expands table rows into tests only when the tests are requested so that
+     * nested parameterizations do not have to be kept in memory all at once
+     */
+    public Iterable<GalenBasicTest> buildLazily(final VarsContext context) {
+        return new Iterable<GalenBasicTest>() {
             @Override
-            public void visit(Map<String, String> values) {
-                parameterizedContext.addValuesFromMap(values);
-                
-                if (toParameterize instanceof ParameterizedNode) {
-                    ParameterizedNode parameterizedNode = (ParameterizedNode)toParameterize;
-                    suites.addAll(parameterizedNode.build(parameterizedContext));
-                }
-                else if (toParameterize instanceof SuiteNode) {
-                    SuiteNode suiteNode = (SuiteNode) toParameterize;
-                    suites.add(suiteNode.build(parameterizedContext));
-                }
+            public Iterator<GalenBasicTest> iterator() {
+                final Iterator<Map<String, String>> rows = createTable(context).rowsIterator();
+                final VarsContext parameterizedContext = new VarsContext(new Properties(), context);
+
+                return new LazyIterator<GalenBasicTest>() {
+                    private Iterator<GalenBasicTest> rowSuites = Collections.<GalenBasicTest>emptyList().iterator();
+
+                    @Override
+                    protected GalenBasicTest computeNext() {
+                        while (!rowSuites.hasNext()) {
+                            if (!rows.hasNext()) {
+                                return null;
+                            }
+                            parameterizedContext.addValuesFromMap(rows.next());
+                            rowSuites = buildRow(parameterizedContext);
+                        }
+                        return rowSuites.next();
+                    }
+                };
             }
-        });
-        
-        return suites;
+        };
+    }
+
+    private Iterator<GalenBasicTest> buildRow(VarsContext parameterizedContext) {
+        if (toParameterize instanceof ParameterizedNode) {
+            ParameterizedNode parameterizedNode = (ParameterizedNode)toParameterize;
+            return parameterizedNode.buildLazily(parameterizedContext).iterator();
+        }
+        else if (toParameterize instanceof SuiteNode) {
+            SuiteNode suiteNode = (SuiteNode) toParameterize;
+            return Collections.singletonList(suiteNode.build(parameterizedContext)).iterator();
+        }
+        return Collections.<GalenBasicTest>emptyList().iterator();
     }
 
     private Table createTable(VarsContext context) {
@@ -15,6 +15,7 @@
 ******************************************************************************/
 package net.mindengine.galen.suite.reader;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -49,27 +50,59 @@ public class RootNode extends Node<List<GalenBasicTest>> {
 
     @Override
     public List<GalenBasicTest> build(VarsContext context) {
-        rearrangeNodes();
-        
         List<GalenBasicTest> suites = new LinkedList<GalenBasicTest>();
-        for (Node<?> childNode : getChildNodes()) {
-            if (childNode instanceof SuiteNode) {
-                SuiteNode suiteNode = (SuiteNode)childNode;
-                if (suiteNode.isEnabled()) {
-                    suites.add(suiteNode.build(context));
-                }
-            }
-            else if (childNode instanceof ParameterizedNode) {
-                ParameterizedNode parameterizedNode = (ParameterizedNode)childNode;
-                if (parameterizedNode.isEnabled()) {
-                    suites.addAll(parameterizedNode.build(context));
+        for (GalenBasicTest suite : buildLazily(context)) {
+            suites.add(suite);
+        }
+        return suites;
+    }
+
+    /**
+     * Builds tests one by one while they are iterated. Other nodes (e.g. variables and tables)
+     * are processed once the iteration reaches them so they affect only the tests which are defined after them.
+     * The returned iterable can be iterated only once
+     */
+    public Iterable<GalenBasicTest> buildLazily(final VarsContext context) {
+        rearrangeNodes();
+
+        final Iterator<Node<?>> nodes = getChildNodes().iterator();
+        final Iterator<GalenBasicTest> tests = new LazyIterator<GalenBasicTest>() {
+            private Iterator<GalenBasicTest> parameterizedSuites = Collections.<GalenBasicTest>emptyList().iterator();
+
+            @Override
+            protected GalenBasicTest computeNext() {
+                while (!parameterizedSuites.hasNext()) {
+                    if (!nodes.hasNext()) {
+                        return null;
+                    }
+
+                    Node<?> childNode = nodes.next();
+                    if (childNode instanceof SuiteNode) {
+                        SuiteNode suiteNode = (SuiteNode)childNode;
+                        if (suiteNode.isEnabled()) {
+                            return suiteNode.build(context);
+                        }
+                    }
+                    else if (childNode instanceof ParameterizedNode) {
+                        ParameterizedNode parameterizedNode = (ParameterizedNode)childNode;
+                        if (parameterizedNode.isEnabled()) {
+                            parameterizedSuites = parameterizedNode.buildLazily(context).iterator();
+                        }
+                    }
+                    else {
+                        childNode.build(context);
+                    }
                 }
+                return parameterizedSuites.next();
             }
-            else {
-                childNode.build(context);
+        };
+
+        return new Iterable<GalenBasicTest>() {
+            @Override
+            public Iterator<GalenBasicTest> iterator() {
+                return tests;
             }
-        }
-        return suites;
+        };
     }
 
 
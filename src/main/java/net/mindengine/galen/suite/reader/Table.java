@@ -18,6 +18,7 @@ package net.mindengine.galen.suite.reader;
 import static net.mindengine.galen.suite.reader.Line.UNKNOWN_LINE;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -60,17 +61,34 @@ public class Table {
 
     public void forEach(RowVisitor visitor) {
         for (List<String> row : rows) {
-            int index = -1;
-            Map<String, String> values = new HashMap<String, String>();
-            for (String cell : row) {
-                index++;
-                values.put(headers.get(index), cell);
+            visitor.visit(rowValues(row));
+        }
+    }
+
+    /**
+     * @return iterator which converts rows to maps of values only when they are requested
+     */
+    public Iterator<Map<String, String>> rowsIterator() {
+        final Iterator<List<String>> it = rows.iterator();
+        return new LazyIterator<Map<String, String>>() {
+            @Override
+            protected Map<String, String> computeNext() {
+                if (it.hasNext()) {
+                    return rowValues(it.next());
+                }
+                return null;
             }
-            
-            visitor.visit(values);
+        };
+    }
+
+    private Map<String, String> rowValues(List<String> row) {
+        int index = -1;
+        Map<String, String> values = new HashMap<String, String>();
+        for (String cell : row) {
+            index++;
+            values.put(headers.get(index), cell);
         }
+        return values;
     }
-    
-    
 
 }
@@ -36,6 +36,7 @@ public class TestSession {
     private TestReport report = new TestReport();
     private CompleteListener listener;
     private GalenProperties properties = new GalenProperties();
+    private boolean screenshotsReported = true;
     
     private TestSession(GalenTestInfo testInfo) {
         this.setTestInfo(testInfo);
@@ -111,6 +112,17 @@ public class TestSession {
         this.properties = properties;
     }
 
+    /**
+     * Tells whether layout check screenshots end up in any report of this test
+     */
+    public boolean isScreenshotsReported() {
+        return screenshotsReported;
+    }
+
+    public void setScreenshotsReported(boolean screenshotsReported) {
+        this.screenshotsReported = screenshotsReported;
+    }
+
     public static List<TestSession> getAllSessions() {
         lock.lock();
         try {
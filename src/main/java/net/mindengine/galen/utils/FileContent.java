@@ -0,0 +1,187 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Content of a spec or script file which is read only once and is used both for calculating its digest
+ * and for parsing. Files bigger than {@link #MAPPING_THRESHOLD} are memory-mapped, smaller files and
+ * classpath resources are read into heap.
+ */
+public class FileContent {
+
+    public static final long MAPPING_THRESHOLD = 1024 * 1024;
+
+    private final String path;
+    private final ByteBuffer buffer;
+    private String digest;
+
+    private FileContent(String path, ByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Loads file from file system or, if it does not exist, from classpath
+     * @throws FileNotFoundException if neither file nor resource could be found
+     */
+    public static FileContent load(String filePath) throws IOException {
+        File file = new File(filePath);
+        if (file.exists()) {
+            return new FileContent(filePath, readFile(file));
+        }
+
+        InputStream stream = GalenUtils.findFileOrResourceAsStream(filePath);
+        if (stream == null) {
+            throw new FileNotFoundException("Can't find file or resource: " + filePath);
+        }
+        try {
+            return new FileContent(filePath, ByteBuffer.wrap(IOUtils.toByteArray(stream)));
+        }
+        finally {
+            IOUtils.closeQuietly(stream);
+        }
+    }
+
+    private static ByteBuffer readFile(File file) throws IOException {
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            FileChannel channel = fis.getChannel();
+            long size = channel.size();
+            if (size >= MAPPING_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // reading until the whole file is in buffer
+            }
+            buffer.flip();
+            return buffer;
+        }
+        finally {
+            IOUtils.closeQuietly(fis);
+        }
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int getSize() {
+        return buffer.limit();
+    }
+
+    /**
+     * @return hex encoded MD5 digest of the file content
+     */
+    public synchronized String getDigest() {
+        if (digest == null) {
+            MessageDigest md;
+            try {
+                md = MessageDigest.getInstance("MD5");
+            }
+            catch (NoSuchAlgorithmException ex) {
+                throw new RuntimeException(ex);
+            }
+            md.update(buffer.duplicate());
+
+            StringBuilder builder = new StringBuilder();
+            for (byte b : md.digest()) {
+                builder.append(String.format("%02x", b));
+            }
+            digest = builder.toString();
+        }
+        return digest;
+    }
+
+    /**
+     * @return id which is used to check whether the file was already imported. Consists of file name and its digest
+     */
+    public String getFileId() {
+        return new File(path).getName() + getDigest();
+    }
+
+    /**
+     * Writes the loaded content to the given file directly from the buffer
+     */
+    public void writeTo(File destination) throws IOException {
+        FileOutputStream fos = new FileOutputStream(destination);
+        try {
+            ByteBuffer content = buffer.duplicate();
+            FileChannel channel = fos.getChannel();
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+        }
+        finally {
+            IOUtils.closeQuietly(fos);
+        }
+    }
+
+    /**
+     * @return new stream over the loaded content. The content is not copied
+     */
+    public InputStream openStream() {
+        return new ByteBufferInputStream(buffer.duplicate());
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int amount = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, amount);
+            return amount;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return buffer.remaining();
+        }
+    }
+}
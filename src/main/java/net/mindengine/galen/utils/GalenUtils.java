@@ -19,13 +19,12 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.*;
 import java.net.URL;
-import java.security.DigestInputStream;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.WeakHashMap;
 
 import javax.imageio.ImageIO;
 
@@ -36,6 +35,7 @@ import net.mindengine.galen.browser.SeleniumBrowser;
 import net.mindengine.galen.browser.SeleniumBrowserFactory;
 import net.mindengine.galen.browser.SeleniumGridBrowserFactory;
 import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.galen.page.Screenshot;
 import net.mindengine.galen.reports.TestReport;
 import net.mindengine.galen.runner.CompleteListener;
 import net.mindengine.galen.suite.actions.GalenPageActionCheck;
@@ -56,6 +56,16 @@ public class GalenUtils {
 
     private static final String URL_REGEX = "[a-zA-Z0-9]+://.*";
     public static final String JS_RETRIEVE_DEVICE_PIXEL_RATIO = "var pr = window.devicePixelRatio; if (pr != undefined && pr != null)return pr; else return 1.0;";
+    private static final Map<WebDriver, Double> devicePixelRatios = new WeakHashMap<WebDriver, Double>();
+    private static final String JS_SCROLL_AND_WAIT_FOR_FRAMES = "window.scrollTo(0, arguments[0]);" +
+            "if (window.requestAnimationFrame) {" +
+            "  window.__galenFramesRendered = false;" +
+            "  window.requestAnimationFrame(function () { window.requestAnimationFrame(function () { window.__galenFramesRendered = true; }); });" +
+            "} else {" +
+            "  window.__galenFramesRendered = true;" +
+            "}";
+    private static final String JS_CHECK_SCROLLED_POSITION = "var y = (window.pageYOffset !== undefined) ? window.pageYOffset : (document.documentElement || document.body.parentNode || document.body).scrollTop;" +
+            "return window.__galenFramesRendered !== false && Math.abs(y - arguments[0]) < 3;";
 
 
     public static boolean isUrl(String url) {
@@ -95,6 +105,13 @@ public class GalenUtils {
     
     
     public static File makeFullScreenshot(WebDriver driver) throws IOException, InterruptedException {
+        return captureFullScreenshot(driver).getFile();
+    }
+
+    /**
+     * Scrolls the page and assembles a screenshot of the whole page in memory
+     */
+    public static Screenshot captureFullScreenshot(WebDriver driver) throws IOException, InterruptedException {
         byte[] bytes = ((TakesScreenshot)driver).getScreenshotAs(OutputType.BYTES);
         BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
         int capturedWidth = image.getWidth();
@@ -108,12 +125,10 @@ public class GalenUtils {
                 "document.body.clientHeight, document.documentElement.clientHeight);"
             );
 
-        Double devicePixelRatio = ((Number)((JavascriptExecutor)driver).executeScript(JS_RETRIEVE_DEVICE_PIXEL_RATIO)).doubleValue();
+        double devicePixelRatio = retrieveDevicePixelRatio(driver);
 
         int scrollHeight = (int)longScrollHeight;
 
-        File file = File.createTempFile("screenshot", ".png");
-
         int adaptedCapturedHeight = (int)(((double)capturedHeight) / devicePixelRatio);
 
         BufferedImage resultingImage;
@@ -124,29 +139,26 @@ public class GalenUtils {
             int times = scrollHeight / adaptedCapturedHeight;
             int leftover = scrollHeight % adaptedCapturedHeight;
 
-            final BufferedImage tiledImage = new BufferedImage(capturedWidth, (int)(((double)scrollHeight) * devicePixelRatio), BufferedImage.TYPE_INT_RGB);
-            Graphics2D g2dTile = tiledImage.createGraphics();
-            g2dTile.drawImage(image, 0,0, null);
+            int threads = GalenConfig.getConfig().getIntProperty(GalenConfig.SCREENSHOT_FULLPAGE_THREADS, 2);
+            ScreenshotStitcher stitcher = new ScreenshotStitcher(capturedWidth, (int)(((double)scrollHeight) * devicePixelRatio), threads);
+            stitcher.addTile(image, 0);
 
-            
+            // Next tile is captured while the previous one is decoded and drawn by the stitcher
             int scroll = 0;
             for (int i = 0; i < times - 1; i++) {
                 scroll += scrollOffset;
                 scrollVerticallyTo(driver, scroll);
-                BufferedImage nextImage = ImageIO.read(new ByteArrayInputStream(((TakesScreenshot)driver).getScreenshotAs(OutputType.BYTES)));
-                g2dTile.drawImage(nextImage, 0, (i+1) * capturedHeight, null);
+                stitcher.addTile(((TakesScreenshot)driver).getScreenshotAs(OutputType.BYTES), (i+1) * capturedHeight, 0);
             }
             if (leftover > 0) {
                 scroll += scrollOffset;
                 scrollVerticallyTo(driver, scroll);
-                BufferedImage nextImage = ImageIO.read(new ByteArrayInputStream(((TakesScreenshot)driver).getScreenshotAs(OutputType.BYTES)));
-                BufferedImage lastPart = nextImage.getSubimage(0, nextImage.getHeight() - (int)(((double)leftover) * devicePixelRatio), nextImage.getWidth(), leftover);
-                g2dTile.drawImage(lastPart, 0, times * capturedHeight, null);
+                stitcher.addTile(((TakesScreenshot)driver).getScreenshotAs(OutputType.BYTES), times * capturedHeight, (int)(((double)leftover) * devicePixelRatio));
             }
             
             scrollVerticallyTo(driver, 0);
 
-            resultingImage = tiledImage;
+            resultingImage = stitcher.finish();
         }
         else {
             resultingImage = image;
@@ -156,8 +168,10 @@ public class GalenUtils {
             resultingImage = GalenUtils.resizeScreenshotIfNeeded(driver, resultingImage);
         }
 
-        ImageIO.write(resultingImage, "png", file);
-        return file;
+        if (resultingImage == image) {
+            return Screenshot.fromPngBytes(bytes, image);
+        }
+        else return Screenshot.fromImage(resultingImage);
     }
 
 
@@ -168,7 +182,7 @@ public class GalenUtils {
      * @return
      */
     public static BufferedImage resizeScreenshotIfNeeded(WebDriver driver, BufferedImage screenshotImage) {
-        Double devicePixelRatio = ((Number)((JavascriptExecutor)driver).executeScript(JS_RETRIEVE_DEVICE_PIXEL_RATIO)).doubleValue();
+        double devicePixelRatio = retrieveDevicePixelRatio(driver);
 
         if (devicePixelRatio > 1.0 && screenshotImage.getWidth() > 0) {
             Long screenSize = (Long) ((JavascriptExecutor) driver).executeScript("return Math.max(" +
@@ -184,22 +198,30 @@ public class GalenUtils {
                 int newWidth = (int) (screenshotImage.getWidth() / estimatedPixelRatio);
                 int newHeight = (int) (screenshotImage.getHeight() / estimatedPixelRatio);
 
-                Image tmp = screenshotImage.getScaledInstance(newWidth, newHeight, Image.SCALE_SMOOTH);
-                BufferedImage scaledImage = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_RGB);
-
-                Graphics2D g2d = scaledImage.createGraphics();
-                g2d.drawImage(tmp, 0, 0, null);
-                g2d.dispose();
-
-                return scaledImage;
+                int threads = GalenConfig.getConfig().getIntProperty(GalenConfig.SCREENSHOT_AUTORESIZE_THREADS, 1);
+                return new ImageDownscaler(threads).downscale(screenshotImage, newWidth, newHeight);
             }
             else return screenshotImage;
         }
         else return screenshotImage;
     }
 
+    /**
+     * Fetches devicePixelRatio from the browser only once per driver session
+     */
+    public static double retrieveDevicePixelRatio(WebDriver driver) {
+        synchronized (devicePixelRatios) {
+            Double devicePixelRatio = devicePixelRatios.get(driver);
+            if (devicePixelRatio == null) {
+                devicePixelRatio = ((Number)((JavascriptExecutor)driver).executeScript(JS_RETRIEVE_DEVICE_PIXEL_RATIO)).doubleValue();
+                devicePixelRatios.put(driver, devicePixelRatio);
+            }
+            return devicePixelRatio;
+        }
+    }
+
     public static void scrollVerticallyTo(WebDriver driver, int scroll) {
-        ((JavascriptExecutor)driver).executeScript("window.scrollTo(0, " + scroll + ");");
+        ((JavascriptExecutor)driver).executeScript(JS_SCROLL_AND_WAIT_FOR_FRAMES, scroll);
         try {
             waitUntilItIsScrolledToPosition(driver, scroll);
         } catch (InterruptedException e) {
@@ -213,18 +235,21 @@ public class GalenUtils {
             Thread.sleep(hardTime);
         }
 
-        int time = 5000;
-        boolean isScrolledToPosition = false;
-        while(time >= 0 && !isScrolledToPosition) {
-            Thread.sleep(500);
-            time -= 500;
-            isScrolledToPosition = Math.abs(obtainVerticalScrollPosition(driver) - scrollPosition) < 3;
+        long deadline = System.currentTimeMillis() + 5000;
+        long pollInterval = 10;
+        while (!isScrolledToPosition(driver, scrollPosition) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(pollInterval);
+            pollInterval = Math.min(pollInterval * 2, 200);
         }
     }
 
-    private static int obtainVerticalScrollPosition(WebDriver driver) {
-        Long scrollLong = (Long) ((JavascriptExecutor)driver).executeScript("return (window.pageYOffset !== undefined) ? window.pageYOffset : (document.documentElement || document.body.parentNode || document.body).scrollTop;");
-        return scrollLong.intValue();
+    /**
+     * Checks whether the page is scrolled to the given position and at least two animation frames
+     * were rendered since the scroll was requested in {@link #scrollVerticallyTo(WebDriver, int)}
+     */
+    private static boolean isScrolledToPosition(WebDriver driver, int scrollPosition) {
+        Object result = ((JavascriptExecutor)driver).executeScript(JS_CHECK_SCROLLED_POSITION, scrollPosition);
+        return result instanceof Boolean && (Boolean)result;
     }
 
     public static String convertToFileName(String name) {
@@ -310,18 +335,25 @@ public class GalenUtils {
     }
     
     public static File takeScreenshot(WebDriver driver) throws IOException {
-        File file = ((TakesScreenshot)driver).getScreenshotAs(OutputType.FILE);
+        return captureScreenshot(driver).getFile();
+    }
 
+    /**
+     * Makes a screenshot of the visible part of the page and keeps it in memory
+     */
+    public static Screenshot captureScreenshot(WebDriver driver) throws IOException {
+        byte[] bytes = ((TakesScreenshot)driver).getScreenshotAs(OutputType.BYTES);
 
-        if (GalenConfig.getConfig().shouldAutoresizeScreenshots()) {
-            BufferedImage image = Rainbow4J.loadImage(file.getAbsolutePath());
-            File newFile = File.createTempFile("screenshot", ".png");
-            image = GalenUtils.resizeScreenshotIfNeeded(driver, image);
+        if (GalenConfig.getConfig().shouldAutoresizeScreenshots() && retrieveDevicePixelRatio(driver) > 1.0) {
+            BufferedImage image = Rainbow4J.loadImage(new ByteArrayInputStream(bytes));
+            BufferedImage resizedImage = GalenUtils.resizeScreenshotIfNeeded(driver, image);
 
-            Rainbow4J.saveImage(image, newFile);
-            return newFile;
+            if (resizedImage != image) {
+                return Screenshot.fromImage(resizedImage);
+            }
+            else return Screenshot.fromPngBytes(bytes, image);
         }
-        else return file;
+        else return Screenshot.fromPngBytes(bytes);
     }
     
     public static Properties loadProperties(String fileName) throws IOException {
@@ -385,23 +417,8 @@ public class GalenUtils {
         }
     }
 
-    public static String calculateFileId(String fullPath) throws NoSuchAlgorithmException, FileNotFoundException {
-        String fileName = new File(fullPath).getName();
-        MessageDigest md = MessageDigest.getInstance("MD5");
-        InputStream is = GalenUtils.findFileOrResourceAsStream(fullPath);
-        DigestInputStream dis = new DigestInputStream(is, md);
-        byte [] hashBytes = md.digest();
-
-        return fileName + convertHashBytesToString(hashBytes);
+    public static String calculateFileId(String fullPath) throws NoSuchAlgorithmException, IOException {
+        return FileContent.load(fullPath).getFileId();
     }
 
-    private static String convertHashBytesToString(byte[] hashBytes) {
-        StringBuilder builder = new StringBuilder();
-        for (byte b : hashBytes) {
-            builder.append(Integer.toHexString(0xFF & b));
-        }
-        return builder.toString();
-    }
-
-
 }
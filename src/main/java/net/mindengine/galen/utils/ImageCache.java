@@ -0,0 +1,199 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.utils;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.rainbow4j.Rainbow4J;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Process-wide LRU cache of decoded images, bounded by the approximate amount of bytes taken by their rasters.
+ * Images are identified by their path and modification time, so a changed file is decoded again.
+ * Cached images are shared between threads and should never be modified.
+ */
+public class ImageCache {
+
+    private static final long MEGABYTE = 1024L * 1024L;
+    private static ImageCache instance;
+
+    private final long maxSize;
+    private final boolean useSoftReferences;
+    private final LinkedHashMap<String, CachedImage> images = new LinkedHashMap<String, CachedImage>(16, 0.75f, true);
+    private long currentSize = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * @param maxSize - max amount of bytes for all decoded images. Zero disables the cache
+     * @param useSoftReferences - lets the garbage collector drop cached images when memory is low
+     */
+    public ImageCache(long maxSize, boolean useSoftReferences) {
+        this.maxSize = maxSize;
+        this.useSoftReferences = useSoftReferences;
+    }
+
+    public synchronized static ImageCache getInstance() {
+        if (instance == null) {
+            GalenConfig config = GalenConfig.getConfig();
+            instance = new ImageCache(config.getIntProperty(GalenConfig.IMAGES_CACHE_SIZE, 128) * MEGABYTE,
+                    config.getBooleanProperty(GalenConfig.IMAGES_CACHE_SOFT_REFERENCES, false));
+        }
+        return instance;
+    }
+
+    /**
+     * Loads image from file or classpath resource and decodes it only in case it was not decoded before
+     */
+    public BufferedImage loadImage(String imagePath) throws IOException {
+        String key = createKey(imagePath);
+
+        BufferedImage image = get(key);
+        if (image == null) {
+            image = decodeImage(imagePath);
+            put(key, image);
+        }
+        return image;
+    }
+
+    private String createKey(String imagePath) {
+        File file = new File(imagePath);
+        if (file.exists()) {
+            return file.getAbsolutePath() + "#" + file.lastModified();
+        }
+        else return "resource:" + imagePath;
+    }
+
+    private BufferedImage decodeImage(String imagePath) throws IOException {
+        InputStream stream = GalenUtils.findFileOrResourceAsStream(imagePath);
+        if (stream == null) {
+            throw new FileNotFoundException("Can't find file or resource: " + imagePath);
+        }
+        try {
+            return Rainbow4J.loadImage(stream);
+        }
+        finally {
+            IOUtils.closeQuietly(stream);
+        }
+    }
+
+    private synchronized BufferedImage get(String key) {
+        CachedImage cachedImage = images.get(key);
+        if (cachedImage != null) {
+            BufferedImage image = cachedImage.getImage();
+            if (image != null) {
+                hits++;
+                return image;
+            }
+            else {
+                // image was collected by GC
+                images.remove(key);
+                currentSize -= cachedImage.size;
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    private synchronized void put(String key, BufferedImage image) {
+        long size = sizeOf(image);
+        if (size > maxSize) {
+            return;
+        }
+
+        CachedImage previous = images.put(key, new CachedImage(image, size, useSoftReferences));
+        if (previous != null) {
+            currentSize -= previous.size;
+        }
+        currentSize += size;
+
+        Iterator<Map.Entry<String, CachedImage>> it = images.entrySet().iterator();
+        while (currentSize > maxSize && it.hasNext()) {
+            CachedImage eldest = it.next().getValue();
+            it.remove();
+            currentSize -= eldest.size;
+            evictions++;
+        }
+    }
+
+    private static long sizeOf(BufferedImage image) {
+        long pixels = (long) image.getWidth() * image.getHeight();
+        return pixels * Math.max(1, image.getColorModel().getPixelSize() / 8);
+    }
+
+    public synchronized void clear() {
+        images.clear();
+        currentSize = 0;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getCurrentSize() {
+        return currentSize;
+    }
+
+    public synchronized int getImagesCount() {
+        return images.size();
+    }
+
+
+    private static class CachedImage {
+        private final BufferedImage image;
+        private final SoftReference<BufferedImage> softImage;
+        private final long size;
+
+        public CachedImage(BufferedImage image, long size, boolean useSoftReference) {
+            if (useSoftReference) {
+                this.image = null;
+                this.softImage = new SoftReference<BufferedImage>(image);
+            }
+            else {
+                this.image = image;
+                this.softImage = null;
+            }
+            this.size = size;
+        }
+
+        public BufferedImage getImage() {
+            if (softImage != null) {
+                return softImage.get();
+            }
+            else return image;
+        }
+    }
+}
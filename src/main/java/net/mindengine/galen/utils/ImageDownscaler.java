@@ -0,0 +1,316 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.utils;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downscales screenshots by averaging the area of source pixels which is covered by each destination pixel.
+ * Works directly on int rgb arrays. Integer ratios (e.g. retina screenshots with devicePixelRatio 2 or 3)
+ * are handled with a plain box filter. Rows can be split into bands which are processed in parallel.
+ */
+public class ImageDownscaler {
+
+    private static final double INTEGER_RATIO_TOLERANCE = 0.001;
+
+    private static ExecutorService downscalingPool;
+
+    private final int threads;
+
+    public ImageDownscaler(int threads) {
+        this.threads = threads;
+    }
+
+    public BufferedImage downscale(BufferedImage source, int newWidth, int newHeight) {
+        if (newWidth <= 0 || newHeight <= 0) {
+            throw new IllegalArgumentException("Incorrect size: " + newWidth + "x" + newHeight);
+        }
+
+        int width = source.getWidth();
+        int height = source.getHeight();
+
+        int[] sourcePixels = readPixels(source);
+
+        BufferedImage result = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_RGB);
+        int[] resultPixels = ((DataBufferInt) result.getRaster().getDataBuffer()).getData();
+
+        RowsScaler scaler;
+        int ratio = integerRatio(width, height, newWidth, newHeight);
+        if (ratio > 0) {
+            scaler = new BoxScaler(sourcePixels, width, resultPixels, newWidth, ratio);
+        }
+        else {
+            scaler = new AreaAveragingScaler(sourcePixels, width, height, resultPixels, newWidth, newHeight);
+        }
+
+        scaleInBands(scaler, newHeight);
+        return result;
+    }
+
+    private void scaleInBands(final RowsScaler scaler, int rows) {
+        int bands = Math.min(threads, rows);
+        if (bands <= 1) {
+            scaler.scaleRows(0, rows);
+            return;
+        }
+
+        ExecutorService pool = getDownscalingPool(threads);
+        List<Future<?>> futures = new LinkedList<Future<?>>();
+        int bandHeight = (rows + bands - 1) / bands;
+        for (int from = 0; from < rows; from += bandHeight) {
+            final int bandFrom = from;
+            final int bandTo = Math.min(rows, from + bandHeight);
+            futures.add(pool.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    scaler.scaleRows(bandFrom, bandTo);
+                    return null;
+                }
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while resizing image", ex);
+        }
+        catch (ExecutionException ex) {
+            throw new RuntimeException("Couldn't resize image", ex.getCause());
+        }
+    }
+
+    /**
+     * @return integer ratio if both dimensions are reduced by the same integer factor, otherwise 0
+     */
+    private static int integerRatio(int width, int height, int newWidth, int newHeight) {
+        double ratioX = ((double) width) / newWidth;
+        double ratioY = ((double) height) / newHeight;
+        int ratio = (int) Math.round(ratioX);
+
+        if (ratio > 1
+                && Math.abs(ratioX - ratio) < INTEGER_RATIO_TOLERANCE * ratio
+                && Math.abs(ratioY - ratio) < INTEGER_RATIO_TOLERANCE * ratio
+                && newWidth * ratio <= width && newHeight * ratio <= height) {
+            return ratio;
+        }
+        return 0;
+    }
+
+    private static int[] readPixels(BufferedImage image) {
+        int type = image.getType();
+        if ((type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB)
+                && image.getRaster().getDataBuffer() instanceof DataBufferInt
+                && image.getRaster().getParent() == null) {
+            return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        }
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+
+    private static synchronized ExecutorService getDownscalingPool(int threads) {
+        if (downscalingPool == null) {
+            downscalingPool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                private final AtomicInteger counter = new AtomicInteger(0);
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "galen-image-downscaling-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return downscalingPool;
+    }
+
+    private interface RowsScaler {
+        void scaleRows(int from, int to);
+    }
+
+    private static class BoxScaler implements RowsScaler {
+        private final int[] source;
+        private final int sourceWidth;
+        private final int[] result;
+        private final int resultWidth;
+        private final int ratio;
+
+        private BoxScaler(int[] source, int sourceWidth, int[] result, int resultWidth, int ratio) {
+            this.source = source;
+            this.sourceWidth = sourceWidth;
+            this.result = result;
+            this.resultWidth = resultWidth;
+            this.ratio = ratio;
+        }
+
+        @Override
+        public void scaleRows(int from, int to) {
+            int area = ratio * ratio;
+            int half = area / 2;
+            int[] sums = new int[resultWidth * 3];
+
+            for (int y = from; y < to; y++) {
+                Arrays.fill(sums, 0);
+
+                for (int sy = y * ratio; sy < (y + 1) * ratio; sy++) {
+                    int offset = sy * sourceWidth;
+                    for (int x = 0; x < resultWidth; x++) {
+                        int k = offset + x * ratio;
+                        int r = 0, g = 0, b = 0;
+                        for (int i = 0; i < ratio; i++) {
+                            int rgb = source[k + i];
+                            r += (rgb >> 16) & 0xff;
+                            g += (rgb >> 8) & 0xff;
+                            b += rgb & 0xff;
+                        }
+                        sums[x * 3] += r;
+                        sums[x * 3 + 1] += g;
+                        sums[x * 3 + 2] += b;
+                    }
+                }
+
+                int offset = y * resultWidth;
+                for (int x = 0; x < resultWidth; x++) {
+                    int r = (sums[x * 3] + half) / area;
+                    int g = (sums[x * 3 + 1] + half) / area;
+                    int b = (sums[x * 3 + 2] + half) / area;
+                    result[offset + x] = (r << 16) | (g << 8) | b;
+                }
+            }
+        }
+    }
+
+    /**
+     * Generic downscaling for fractional ratios. Each destination pixel is an average of source pixels
+     * weighted by the part of their area which falls into the destination pixel
+     */
+    private static class AreaAveragingScaler implements RowsScaler {
+        private final int[] source;
+        private final int sourceWidth;
+        private final int sourceHeight;
+        private final int[] result;
+        private final int resultWidth;
+        private final double scaleY;
+
+        private final int[] columnStarts;
+        private final int[] columnEnds;
+        private final float[][] columnWeights;
+
+        private AreaAveragingScaler(int[] source, int sourceWidth, int sourceHeight, int[] result, int resultWidth, int resultHeight) {
+            this.source = source;
+            this.sourceWidth = sourceWidth;
+            this.sourceHeight = sourceHeight;
+            this.result = result;
+            this.resultWidth = resultWidth;
+            this.scaleY = ((double) sourceHeight) / resultHeight;
+
+            double scaleX = ((double) sourceWidth) / resultWidth;
+            columnStarts = new int[resultWidth];
+            columnEnds = new int[resultWidth];
+            columnWeights = new float[resultWidth][];
+            for (int x = 0; x < resultWidth; x++) {
+                double start = x * scaleX;
+                double end = Math.min(sourceWidth, (x + 1) * scaleX);
+                columnStarts[x] = (int) start;
+                columnEnds[x] = Math.min(sourceWidth, (int) Math.ceil(end));
+                columnWeights[x] = weights(start, end, columnStarts[x], columnEnds[x]);
+            }
+        }
+
+        @Override
+        public void scaleRows(int from, int to) {
+            float[] rowSums = new float[resultWidth * 3];
+            float[] sums = new float[resultWidth * 3];
+
+            for (int y = from; y < to; y++) {
+                double start = y * scaleY;
+                double end = Math.min(sourceHeight, (y + 1) * scaleY);
+                int rowStart = (int) start;
+                int rowEnd = Math.min(sourceHeight, (int) Math.ceil(end));
+                float[] rowWeights = weights(start, end, rowStart, rowEnd);
+
+                Arrays.fill(sums, 0f);
+                for (int sy = rowStart; sy < rowEnd; sy++) {
+                    scaleRowHorizontally(sy, rowSums);
+                    float weight = rowWeights[sy - rowStart];
+                    for (int i = 0; i < sums.length; i++) {
+                        sums[i] += rowSums[i] * weight;
+                    }
+                }
+
+                int offset = y * resultWidth;
+                for (int x = 0; x < resultWidth; x++) {
+                    result[offset + x] = (toChannel(sums[x * 3]) << 16) | (toChannel(sums[x * 3 + 1]) << 8) | toChannel(sums[x * 3 + 2]);
+                }
+            }
+        }
+
+        private void scaleRowHorizontally(int sy, float[] rowSums) {
+            int offset = sy * sourceWidth;
+            for (int x = 0; x < resultWidth; x++) {
+                float[] weights = columnWeights[x];
+                float r = 0, g = 0, b = 0;
+                for (int sx = columnStarts[x]; sx < columnEnds[x]; sx++) {
+                    int rgb = source[offset + sx];
+                    float weight = weights[sx - columnStarts[x]];
+                    r += ((rgb >> 16) & 0xff) * weight;
+                    g += ((rgb >> 8) & 0xff) * weight;
+                    b += (rgb & 0xff) * weight;
+                }
+                rowSums[x * 3] = r;
+                rowSums[x * 3 + 1] = g;
+                rowSums[x * 3 + 2] = b;
+            }
+        }
+
+        /**
+         * Calculates normalized weights of source pixels within [start, end) span
+         */
+        private static float[] weights(double start, double end, int from, int to) {
+            float[] weights = new float[Math.max(1, to - from)];
+            double total = end - start;
+            for (int i = from; i < to; i++) {
+                double covered = Math.min(end, i + 1) - Math.max(start, i);
+                weights[i - from] = (float) (covered / total);
+            }
+            return weights;
+        }
+
+        private static int toChannel(float value) {
+            int channel = Math.round(value);
+            if (channel < 0) {
+                return 0;
+            }
+            else if (channel > 255) {
+                return 255;
+            }
+            return channel;
+        }
+    }
+}
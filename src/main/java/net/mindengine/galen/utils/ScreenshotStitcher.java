@@ -0,0 +1,148 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.utils;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Stitches screenshot tiles into a preallocated image. Tiles are decoded and drawn on a worker pool
+ * so that the next tile can already be captured while the previous one is still being processed.
+ */
+public class ScreenshotStitcher {
+
+    private static ExecutorService stitchingPool;
+
+    private final BufferedImage image;
+    private final ExecutorService executor;
+    private final List<Future<?>> tiles = new LinkedList<Future<?>>();
+
+    /**
+     * @param width width of the resulting image
+     * @param height height of the resulting image
+     * @param threads amount of threads for decoding tiles. If it is less than 1 all tiles are decoded on the calling thread
+     */
+    public ScreenshotStitcher(int width, int height, int threads) {
+        this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        if (threads > 0) {
+            this.executor = getStitchingPool(threads);
+        }
+        else {
+            this.executor = null;
+        }
+    }
+
+    public void addTile(BufferedImage tile, int y) {
+        draw(tile, y);
+    }
+
+    /**
+     * Decodes the png tile and draws it at the specified vertical position
+     * @param pngBytes
+     * @param y vertical position in resulting image
+     * @param bottomHeight if positive only the given amount of pixels from the bottom of the tile is taken
+     */
+    public void addTile(final byte[] pngBytes, final int y, final int bottomHeight) throws IOException {
+        if (executor == null) {
+            drawPng(pngBytes, y, bottomHeight);
+        }
+        else {
+            tiles.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    drawPng(pngBytes, y, bottomHeight);
+                    return null;
+                }
+            }));
+        }
+    }
+
+    /**
+     * Waits until all tiles are drawn
+     * @return the stitched image
+     */
+    public BufferedImage finish() throws IOException, InterruptedException {
+        try {
+            for (Future<?> tile : tiles) {
+                tile.get();
+            }
+        }
+        catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+        finally {
+            tiles.clear();
+        }
+        return image;
+    }
+
+    private void drawPng(byte[] pngBytes, int y, int bottomHeight) throws IOException {
+        BufferedImage tile = ImageIO.read(new ByteArrayInputStream(pngBytes));
+        if (tile == null) {
+            throw new IOException("Could not decode screenshot");
+        }
+
+        if (bottomHeight > 0 && bottomHeight < tile.getHeight()) {
+            tile = tile.getSubimage(0, tile.getHeight() - bottomHeight, tile.getWidth(), bottomHeight);
+        }
+        draw(tile, y);
+    }
+
+    private void draw(BufferedImage tile, int y) {
+        synchronized (image) {
+            Graphics2D g2d = image.createGraphics();
+            try {
+                g2d.drawImage(tile, 0, y, null);
+            }
+            finally {
+                g2d.dispose();
+            }
+        }
+    }
+
+    private static synchronized ExecutorService getStitchingPool(int threads) {
+        if (stitchingPool == null) {
+            stitchingPool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                private final AtomicInteger counter = new AtomicInteger(0);
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "galen-screenshot-stitching-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return stitchingPool;
+    }
+}
@@ -0,0 +1,267 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.utils;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import net.mindengine.galen.page.Rect;
+
+/**
+ * Keeps color spectrums of page screenshot areas so that the screenshot pixels are read
+ * only once for every area and precision no matter how many color scheme specs are checked on it.
+ * The cache is bound to the screenshot image instance and is dropped together with it
+ * once the page takes a new screenshot.
+ * Percentages are calculated exactly as in Rainbow4J.readSpectrum and Spectrum.getPercentage
+ */
+public class SpectrumCache {
+
+    private static final Map<BufferedImage, SpectrumCache> caches = new WeakHashMap<BufferedImage, SpectrumCache>();
+
+    /**
+     * Cache is stored as a value in a weak map so it should not hold the screenshot strongly
+     */
+    private final WeakReference<BufferedImage> imageReference;
+    private final int width;
+    private final int height;
+    private byte[] bytes;
+    private int blockSize;
+
+    private final Map<List<Integer>, AreaSpectrum> spectrums = new HashMap<List<Integer>, AreaSpectrum>();
+    private final Map<List<Integer>, int[]> integralHistograms = new HashMap<List<Integer>, int[]>();
+
+    private long hits = 0;
+    private long misses = 0;
+
+    public SpectrumCache(BufferedImage image) {
+        this.imageReference = new WeakReference<BufferedImage>(image);
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+    }
+
+    public synchronized static SpectrumCache forScreenshot(BufferedImage image) {
+        SpectrumCache cache = caches.get(image);
+        if (cache == null) {
+            cache = new SpectrumCache(image);
+            caches.put(image, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Calculates the percentage of pixels in the area which are close to the specified color
+     * @param integralHistogram - if true the percentage is fetched from an integral histogram of the whole screenshot
+     *                          built for the specified color range. This pays off when the same color is checked on many areas
+     */
+    public synchronized float getPercentage(Rect area, int precision, Color color, int range, boolean integralHistogram) {
+        if (precision < 8) {
+            throw new IllegalArgumentException("Color size should not be less then 8");
+        }
+        if (precision > 256) {
+            throw new IllegalArgumentException("Color size should not be bigger then 256");
+        }
+
+        int crange = Math.min(range * precision / 256, precision - 1);
+        int cr = quantize(color.getRed(), precision);
+        int cg = quantize(color.getGreen(), precision);
+        int cb = quantize(color.getBlue(), precision);
+
+        int[] bounds = new int[] {
+            Math.max(0, cr - crange), Math.min(cr + crange, precision - 1),
+            Math.max(0, cg - crange), Math.min(cg + crange, precision - 1),
+            Math.max(0, cb - crange), Math.min(cb + crange, precision - 1)
+        };
+
+        long counter;
+        if (integralHistogram) {
+            counter = countWithIntegralHistogram(area, precision, bounds);
+        }
+        else {
+            counter = getSpectrum(area, precision).count(precision, bounds);
+        }
+
+        return 100.0f * (float)counter / (float)(area.getWidth() * area.getHeight());
+    }
+
+    private AreaSpectrum getSpectrum(Rect area, int precision) {
+        List<Integer> key = Arrays.asList(area.getLeft(), area.getTop(), area.getWidth(), area.getHeight(), precision);
+        AreaSpectrum spectrum = spectrums.get(key);
+        if (spectrum == null) {
+            misses++;
+            spectrum = readSpectrum(area, precision);
+            spectrums.put(key, spectrum);
+        }
+        else {
+            hits++;
+        }
+        return spectrum;
+    }
+
+    private AreaSpectrum readSpectrum(Rect area, int precision) {
+        byte[] a = getBytes();
+
+        int[] codes = new int[area.getWidth() * area.getHeight()];
+        int i = 0;
+        for (int y = area.getTop(); y < area.getTop() + area.getHeight(); y++) {
+            for (int x = area.getLeft(); x < area.getLeft() + area.getWidth(); x++) {
+                codes[i++] = colorCode(a, y * width * blockSize + x * blockSize, precision);
+            }
+        }
+
+        Arrays.sort(codes);
+
+        int distinct = 0;
+        for (int k = 0; k < codes.length; k++) {
+            if (k == 0 || codes[k] != codes[k - 1]) {
+                distinct++;
+            }
+        }
+
+        int[] distinctCodes = new int[distinct];
+        int[] counts = new int[distinct];
+        int d = -1;
+        for (int k = 0; k < codes.length; k++) {
+            if (k == 0 || codes[k] != codes[k - 1]) {
+                d++;
+                distinctCodes[d] = codes[k];
+            }
+            counts[d]++;
+        }
+        return new AreaSpectrum(distinctCodes, counts);
+    }
+
+    private long countWithIntegralHistogram(Rect area, int precision, int[] bounds) {
+        List<Integer> key = Arrays.asList(precision, bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5]);
+        int[] integral = integralHistograms.get(key);
+        if (integral == null) {
+            misses++;
+            integral = buildIntegralHistogram(precision, bounds);
+            integralHistograms.put(key, integral);
+        }
+        else {
+            hits++;
+        }
+
+        if (area.getLeft() < 0 || area.getTop() < 0) {
+            throw new IllegalArgumentException("Area is outside of screenshot");
+        }
+
+        int stride = width + 1;
+        int x1 = area.getLeft();
+        int y1 = area.getTop();
+        int x2 = x1 + area.getWidth();
+        int y2 = y1 + area.getHeight();
+        return integral[y2 * stride + x2] - integral[y1 * stride + x2] - integral[y2 * stride + x1] + integral[y1 * stride + x1];
+    }
+
+    /**
+     * Builds a summed area table of pixels which fall into the specified color bounds
+     */
+    private int[] buildIntegralHistogram(int precision, int[] bounds) {
+        byte[] a = getBytes();
+        int stride = width + 1;
+
+        int[] integral = new int[stride * (height + 1)];
+        for (int y = 0; y < height; y++) {
+            int rowSum = 0;
+            for (int x = 0; x < width; x++) {
+                int k = y * width * blockSize + x * blockSize;
+                if (isWithin(a, k, precision, bounds)) {
+                    rowSum++;
+                }
+                integral[(y + 1) * stride + x + 1] = integral[y * stride + x + 1] + rowSum;
+            }
+        }
+        return integral;
+    }
+
+    private byte[] getBytes() {
+        if (bytes == null) {
+            BufferedImage image = imageReference.get();
+            if (image == null) {
+                throw new IllegalStateException("Screenshot image is no longer available");
+            }
+            bytes = ((DataBufferByte)image.getData().getDataBuffer()).getData();
+            blockSize = image.getColorModel().hasAlpha() ? 4 : 3;
+        }
+        return bytes;
+    }
+
+    private static boolean isWithin(byte[] a, int k, int precision, int[] bounds) {
+        int r = quantize(a[k] & 0xFF, precision);
+        int g = quantize(a[k + 1] & 0xFF, precision);
+        int b = quantize(a[k + 2] & 0xFF, precision);
+        return r >= bounds[0] && r <= bounds[1]
+            && g >= bounds[2] && g <= bounds[3]
+            && b >= bounds[4] && b <= bounds[5];
+    }
+
+    private static int colorCode(byte[] a, int k, int precision) {
+        int r = quantize(a[k] & 0xFF, precision);
+        int g = quantize(a[k + 1] & 0xFF, precision);
+        int b = quantize(a[k + 2] & 0xFF, precision);
+        return (r * precision + g) * precision + b;
+    }
+
+    private static int quantize(int value, int precision) {
+        return Math.min(value * precision / 256, precision - 1);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Sparse color spectrum of a screenshot area. Keeps only the colors which are present in the area
+     * sorted by their codes
+     */
+    private static class AreaSpectrum {
+        private final int[] codes;
+        private final int[] counts;
+
+        private AreaSpectrum(int[] codes, int[] counts) {
+            this.codes = codes;
+            this.counts = counts;
+        }
+
+        public long count(int precision, int[] bounds) {
+            long counter = 0;
+            for (int i = 0; i < codes.length; i++) {
+                int b = codes[i] % precision;
+                int g = (codes[i] / precision) % precision;
+                int r = codes[i] / (precision * precision);
+
+                if (r >= bounds[0] && r <= bounds[1]
+                        && g >= bounds[2] && g <= bounds[3]
+                        && b >= bounds[4] && b <= bounds[5]) {
+                    counter += counts[i];
+                }
+            }
+            return counter;
+        }
+    }
+}
@@ -18,14 +18,17 @@ package net.mindengine.galen.validation;
 import static java.lang.String.format;
 import static net.mindengine.galen.suite.reader.Line.UNKNOWN_LINE;
 
-import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.page.Page;
 import net.mindengine.galen.page.PageElement;
 import net.mindengine.galen.parser.SyntaxException;
 import net.mindengine.galen.specs.Range;
 import net.mindengine.galen.specs.Spec;
+import net.mindengine.galen.specs.ValuePath;
 import net.mindengine.galen.specs.page.Locator;
 import net.mindengine.galen.specs.reader.page.PageSpec;
 import net.mindengine.galen.specs.reader.page.SectionFilter;
@@ -37,6 +40,8 @@ public class PageValidation {
     private PageSpec pageSpec;
     private ValidationListener validationListener;
     private SectionFilter sectionFilter;
+    private SpecResultMemo specResults = createSpecResultMemo();
+    private final ConcurrentMap<String, Integer> percentageBases = new ConcurrentHashMap<String, Integer>();
 
     public PageValidation(Browser browser, Page page, PageSpec pageSpec, ValidationListener validationListener, SectionFilter sectionFilter) {
         this.setBrowser(browser);
@@ -52,10 +57,30 @@ public class PageValidation {
 
     public void setPage(Page page) {
         this.page = page;
+        invalidateSpecResults();
     }
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
+    /**
+     * Checks the spec or gives the remembered result if the same spec was already checked for this object
+     * @return validation error or null if spec passed
+     */
     public ValidationError check(String objectName, Spec spec) {
+        if (specResults != null) {
+            SpecResultMemo.Result result = specResults.find(objectName, spec);
+            if (result != null) {
+                return result.getError();
+            }
+        }
+
+        ValidationError error = checkSpec(objectName, spec);
+        if (specResults != null) {
+            specResults.remember(objectName, spec, error);
+        }
+        return error;
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private ValidationError checkSpec(String objectName, Spec spec) {
         SpecValidation specValidation = ValidationFactory.getValidation(spec, this);
         try {
             specValidation.check(this, objectName, spec);
@@ -89,34 +114,36 @@ public class PageValidation {
     }
     
     public Range convertRangeFromPercentageToPixels(Range range) {
-        String valuePath = range.getPercentageOfValue();
-        int index = valuePath.indexOf("/");
-        if (index > 0 && index < valuePath.length() - 1) {
-            String objectName = valuePath.substring(0, index);
-            String fieldPath = valuePath.substring(index + 1);
-            
-            Locator locator = pageSpec.getObjectLocator(objectName);
-            PageElement pageElement = findPageElementOnPage(objectName, locator);
-            
-            if (pageElement != null) {
-                Object objectValue = getObjectValue(pageElement, fieldPath);
-                int value = convertToInt(objectValue);
-                
-                
-                Double valueA = range.getFrom();
-                Double valueB = range.getTo();
-                if (valueA != null) {
-                    valueA = valueA * value / 100.0;
-                }
-                if (valueB != null) {
-                    valueB = valueB * value / 100.0;
-                }
-                
-                return new Range(valueA, valueB).withType(range.getRangeType());
-            }
-            else throw new SyntaxException(UNKNOWN_LINE, format("Locator for object \"%s\" is not specified", objectName));
+        int value = readPercentageBase(range.getPercentagePath());
+
+        Double valueA = range.getFrom();
+        Double valueB = range.getTo();
+        if (valueA != null) {
+            valueA = valueA * value / 100.0;
         }
-        else throw new SyntaxException(UNKNOWN_LINE, format("Value path is incorrect %s", valuePath));
+        if (valueB != null) {
+            valueB = valueB * value / 100.0;
+        }
+
+        return new Range(valueA, valueB).withType(range.getRangeType());
+    }
+
+    private int readPercentageBase(ValuePath valuePath) {
+        Integer cachedValue = percentageBases.get(valuePath.getPath());
+        if (cachedValue != null) {
+            return cachedValue;
+        }
+
+        String objectName = valuePath.getObjectName();
+        Locator locator = pageSpec.getObjectLocator(objectName);
+        PageElement pageElement = findPageElementOnPage(objectName, locator);
+
+        if (pageElement != null) {
+            int value = valuePath.readValue(pageElement);
+            percentageBases.put(valuePath.getPath(), value);
+            return value;
+        }
+        else throw new SyntaxException(UNKNOWN_LINE, format("Locator for object \"%s\" is not specified", objectName));
     }
 
     private PageElement findPageElementOnPage(String objectName, Locator locator) {
@@ -128,64 +155,42 @@ public class PageValidation {
         }
     }
 
-    private int convertToInt(Object objectValue) {
-        if (objectValue == null) {
-            throw new NullPointerException("The returned value is null");
-        }
-        else {
-            if (objectValue instanceof Integer) {
-                return ((Integer)objectValue).intValue();
-            }
-            else if (objectValue instanceof Double) {
-                return ((Double)objectValue).intValue();
-            }
-            else {
-                throw new SyntaxException(UNKNOWN_LINE, format("Cannot convert value to integer. The obtained value is of %s type", objectValue.getClass()));
+    public Range convertRange(Range range) {
+        if (range != null) {
+            if (range.isPercentage()) {
+                return convertRangeFromPercentageToPixels(range);
             }
         }
+        return range;
     }
 
-    private Object getObjectValue(Object object, String fieldPath) {
-        int index = fieldPath.indexOf("/");
-        if (index > 0 && index < fieldPath.length() - 1) {
-            
-            String fieldName = fieldPath.substring(0, index);
-            String leftOverPath = fieldPath.substring(index + 1);
-            if (leftOverPath.isEmpty()) {
-                throw new SyntaxException(UNKNOWN_LINE, format("Cannot read path %s", fieldPath));
-            }
-            
-            Object field = getField(object, fieldName);
-            if (field == null) {
-                throw new NullPointerException(format("\"%s\" returned null", fieldName));
-            }
-            return getObjectValue(field, leftOverPath);
-        }
-        else {
-            return getField(object, fieldPath);
+    /**
+     * Should be invoked whenever the page state is changed so that specs are checked again
+     */
+    public void invalidateSpecResults() {
+        percentageBases.clear();
+        if (specResults != null) {
+            specResults.invalidate();
         }
     }
 
-    private Object getField(Object object, String fieldName) {
-        try {
-            Method getterMethod = object.getClass().getMethod(getterForField(fieldName));
-            return getterMethod.invoke(object);
-        } catch (Exception e) {
-            throw new SyntaxException(UNKNOWN_LINE, format("Cannot read field: \"%s\"", fieldName));
-        }
+    public SpecResultMemo getSpecResults() {
+        return specResults;
     }
 
-    private String getterForField(String fieldName) {
-        return "get" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
+    /**
+     * Allows to share remembered spec results between validations of the same page state
+     * @param specResults - memo for spec results or null in order to check all specs every time
+     */
+    public void setSpecResults(SpecResultMemo specResults) {
+        this.specResults = specResults;
     }
 
-    public Range convertRange(Range range) {
-        if (range != null) {
-            if (range.isPercentage()) {
-                return convertRangeFromPercentageToPixels(range);
-            }
+    private static SpecResultMemo createSpecResultMemo() {
+        if (GalenConfig.getConfig().getBooleanProperty(GalenConfig.VALIDATION_MEMO, true)) {
+            return new SpecResultMemo();
         }
-        return range;
+        return null;
     }
 
     public ValidationListener getValidationListener() {
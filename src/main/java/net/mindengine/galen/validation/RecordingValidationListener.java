@@ -0,0 +1,153 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.validation;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import net.mindengine.galen.runner.GalenPageRunner;
+import net.mindengine.galen.specs.Spec;
+import net.mindengine.galen.specs.page.PageSection;
+import net.mindengine.galen.suite.GalenPageAction;
+
+/**
+ * Keeps all validation events so that they could be passed to the real listener later on.
+ * Used for validating objects in parallel while still reporting them in the same order as they are defined in specs
+ */
+class RecordingValidationListener implements ValidationListener {
+
+    private interface Event {
+        void replay(ValidationListener listener, PageValidation recorded, PageValidation original);
+    }
+
+    private final List<Event> events = new LinkedList<Event>();
+
+    /**
+     * Passes all recorded events to the specified listener
+     * @param recorded - page validation which was used while recording events
+     * @param original - page validation which should be passed to listener instead of the recorded one
+     */
+    public void replay(ValidationListener listener, PageValidation recorded, PageValidation original) {
+        if (listener != null) {
+            for (Event event : events) {
+                try {
+                    event.replay(listener, recorded, original);
+                }
+                catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private static PageValidation pick(PageValidation pageValidation, PageValidation recorded, PageValidation original) {
+        if (pageValidation == recorded) {
+            return original;
+        }
+        return pageValidation;
+    }
+
+    @Override
+    public void onObject(final GalenPageRunner pageRunner, final PageValidation pageValidation, final String objectName) {
+        events.add(new Event() {
+            @Override
+            public void replay(ValidationListener listener, PageValidation recorded, PageValidation original) {
+                listener.onObject(pageRunner, pick(pageValidation, recorded, original), objectName);
+            }
+        });
+    }
+
+    @Override
+    public void onAfterObject(final GalenPageRunner pageRunner, final PageValidation pageValidation, final String objectName) {
+        events.add(new Event() {
+            @Override
+            public void replay(ValidationListener listener, PageValidation recorded, PageValidation original) {
+                listener.onAfterObject(pageRunner, pick(pageValidation, recorded, original), objectName);
+            }
+        });
+    }
+
+    @Override
+    public void onSpecError(final GalenPageRunner pageRunner, final PageValidation pageValidation, final String objectName, final Spec spec, final ValidationError error) {
+        events.add(new Event() {
+            @Override
+            public void replay(ValidationListener listener, PageValidation recorded, PageValidation original) {
+                listener.onSpecError(pageRunner, pick(pageValidation, recorded, original), objectName, spec, error);
+            }
+        });
+    }
+
+    @Override
+    public void onSpecSuccess(final GalenPageRunner pageRunner, final PageValidation pageValidation, final String objectName, final Spec spec) {
+        events.add(new Event() {
+            @Override
+            public void replay(ValidationListener listener, PageValidation recorded, PageValidation original) {
+                listener.onSpecSuccess(pageRunner, pick(pageValidation, recorded, original), objectName, spec);
+            }
+        });
+    }
+
+    @Override
+    public void onGlobalError(final GalenPageRunner pageRunner, final Exception e) {
+        events.add(new Event() {
+            @Override
+            public void replay(ValidationListener listener, PageValidation recorded, PageValidation original) {
+                listener.onGlobalError(pageRunner, e);
+            }
+        });
+    }
+
+    @Override
+    public void onBeforePageAction(final GalenPageRunner pageRunner, final GalenPageAction action) {
+        events.add(new Event() {
+            @Override
+            public void replay(ValidationListener listener, PageValidation recorded, PageValidation original) {
+                listener.onBeforePageAction(pageRunner, action);
+            }
+        });
+    }
+
+    @Override
+    public void onAfterPageAction(final GalenPageRunner pageRunner, final GalenPageAction action) {
+        events.add(new Event() {
+            @Override
+            public void replay(ValidationListener listener, PageValidation recorded, PageValidation original) {
+                listener.onAfterPageAction(pageRunner, action);
+            }
+        });
+    }
+
+    @Override
+    public void onBeforeSection(final GalenPageRunner pageRunner, final PageValidation pageValidation, final PageSection pageSection) {
+        events.add(new Event() {
+            @Override
+            public void replay(ValidationListener listener, PageValidation recorded, PageValidation original) {
+                listener.onBeforeSection(pageRunner, pick(pageValidation, recorded, original), pageSection);
+            }
+        });
+    }
+
+    @Override
+    public void onAfterSection(final GalenPageRunner pageRunner, final PageValidation pageValidation, final PageSection pageSection) {
+        events.add(new Event() {
+            @Override
+            public void replay(ValidationListener listener, PageValidation recorded, PageValidation original) {
+                listener.onAfterSection(pageRunner, pick(pageValidation, recorded, original), pageSection);
+            }
+        });
+    }
+
+}
@@ -17,14 +17,23 @@ package net.mindengine.galen.validation;
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.runner.GalenPageRunner;
 import net.mindengine.galen.specs.Spec;
 import net.mindengine.galen.specs.page.ConditionalBlock;
 import net.mindengine.galen.specs.page.ConditionalBlockStatement;
+import net.mindengine.galen.specs.page.Locator;
 import net.mindengine.galen.specs.page.ObjectSpecs;
 import net.mindengine.galen.specs.page.PageSection;
+import net.mindengine.galen.specs.reader.page.PageSpec;
 
 public class SectionValidation {
 
@@ -32,6 +41,14 @@ public class SectionValidation {
     private static final List<ValidationError> EMPTY_ERRORS = new LinkedList<ValidationError>();
     private static final boolean SHOULD_REPORT = true;
     private static final boolean SHOULD_NOT_REPORT = false;
+
+    private static ExecutorService validationPool;
+
+    /**
+     * Marks validation threads so that nested validations (e.g. component specs) are not split into tasks again
+     */
+    private static final ThreadLocal<Boolean> insideValidationTask = new ThreadLocal<Boolean>();
+
     private List<PageSection> pageSections;
     private PageValidation pageValidation;
     private ValidationListener validationListener;
@@ -43,10 +60,16 @@ public class SectionValidation {
     }
 
     public List<ValidationError> check() {
-        
+
+        prefetchAllObjects();
+
         //Fetching all multi objects from page before validation
         pageValidation.getPageSpec().updateMultiObjects(pageValidation.getPage());
         
+        if (isParallel()) {
+            return checkSectionsInParallel();
+        }
+
         List<ValidationError> errors = new LinkedList<ValidationError>();
         
         for (PageSection section : pageSections) {
@@ -55,6 +78,172 @@ public class SectionValidation {
         return errors;
     }
 
+    private boolean isParallel() {
+        return GalenConfig.getConfig().getBooleanProperty(GalenConfig.VALIDATION_PARALLEL, false)
+                && insideValidationTask.get() == null
+                && pageValidation.getPage().isThreadSafe();
+    }
+
+    /**
+     * Checks every object and conditional block as a separate task. Listener events of each task are recorded
+     * and replayed in the same order as objects are defined in sections, so reports look the same as for sequential check
+     */
+    private List<ValidationError> checkSectionsInParallel() {
+        ExecutorService pool = getValidationPool();
+
+        List<List<Future<TaskResult>>> sectionTasks = new LinkedList<List<Future<TaskResult>>>();
+        for (PageSection section : pageSections) {
+            List<Future<TaskResult>> tasks = new LinkedList<Future<TaskResult>>();
+            for (ObjectSpecs object : section.getObjects()) {
+                for (String objectName : findAllObjectNames(object.getObjectName())) {
+                    tasks.add(pool.submit(new ObjectTask(objectName, object.getSpecs())));
+                }
+            }
+
+            List<ConditionalBlock> conditionalBlocks = section.getConditionalBlocks();
+            if (conditionalBlocks != null) {
+                for (ConditionalBlock block : conditionalBlocks) {
+                    tasks.add(pool.submit(new ConditionalBlockTask(block)));
+                }
+            }
+            sectionTasks.add(tasks);
+        }
+
+        List<ValidationError> errors = new LinkedList<ValidationError>();
+        int sectionIndex = 0;
+        for (List<Future<TaskResult>> tasks : sectionTasks) {
+            PageSection section = pageSections.get(sectionIndex++);
+            tellBeforeSection(section);
+
+            for (Future<TaskResult> task : tasks) {
+                TaskResult result = waitForTask(task);
+                result.listener.replay(validationListener, result.pageValidation, pageValidation);
+                if (result.failure != null) {
+                    rethrow(result.failure);
+                }
+                errors.addAll(result.errors);
+            }
+
+            tellAfterSection(section);
+        }
+        return errors;
+    }
+
+    private TaskResult waitForTask(Future<TaskResult> task) {
+        try {
+            return task.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for validation", e);
+        }
+        catch (ExecutionException e) {
+            rethrow(e.getCause());
+            return null;
+        }
+    }
+
+    private void rethrow(Throwable failure) {
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        else if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        else throw new RuntimeException(failure);
+    }
+
+    private static class TaskResult {
+        private final RecordingValidationListener listener;
+        private final PageValidation pageValidation;
+        private List<ValidationError> errors = EMPTY_ERRORS;
+        private Throwable failure;
+
+        private TaskResult(RecordingValidationListener listener, PageValidation pageValidation) {
+            this.listener = listener;
+            this.pageValidation = pageValidation;
+        }
+    }
+
+    private abstract class ValidationTask implements Callable<TaskResult> {
+
+        @Override
+        public TaskResult call() {
+            RecordingValidationListener recorder = new RecordingValidationListener();
+            PageValidation taskPageValidation = new PageValidation(pageValidation.getBrowser(), pageValidation.getPage(),
+                    pageValidation.getPageSpec(), recorder, pageValidation.getSectionFilter());
+            taskPageValidation.setSpecResults(pageValidation.getSpecResults());
+            SectionValidation taskValidation = new SectionValidation(pageSections, taskPageValidation, recorder);
+
+            TaskResult result = new TaskResult(recorder, taskPageValidation);
+            insideValidationTask.set(Boolean.TRUE);
+            try {
+                result.errors = check(taskValidation);
+            }
+            catch (Throwable failure) {
+                result.failure = failure;
+            }
+            finally {
+                insideValidationTask.remove();
+            }
+            return result;
+        }
+
+        protected abstract List<ValidationError> check(SectionValidation taskValidation);
+    }
+
+    private class ObjectTask extends ValidationTask {
+        private final String objectName;
+        private final List<Spec> specs;
+
+        private ObjectTask(String objectName, List<Spec> specs) {
+            this.objectName = objectName;
+            this.specs = specs;
+        }
+
+        @Override
+        protected List<ValidationError> check(SectionValidation taskValidation) {
+            return taskValidation.checkObject(objectName, specs);
+        }
+    }
+
+    private class ConditionalBlockTask extends ValidationTask {
+        private final ConditionalBlock block;
+
+        private ConditionalBlockTask(ConditionalBlock block) {
+            this.block = block;
+        }
+
+        @Override
+        protected List<ValidationError> check(SectionValidation taskValidation) {
+            return taskValidation.checkConditionalBlock(block);
+        }
+    }
+
+    private static synchronized ExecutorService getValidationPool() {
+        if (validationPool == null) {
+            int threads = GalenConfig.getConfig().getIntProperty(GalenConfig.VALIDATION_THREADS, Runtime.getRuntime().availableProcessors());
+            validationPool = Executors.newFixedThreadPool(Math.max(threads, 1), new ThreadFactory() {
+                private final AtomicInteger counter = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "galen-validation-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return validationPool;
+    }
+
+    private void prefetchAllObjects() {
+        PageSpec pageSpec = pageValidation.getPageSpec();
+        List<Locator> locators = new LinkedList<Locator>(pageSpec.getObjects().values());
+        locators.addAll(pageSpec.getMultiObjects().values());
+        pageValidation.getPage().prefetchObjects(locators);
+    }
+
     private List<ValidationError> checkSection(PageSection section) {
         tellBeforeSection(section);
         List<ValidationError> errors = new LinkedList<ValidationError>();
@@ -89,19 +278,23 @@ public class SectionValidation {
             List<String> allObjectNames = findAllObjectNames(object.getObjectName());
             for (String objectName : allObjectNames) {
                 if (shouldReport) {
-                    tellOnObject(objectName);
+                    errors.addAll(checkObject(objectName, object.getSpecs()));
                 }
-                
-                errors.addAll(checkObject(objectName, object.getSpecs(), shouldReport));
-                
-                if (shouldReport) {
-                    tellOnAfterObject(objectName);
+                else {
+                    errors.addAll(checkObject(objectName, object.getSpecs(), SHOULD_NOT_REPORT));
                 }
             }
         }
         return errors;
     }
 
+    private List<ValidationError> checkObject(String objectName, List<Spec> specs) {
+        tellOnObject(objectName);
+        List<ValidationError> errors = checkObject(objectName, specs, SHOULD_REPORT);
+        tellOnAfterObject(objectName);
+        return errors;
+    }
+
     private List<ValidationError> checkConditionalBlock(ConditionalBlock block) {
         if (oneOfConditionsApplies(block.getStatements())) {
             return checkObjects(block.getBodyObjects());
@@ -157,17 +350,7 @@ public class SectionValidation {
     }
 
     private List<String> fetchUsingRegex(String simpleRegex) {
-        String regex = simpleRegex.replace("*", "[a-zA-Z0-9_]+");
-        Pattern pattern = Pattern.compile(regex);
-        
-        List<String> objectNames = new LinkedList<String>();
-        for (String objectName : pageValidation.getPageSpec().getObjects().keySet()) {
-            if (pattern.matcher(objectName).matches()) {
-                objectNames.add(objectName);
-            }
-        }
-        
-        return objectNames;
+        return pageValidation.getPageSpec().findMatchingObjectNames(simpleRegex);
     }
 
     private boolean isRegularExpression(String name) {
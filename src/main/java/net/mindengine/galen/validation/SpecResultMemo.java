@@ -0,0 +1,154 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.validation;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.mindengine.galen.specs.Spec;
+import net.mindengine.galen.specs.SpecComponent;
+import net.mindengine.galen.specs.SpecImage;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+/**
+ * Remembers results of checked specs so that the same spec is not validated twice on the same page state
+ * (e.g. when it is used in "@@ if" statement and then again in "@@ do" block).
+ * Specs are matched by their text, so specs from different lines are treated the same way if their text is the same.
+ * Component specs are never remembered as their child objects are reported with listener events
+ * which have to be fired every time the component is checked.
+ * Results should be invalidated whenever the page is changed
+ */
+public class SpecResultMemo {
+
+    private static final AtomicLong totalHits = new AtomicLong();
+
+    private final ConcurrentMap<Key, Result> results = new ConcurrentHashMap<Key, Result>();
+    private final AtomicLong hits = new AtomicLong();
+
+    public static class Result {
+        private final ValidationError error;
+
+        private Result(ValidationError error) {
+            this.error = error;
+        }
+
+        /**
+         * @return validation error or null in case the spec passed
+         */
+        public ValidationError getError() {
+            return error;
+        }
+    }
+
+    /**
+     * @return remembered result or null if spec was not checked yet for this object
+     */
+    public Result find(String objectName, Spec spec) {
+        if (!canRemember(spec)) {
+            return null;
+        }
+        Result result = results.get(new Key(objectName, spec));
+        if (result != null) {
+            hits.incrementAndGet();
+            totalHits.incrementAndGet();
+        }
+        return result;
+    }
+
+    public void remember(String objectName, Spec spec, ValidationError error) {
+        if (canRemember(spec)) {
+            results.put(new Key(objectName, spec), new Result(error));
+        }
+    }
+
+    private static boolean canRemember(Spec spec) {
+        return !(spec instanceof SpecComponent);
+    }
+
+    public void invalidate() {
+        results.clear();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return amount of hits for all memos since the start of the program
+     */
+    public static long getTotalHits() {
+        return totalHits.get();
+    }
+
+    private static class Key {
+        private final String objectName;
+        private final Spec spec;
+        private final int hashCode;
+
+        private Key(String objectName, Spec spec) {
+            this.objectName = objectName;
+            this.spec = spec;
+            this.hashCode = new HashCodeBuilder(17, 31)
+                    .append(objectName)
+                    .append(spec.getClass())
+                    .append(spec.getOriginalText() != null ? spec.getOriginalText() : System.identityHashCode(spec))
+                    .append(spec.isOnlyWarn())
+                    .toHashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key rhs = (Key) obj;
+            if (hashCode != rhs.hashCode || !objectName.equals(rhs.objectName)) {
+                return false;
+            }
+            return sameSpecs(spec, rhs.spec);
+        }
+
+        private static boolean sameSpecs(Spec specA, Spec specB) {
+            if (specA == specB) {
+                return true;
+            }
+            if (specA.getOriginalText() == null || specA.getClass() != specB.getClass()) {
+                return false;
+            }
+
+            EqualsBuilder equals = new EqualsBuilder()
+                    .append(specA.getOriginalText(), specB.getOriginalText())
+                    .append(specA.isOnlyWarn(), specB.isOnlyWarn());
+
+            // image specs refer to files relative to the spec in which they were defined
+            if (specA instanceof SpecImage) {
+                equals.append(((SpecImage) specA).getImagePaths(), ((SpecImage) specB).getImagePaths());
+            }
+            return equals.isEquals();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.validation.specs;
+
+import net.mindengine.rainbow4j.ImageHandler;
+
+import java.awt.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts mismatching pixels between two image areas the same way as Rainbow4J.compare does
+ * but without building the comparison map. The counting is done row by row and stops as soon as
+ * the amount of mismatching pixels exceeds the given budget, so that a sample image which
+ * can no longer win does not have to be compared completely.
+ * Map filters can't be used here as they change the amount of mismatching pixels after the whole map is built.
+ */
+public class ImageMismatchCounter {
+
+    public static final long BUDGET_EXCEEDED = -1;
+
+    private static final int BLOCK_SIZE = 3;
+
+    private final ImageHandler handlerA;
+    private final ImageHandler handlerB;
+    private final Rectangle areaA;
+    private final Rectangle areaB;
+    private final int tolerance;
+    private final boolean stretch;
+
+    public ImageMismatchCounter(ImageHandler handlerA, Rectangle areaA, ImageHandler handlerB, Rectangle areaB, int tolerance, boolean stretch) {
+        if (areaA.width + areaA.x > handlerA.getWidth() || areaA.height + areaA.y > handlerA.getHeight()) {
+            throw new RuntimeException("Specified area is outside for original image");
+        }
+        if (areaB.width + areaB.x > handlerB.getWidth() || areaB.height + areaB.y > handlerB.getHeight()) {
+            throw new RuntimeException("Specified area is outside for secondary image");
+        }
+
+        this.handlerA = handlerA;
+        this.handlerB = handlerB;
+        this.areaA = areaA;
+        this.areaB = areaB;
+        this.tolerance = Math.max(0, tolerance);
+        this.stretch = stretch;
+    }
+
+    /**
+     * @param budget max amount of mismatching pixels which is still of interest
+     * @return amount of mismatching pixels or {@link #BUDGET_EXCEEDED} if it is bigger than the budget
+     */
+    public long count(long budget) {
+        return count(new AtomicLong(budget));
+    }
+
+    /**
+     * @param budget max amount of mismatching pixels which is still of interest. It is checked after each row
+     *               so it may be lowered by other threads while counting
+     * @return amount of mismatching pixels or {@link #BUDGET_EXCEEDED} if it is bigger than the budget
+     */
+    public long count(AtomicLong budget) {
+        byte[] bytesA = handlerA.getBytes();
+        byte[] bytesB = handlerB.getBytes();
+        int widthA = handlerA.getWidth();
+        int heightA = handlerA.getHeight();
+        int widthB = handlerB.getWidth();
+        int heightB = handlerB.getHeight();
+
+        int Wa = areaA.width;
+        int Ha = areaA.height;
+        int Wb = areaB.width;
+        int Hb = areaB.height;
+        double Kx = (double) Wb / (double) Wa;
+        double Ky = (double) Hb / (double) Ha;
+
+        long total = 0;
+        for (int y = 0; y < Ha; y++) {
+            int yA = y + areaA.y;
+            int yB;
+            if (stretch) {
+                yB = Math.min((int) Math.round(y * Ky + areaB.y), areaB.y + Hb - 1);
+            } else {
+                yB = y + areaB.y;
+            }
+
+            // Rainbow4J does not take the very last pixel of the comparison map into account
+            int rowWidth = y == Ha - 1 ? Wa - 1 : Wa;
+
+            for (int x = 0; x < rowWidth; x++) {
+                int xA = x + areaA.x;
+                int xB;
+                if (stretch) {
+                    xB = Math.min((int) Math.round(x * Kx + areaB.x), areaB.x + Wb - 1);
+                } else {
+                    xB = x + areaB.x;
+                }
+
+                int kA = offset(xA, yA, widthA, heightA);
+                int kB = offset(xB, yB, widthB, heightB);
+
+                // the third channel is not compared, the same as in ImageHandler.colorDiff
+                int diff = Math.abs(channel(bytesA, kA, 0) - channel(bytesB, kB, 0))
+                        + Math.abs(channel(bytesA, kA, 1) - channel(bytesB, kB, 1));
+
+                if (diff > tolerance) {
+                    total++;
+                }
+            }
+
+            if (total > budget.get()) {
+                return BUDGET_EXCEEDED;
+            }
+        }
+        return total;
+    }
+
+    private static int offset(int x, int y, int width, int height) {
+        if (x < width && y < height && x >= 0 && y >= 0) {
+            return y * width * BLOCK_SIZE + x * BLOCK_SIZE;
+        }
+        return -1;
+    }
+
+    private static int channel(byte[] bytes, int offset, int channel) {
+        if (offset < 0) {
+            return 0;
+        }
+        return bytes[offset + channel] & 0xFF;
+    }
+}
@@ -16,7 +16,6 @@
 package net.mindengine.galen.validation.specs;
 
 import java.awt.Color;
-import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.util.LinkedList;
 import java.util.List;
@@ -26,17 +25,17 @@ import net.mindengine.galen.page.PageElement;
 import net.mindengine.galen.page.Rect;
 import net.mindengine.galen.specs.SpecColorScheme;
 import net.mindengine.galen.specs.colors.ColorRange;
+import net.mindengine.galen.utils.SpectrumCache;
 import net.mindengine.galen.validation.ErrorArea;
 import net.mindengine.galen.validation.PageValidation;
 import net.mindengine.galen.validation.SpecValidation;
 import net.mindengine.galen.validation.ValidationErrorException;
-import net.mindengine.rainbow4j.Rainbow4J;
-import net.mindengine.rainbow4j.Spectrum;
 
 public class SpecValidationColorScheme extends SpecValidation<SpecColorScheme> {
     
     private static final int PRECISION = GalenConfig.getConfig().getIntProperty("spec.colorscheme.precision", 256, 8, 256);
     private static final int TEST_RANGE = GalenConfig.getConfig().getIntProperty("spec.colorscheme.testrange", 6, 0, 256);
+    private static final String INTEGRAL_HISTOGRAM = "spec.colorscheme.integralHistogram";
 
     @Override
     public void check(PageValidation pageValidation, String objectName, SpecColorScheme spec) throws ValidationErrorException {
@@ -57,18 +56,19 @@ public class SpecValidationColorScheme extends SpecValidation<SpecColorScheme> {
         
         
         
-        Spectrum spectrum;
-        try {
-            spectrum = Rainbow4J.readSpectrum(pageImage, new Rectangle(area.getLeft(), area.getTop(), area.getWidth(), area.getHeight()), PRECISION);
-        } catch (Exception e) {
-            throw new ValidationErrorException(String.format("Couldn't fetch spectrum for \"%s\"", objectName));
-        }
-        
+        SpectrumCache spectrumCache = SpectrumCache.forScreenshot(pageImage);
+        boolean integralHistogram = GalenConfig.getConfig().getBooleanProperty(INTEGRAL_HISTOGRAM, false);
+
         List<String> messages = new LinkedList<String>();
         
         for (ColorRange colorRange : spec.getColorRanges()) {
             Color color = colorRange.getColor();
-            int percentage = (int)spectrum.getPercentage(color.getRed(), color.getGreen(), color.getBlue(), TEST_RANGE);
+            int percentage;
+            try {
+                percentage = (int)spectrumCache.getPercentage(area, PRECISION, color, TEST_RANGE, integralHistogram);
+            } catch (Exception e) {
+                throw new ValidationErrorException(String.format("Couldn't fetch spectrum for \"%s\"", objectName));
+            }
             
             if (!colorRange.getRange().holds(percentage)) {
                 messages.add(String.format("color %s on \"%s\" is %d%% %s", toHexColor(color), objectName, (int)percentage, colorRange.getRange().getErrorMessageSuffix("%")));
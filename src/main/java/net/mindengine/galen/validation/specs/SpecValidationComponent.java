@@ -26,6 +26,7 @@ import net.mindengine.galen.parser.SyntaxException;
 import net.mindengine.galen.specs.SpecComponent;
 import net.mindengine.galen.specs.page.Locator;
 import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.specs.reader.page.PageSpecCache;
 import net.mindengine.galen.specs.reader.page.PageSpecReader;
 import net.mindengine.galen.validation.PageValidation;
 import net.mindengine.galen.validation.SectionValidation;
@@ -46,11 +47,14 @@ public class SpecValidationComponent extends SpecValidation<SpecComponent> {
         
         ValidationListener validationListener = pageValidation.getValidationListener();
 
-        PageSpecReader pageSpecReader = new PageSpecReader(spec.getProperties(), objectContextPage);
-
         PageSpec componentPageSpec;
         try {
-            componentPageSpec = pageSpecReader.read(spec.getSpecPath());
+            if (PageSpecCache.isEnabled()) {
+                componentPageSpec = PageSpecCache.getInstance().read(spec.getSpecPath(), spec.getProperties(), objectContextPage);
+            }
+            else {
+                componentPageSpec = new PageSpecReader(spec.getProperties(), objectContextPage).read(spec.getSpecPath());
+            }
         } catch (IOException e) {
             throw new RuntimeException(e.getMessage(), e);
         }
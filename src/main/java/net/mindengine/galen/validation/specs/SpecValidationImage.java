@@ -15,36 +15,154 @@
 ******************************************************************************/
 package net.mindengine.galen.validation.specs;
 
+import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.page.PageElement;
 import net.mindengine.galen.page.Rect;
 import net.mindengine.galen.specs.SpecImage;
-import net.mindengine.galen.utils.GalenUtils;
+import net.mindengine.galen.utils.ImageCache;
 import net.mindengine.galen.validation.*;
 import net.mindengine.rainbow4j.ComparisonOptions;
 import net.mindengine.rainbow4j.ImageCompareResult;
+import net.mindengine.rainbow4j.ImageHandler;
 import net.mindengine.rainbow4j.Rainbow4J;
+import net.mindengine.rainbow4j.filters.ImageFilter;
 
 import javax.xml.bind.ValidationException;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.InputStream;
-import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class SpecValidationImage extends SpecValidation<SpecImage> {
 
+    private static ExecutorService comparisonPool;
+
     private static class ImageCheck {
 
         private final String imagePath;
         private final double difference;
+        private final long mismatchingPixels;
         private final ImageCompareResult result;
         private final String errorMessage;
+        private final BufferedImage sampleImage;
+        private final Rectangle area;
+        private final Rectangle sampleArea;
 
-        public ImageCheck(String imagePath, double difference, ImageCompareResult result, String errorMessage) {
+        public ImageCheck(String imagePath, double difference, long mismatchingPixels, ImageCompareResult result, String errorMessage,
+                          BufferedImage sampleImage, Rectangle area, Rectangle sampleArea) {
             this.imagePath = imagePath;
             this.difference = difference;
+            this.mismatchingPixels = mismatchingPixels;
             this.result = result;
             this.errorMessage = errorMessage;
+            this.sampleImage = sampleImage;
+            this.area = area;
+            this.sampleArea = sampleArea;
+        }
+    }
+
+    /**
+     * State shared between comparisons of all sample images of a single spec.
+     * Comparisons may run concurrently but the outcome is always the same as if
+     * the sample images were compared one after another in the order they are defined.
+     */
+    private class SampleComparison {
+
+        private final SpecImage spec;
+        private final BufferedImage pageImage;
+        private final ComparisonOptions options;
+        private final Rect elementArea;
+
+        /**
+         * Map filters change the amount of mismatching pixels only once the whole map is built
+         * so in that case every sample image has to be compared completely
+         */
+        private final boolean earlyExit;
+
+        /**
+         * Amount of mismatching pixels of the best failed sample image so far. Set to -1 once a matching sample image is found
+         */
+        private final AtomicLong budget = new AtomicLong(Long.MAX_VALUE);
+
+        /**
+         * Sample images defined after this index are not compared anymore
+         */
+        private final AtomicInteger stopIndex = new AtomicInteger(Integer.MAX_VALUE);
+
+        private ImageHandler pageHandler;
+
+        private SampleComparison(SpecImage spec, BufferedImage pageImage, ComparisonOptions options, Rect elementArea) {
+            this.spec = spec;
+            this.pageImage = pageImage;
+            this.options = options;
+            this.elementArea = elementArea;
+            this.earlyExit = options.getMapFilters() == null || options.getMapFilters().isEmpty();
+        }
+
+        public ImageCheck compare(int index, String imagePath) throws ValidationErrorException {
+            if (index > stopIndex.get()) {
+                return null;
+            }
+
+            BufferedImage sampleImage = loadSampleImage(spec, imagePath);
+            Rect area = checkElementArea(spec, elementArea, pageImage);
+
+            ImageCheck imageCheck;
+            if (earlyExit) {
+                imageCheck = countMismatchingPixels(spec, getPageHandler(area), options, area, imagePath, sampleImage, budget);
+            }
+            else {
+                imageCheck = checkImages(spec, pageImage, options, area, imagePath, sampleImage);
+            }
+
+            if (imageCheck != null) {
+                if (imageCheck.difference <= 0) {
+                    stopAfter(index);
+                }
+                else {
+                    lowerBudget(imageCheck.mismatchingPixels);
+                }
+            }
+            return imageCheck;
+        }
+
+        public void stopAfter(int index) {
+            int current = stopIndex.get();
+            while (index < current && !stopIndex.compareAndSet(current, index)) {
+                current = stopIndex.get();
+            }
+            budget.set(-1);
+        }
+
+        private void lowerBudget(long mismatchingPixels) {
+            long current = budget.get();
+            while (mismatchingPixels < current && !budget.compareAndSet(current, mismatchingPixels)) {
+                current = budget.get();
+            }
+        }
+
+        /**
+         * Original filters are applied only once as the same page area is compared with every sample image
+         */
+        private synchronized ImageHandler getPageHandler(Rect elementArea) {
+            if (pageHandler == null) {
+                Rectangle area = toRectangle(elementArea);
+                if (area.width + area.x > pageImage.getWidth() || area.height + area.y > pageImage.getHeight()) {
+                    throw new RuntimeException("Specified area is outside for original image");
+                }
+                ImageHandler handler = new ImageHandler(pageImage);
+                applyFilters(handler, options.getOriginalFilters(), area);
+                pageHandler = handler;
+            }
+            return pageHandler;
         }
     }
 
@@ -66,27 +184,43 @@ public class SpecValidationImage extends SpecValidation<SpecImage> {
         options.setMapFilters(spec.getMapFilters());
         options.setTolerance(tolerance);
 
+        if (spec.getMaxPercentage() == null && spec.getMaxPixels() == null) {
+            spec.setMaxPixels(0);
+        }
 
         Rect elementArea = pageElement.getArea();
 
-        ImageCheck minCheck = new ImageCheck(spec.getImagePaths().get(0), elementArea.getHeight() * elementArea.getWidth() * 2, null, null);
-
-        Iterator<String> it = spec.getImagePaths().iterator();
+        ImageCheck minCheck = new ImageCheck(spec.getImagePaths().get(0), elementArea.getHeight() * elementArea.getWidth() * 2, Long.MAX_VALUE, null, null, null, null, null);
 
-        if (!it.hasNext()) {
+        if (spec.getImagePaths().isEmpty()) {
             throw new ValidationErrorException("There are now images defined to compare with")
                     .withErrorArea(new ErrorArea(pageElement.getArea(), objectName));
         }
 
         try {
-            while (minCheck.difference > 0 && it.hasNext()) {
-                String imagePath = it.next();
+            SampleComparison comparison = new SampleComparison(spec, pageImage, options, elementArea);
 
-                ImageCheck imageCheck = checkImages(spec, pageImage, options, elementArea, imagePath);
-                if (imageCheck.difference <= minCheck.difference) {
+            List<ImageCheck> imageChecks;
+            int threads = GalenConfig.getConfig().getIntProperty(GalenConfig.IMAGES_COMPARISON_THREADS, Runtime.getRuntime().availableProcessors());
+            if (threads > 1 && spec.getImagePaths().size() > 1) {
+                imageChecks = compareInParallel(comparison, spec.getImagePaths(), threads);
+            }
+            else {
+                imageChecks = compareSequentially(comparison, spec.getImagePaths());
+            }
+
+            for (ImageCheck imageCheck : imageChecks) {
+                if (imageCheck != null && imageCheck.difference <= minCheck.difference) {
                     minCheck = imageCheck;
                 }
             }
+
+            if (minCheck.difference > 0 && minCheck.result == null) {
+                // the comparison map is only built for the sample image which is reported
+                ImageCompareResult result = Rainbow4J.compare(pageImage, minCheck.sampleImage, minCheck.area, minCheck.sampleArea, options);
+                minCheck = new ImageCheck(minCheck.imagePath, minCheck.difference, minCheck.mismatchingPixels, result, minCheck.errorMessage,
+                        minCheck.sampleImage, minCheck.area, minCheck.sampleArea);
+            }
         }
         catch (ValidationErrorException ex) {
             ex.withErrorArea(new ErrorArea(pageElement.getArea(), objectName));
@@ -103,49 +237,172 @@ public class SpecValidationImage extends SpecValidation<SpecImage> {
         }
     }
 
-    private ImageCheck checkImages(SpecImage spec, BufferedImage pageImage, ComparisonOptions options, Rect elementArea, String imagePath) throws ValidationErrorException {
-        BufferedImage sampleImage;
-        try {
-            InputStream stream = GalenUtils.findFileOrResourceAsStream(imagePath);
-            sampleImage = Rainbow4J.loadImage(stream);
-        } catch (Throwable e) {
-            throw new ValidationErrorException("Couldn't load image: " + spec.getImagePaths().get(0));
+    private List<ImageCheck> compareSequentially(SampleComparison comparison, List<String> imagePaths) throws ValidationErrorException {
+        List<ImageCheck> imageChecks = new LinkedList<ImageCheck>();
+        int index = 0;
+        for (String imagePath : imagePaths) {
+            ImageCheck imageCheck = comparison.compare(index, imagePath);
+            imageChecks.add(imageCheck);
+
+            if (imageCheck != null && imageCheck.difference <= 0) {
+                break;
+            }
+            index++;
         }
+        return imageChecks;
+    }
 
-        Rectangle sampleArea = spec.getSelectedArea() != null ? toRectangle(spec.getSelectedArea()) : new Rectangle(0, 0, sampleImage.getWidth(), sampleImage.getHeight());
+    /**
+     * Compares all sample images concurrently. The results are collected in the order in which the images are defined
+     * so that errors are reported exactly as in sequential comparison. A matching sample image stops the comparison of all others.
+     */
+    private List<ImageCheck> compareInParallel(final SampleComparison comparison, List<String> imagePaths, int threads) throws Exception {
+        ExecutorService pool = getComparisonPool(threads);
+
+        List<Future<ImageCheck>> futures = new LinkedList<Future<ImageCheck>>();
+        int index = 0;
+        for (final String imagePath : imagePaths) {
+            final int imageIndex = index++;
+            futures.add(pool.submit(new Callable<ImageCheck>() {
+                @Override
+                public ImageCheck call() throws Exception {
+                    return comparison.compare(imageIndex, imagePath);
+                }
+            }));
+        }
 
+        List<ImageCheck> imageChecks = new LinkedList<ImageCheck>();
+        index = 0;
+        for (Future<ImageCheck> future : futures) {
+            ImageCheck imageCheck;
+            try {
+                imageCheck = future.get();
+            }
+            catch (ExecutionException ex) {
+                comparison.stopAfter(index);
+                Throwable cause = ex.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                else throw ex;
+            }
+            catch (InterruptedException ex) {
+                comparison.stopAfter(-1);
+                Thread.currentThread().interrupt();
+                throw ex;
+            }
+            imageChecks.add(imageCheck);
 
-        if (elementArea.getLeft() >= pageImage.getWidth() || elementArea.getTop() >= pageImage.getHeight()) {
-            throw new RuntimeException(String.format("The page element is located outside of the screenshot. (Element {x: %d, y: %d, w: %d, h: %d}, Screenshot {w: %d, h: %d})",
-                    elementArea.getLeft(), elementArea.getTop(), elementArea.getWidth(), elementArea.getHeight(),
-                    pageImage.getWidth(), pageImage.getHeight()));
+            if (imageCheck != null && imageCheck.difference <= 0) {
+                break;
+            }
+            index++;
         }
+        return imageChecks;
+    }
 
-        if (spec.isCropIfOutside()) {
-            elementArea = cropElementAreaIfOutside(elementArea, pageImage.getWidth(), pageImage.getHeight());
+    private static synchronized ExecutorService getComparisonPool(int threads) {
+        if (comparisonPool == null) {
+            comparisonPool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                private final AtomicInteger counter = new AtomicInteger(0);
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "galen-image-comparison-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return comparisonPool;
+    }
+
+    /**
+     * Counts mismatching pixels without building the comparison map.
+     * @return null if the sample image has more mismatching pixels than the budget and so can't win anymore
+     */
+    private ImageCheck countMismatchingPixels(SpecImage spec, ImageHandler pageHandler, ComparisonOptions options, Rect elementArea, String imagePath,
+                                              BufferedImage sampleImage, AtomicLong budget) throws ValidationErrorException {
+        Rectangle sampleArea = sampleAreaFor(spec, sampleImage);
+        Rectangle area = toRectangle(elementArea);
+
+        ImageHandler sampleHandler = new ImageHandler(sampleImage);
+        ImageMismatchCounter counter = new ImageMismatchCounter(pageHandler, area, sampleHandler, sampleArea, options.getTolerance(), options.isStretchToFit());
+        applyFilters(sampleHandler, options.getSampleFilters(), sampleArea);
+
+        long mismatchingPixels = counter.count(budget);
+        if (mismatchingPixels == ImageMismatchCounter.BUDGET_EXCEEDED) {
+            return null;
         }
 
-        ImageCompareResult result = Rainbow4J.compare(pageImage, sampleImage, toRectangle(elementArea), sampleArea, options);
+        double totalPixels = area.width * area.height;
+        double percentage = 100.0 * mismatchingPixels / totalPixels;
+        return createImageCheck(spec, imagePath, mismatchingPixels, percentage, null, sampleImage, area, sampleArea);
+    }
+
+    private ImageCheck checkImages(SpecImage spec, BufferedImage pageImage, ComparisonOptions options, Rect elementArea, String imagePath,
+                                   BufferedImage sampleImage) throws ValidationErrorException {
+        Rectangle sampleArea = sampleAreaFor(spec, sampleImage);
+        Rectangle area = toRectangle(elementArea);
+
+        ImageCompareResult result = Rainbow4J.compare(pageImage, sampleImage, area, sampleArea, options);
 
+        return createImageCheck(spec, imagePath, result.getTotalPixels(), result.getPercentage(), result, sampleImage, area, sampleArea);
+    }
+
+    private ImageCheck createImageCheck(SpecImage spec, String imagePath, long mismatchingPixels, double percentage, ImageCompareResult result,
+                                        BufferedImage sampleImage, Rectangle area, Rectangle sampleArea) throws ValidationErrorException {
         double difference = 0.0;
         String errorMessage = null;
         if (spec.getMaxPercentage() != null) {
-            difference = result.getPercentage() - spec.getMaxPercentage();
+            difference = percentage - spec.getMaxPercentage();
             if (difference > 0) {
-                errorMessage = createErrorMessageForPercentage(msgErrorPrefix(spec.getImagePaths().get(0)), spec.getMaxPercentage(), result.getPercentage());
+                errorMessage = createErrorMessageForPercentage(msgErrorPrefix(spec.getImagePaths().get(0)), spec.getMaxPercentage(), percentage);
             }
         } else {
-            if (spec.getMaxPixels() == null) {
-                spec.setMaxPixels(0);
-            }
-
-            difference = result.getTotalPixels() - spec.getMaxPixels();
+            difference = mismatchingPixels - spec.getMaxPixels();
             if (difference > 0) {
-                errorMessage = createErrorMessageForPixels(msgErrorPrefix(spec.getImagePaths().get(0)), spec.getMaxPixels(), result.getTotalPixels());
+                errorMessage = createErrorMessageForPixels(msgErrorPrefix(spec.getImagePaths().get(0)), spec.getMaxPixels(), mismatchingPixels);
             }
         }
 
-        return new ImageCheck(imagePath, difference, result, errorMessage);
+        return new ImageCheck(imagePath, difference, mismatchingPixels, result, errorMessage, sampleImage, area, sampleArea);
+    }
+
+    private Rect checkElementArea(SpecImage spec, Rect elementArea, BufferedImage pageImage) {
+        if (elementArea.getLeft() >= pageImage.getWidth() || elementArea.getTop() >= pageImage.getHeight()) {
+            throw new RuntimeException(String.format("The page element is located outside of the screenshot. (Element {x: %d, y: %d, w: %d, h: %d}, Screenshot {w: %d, h: %d})",
+                    elementArea.getLeft(), elementArea.getTop(), elementArea.getWidth(), elementArea.getHeight(),
+                    pageImage.getWidth(), pageImage.getHeight()));
+        }
+
+        if (spec.isCropIfOutside()) {
+            return cropElementAreaIfOutside(elementArea, pageImage.getWidth(), pageImage.getHeight());
+        }
+        return elementArea;
+    }
+
+    private BufferedImage loadSampleImage(SpecImage spec, String imagePath) throws ValidationErrorException {
+        try {
+            return ImageCache.getInstance().loadImage(imagePath);
+        } catch (Throwable e) {
+            throw new ValidationErrorException("Couldn't load image: " + spec.getImagePaths().get(0));
+        }
+    }
+
+    private Rectangle sampleAreaFor(SpecImage spec, BufferedImage sampleImage) {
+        return spec.getSelectedArea() != null ? toRectangle(spec.getSelectedArea()) : new Rectangle(0, 0, sampleImage.getWidth(), sampleImage.getHeight());
+    }
+
+    private void applyFilters(ImageHandler handler, List<ImageFilter> filters, Rectangle area) {
+        if (filters != null) {
+            for (ImageFilter filter : filters) {
+                handler.applyFilter(filter, area);
+            }
+        }
     }
 
     private Rect cropElementAreaIfOutside(Rect elementArea, int width, int height) {
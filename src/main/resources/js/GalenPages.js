@@ -15,7 +15,9 @@
  * ******************************************************************************/
 
 
-String.prototype.trim=function(){return this.replace(/^\s+|\s+$/g, '');};
+if (typeof String.prototype.trim !== "function") {
+    String.prototype.trim=function(){return this.replace(/^\s+|\s+$/g, '');};
+}
 
 function listToArray(list) {
     return GalenUtils.listToArray(list);
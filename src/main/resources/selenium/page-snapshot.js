@@ -0,0 +1,96 @@
+/*
+ * Collects areas, visibility and text of all requested locators in one call.
+ * arguments[0] - list of [locatorType, locatorValue] pairs
+ * arguments[1] - optional context element which should be used as a root for search
+ *
+ * Returns [screenSize, viewportSize, results] where every result is either null (locator could not be resolved)
+ * or a list of [element, left, top, width, height, visible, text] items
+ */
+var queries = arguments[0];
+var root = arguments[1] || document;
+
+function findAll(type, value) {
+    if (type === "xpath") {
+        var snapshot = document.evaluate(value, root, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);
+        var nodes = [];
+        for (var i = 0; i < snapshot.snapshotLength; i++) {
+            nodes.push(snapshot.snapshotItem(i));
+        }
+        return nodes;
+    }
+    else if (type === "id") {
+        return root.querySelectorAll("[id=\"" + value.replace(/(["\\])/g, "\\$1") + "\"]");
+    }
+    else if (type === "css") {
+        return root.querySelectorAll(value);
+    }
+    else {
+        throw new Error("Unknown locator type: " + type);
+    }
+}
+
+function isVisible(element) {
+    if (element.tagName.toLowerCase() === "input" && element.type === "hidden") {
+        return false;
+    }
+    var style = window.getComputedStyle(element);
+    if (style.visibility === "hidden" || style.visibility === "collapse") {
+        return false;
+    }
+    for (var node = element; node && node.nodeType === 1; node = node.parentNode) {
+        var nodeStyle = window.getComputedStyle(node);
+        if (nodeStyle.display === "none" || nodeStyle.opacity === "0") {
+            return false;
+        }
+    }
+    var rect = element.getBoundingClientRect();
+    return rect.width > 0 && rect.height > 0;
+}
+
+function textOf(element) {
+    if (element.tagName.toLowerCase() === "input") {
+        return element.value || "";
+    }
+    var text = element.innerText !== undefined ? element.innerText : element.textContent;
+    return (text || "").replace(/^\s+|\s+$/g, "");
+}
+
+var scrollLeft = window.pageXOffset !== undefined ? window.pageXOffset : document.documentElement.scrollLeft;
+var scrollTop = window.pageYOffset !== undefined ? window.pageYOffset : document.documentElement.scrollTop;
+
+var results = [];
+for (var q = 0; q < queries.length; q++) {
+    try {
+        var elements = findAll(queries[q][0], queries[q][1]);
+        var items = [];
+        for (var e = 0; e < elements.length; e++) {
+            var element = elements[e];
+            var rect = element.getBoundingClientRect();
+            items.push([element,
+                Math.round(rect.left + scrollLeft),
+                Math.round(rect.top + scrollTop),
+                Math.round(rect.width),
+                Math.round(rect.height),
+                isVisible(element),
+                textOf(element)]);
+        }
+        results.push(items);
+    }
+    catch (ex) {
+        results.push(null);
+    }
+}
+
+var screenSize = [Math.max(
+        document.body.scrollWidth, document.documentElement.scrollWidth,
+        document.body.offsetWidth, document.documentElement.offsetWidth,
+        document.body.clientWidth, document.documentElement.clientWidth),
+    Math.max(
+        document.body.scrollHeight, document.documentElement.scrollHeight,
+        document.body.offsetHeight, document.documentElement.offsetHeight,
+        document.body.clientHeight, document.documentElement.clientHeight)];
+
+var viewportSize = [window.innerWidth || document.documentElement.clientWidth || document.body.clientWidth,
+    window.innerHeight || document.documentElement.clientHeight || document.body.clientHeight];
+
+return [screenSize, viewportSize, results];
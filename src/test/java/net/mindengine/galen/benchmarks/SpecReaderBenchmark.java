@@ -0,0 +1,138 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.benchmarks;
+
+import java.io.File;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Properties;
+
+import net.mindengine.galen.specs.Spec;
+import net.mindengine.galen.specs.page.ObjectSpecs;
+import net.mindengine.galen.specs.page.PageSection;
+import net.mindengine.galen.specs.reader.SpecReader;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.specs.reader.page.PageSpecReader;
+
+/**
+ * Measures parsing throughput over the sample specs from test resources.
+ * It is not a part of the test suite, run it manually with test classpath:
+ *
+ *   java -cp target/classes:target/test-classes:... net.mindengine.galen.benchmarks.SpecReaderBenchmark [rounds]
+ *
+ * Spec files which can not be read without a page (e.g. using count() or find() functions) are skipped.
+ */
+public class SpecReaderBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+        File specsFolder = new File(SpecReaderBenchmark.class.getResource("/specs").getFile());
+        List<String> specFiles = new LinkedList<String>();
+        collectSpecFiles(specsFolder, specFiles);
+
+        List<String> readableFiles = new LinkedList<String>();
+        List<String> specLines = new LinkedList<String>();
+        for (String specFile : specFiles) {
+            try {
+                PageSpec pageSpec = new PageSpecReader(new Properties(), null).read(specFile);
+                readableFiles.add(specFile);
+                collectSpecLines(pageSpec, specLines);
+            }
+            catch (Exception ex) {
+                System.out.println("Skipping " + specFile + ": " + ex.getMessage());
+            }
+        }
+
+        System.out.println(String.format("Spec files: %d, spec lines: %d", readableFiles.size(), specLines.size()));
+
+        benchmark("PageSpecReader (files/s)", rounds, readableFiles.size(), new Round() {
+            @Override
+            public void run(List<String> items) throws Exception {
+                for (String specFile : items) {
+                    new PageSpecReader(new Properties(), null).read(specFile);
+                }
+            }
+        }, readableFiles);
+
+        final SpecReader specReader = new SpecReader(new Properties());
+        benchmark("SpecReader (specs/s)", rounds, specLines.size(), new Round() {
+            @Override
+            public void run(List<String> items) throws Exception {
+                for (String specLine : items) {
+                    specReader.read(specLine);
+                }
+            }
+        }, specLines);
+
+        // processors and keyword index are shared, so a reader per spec should cost about the same as a reused one
+        benchmark("SpecReader created per spec (specs/s)", rounds, specLines.size(), new Round() {
+            @Override
+            public void run(List<String> items) throws Exception {
+                for (String specLine : items) {
+                    new SpecReader(new Properties()).read(specLine);
+                }
+            }
+        }, specLines);
+    }
+
+    private static void benchmark(String name, int rounds, int itemsPerRound, Round round, List<String> items) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.run(items);
+        }
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            round.run(items);
+        }
+        long elapsed = System.nanoTime() - startedAt;
+
+        double seconds = elapsed / 1e9;
+        System.out.println(String.format("%s: %.1f, %.3f ms per round", name, (itemsPerRound * (double) rounds) / seconds, (seconds * 1000) / rounds));
+    }
+
+    private static void collectSpecFiles(File folder, List<String> specFiles) {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    collectSpecFiles(file, specFiles);
+                }
+                else if (file.getName().endsWith(".spec")) {
+                    specFiles.add(file.getAbsolutePath());
+                }
+            }
+        }
+    }
+
+    private static void collectSpecLines(PageSpec pageSpec, List<String> specLines) {
+        for (PageSection section : pageSpec.getSections()) {
+            for (ObjectSpecs objectSpecs : section.getObjects()) {
+                for (Spec spec : objectSpecs.getSpecs()) {
+                    if (spec.getOriginalText() != null) {
+                        specLines.add(spec.getOriginalText());
+                    }
+                }
+            }
+        }
+    }
+
+    private interface Round {
+        void run(List<String> items) throws Exception;
+    }
+}
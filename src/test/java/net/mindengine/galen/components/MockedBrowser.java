@@ -27,6 +27,7 @@ import com.google.common.io.Files;
 import net.mindengine.galen.browser.Browser;
 import net.mindengine.galen.components.validation.MockedPage;
 import net.mindengine.galen.page.Page;
+import net.mindengine.galen.page.Screenshot;
 
 public class MockedBrowser implements Browser {
 
@@ -89,6 +90,11 @@ public class MockedBrowser implements Browser {
         return file;
     }
 
+    @Override
+    public Screenshot takeScreenshot() {
+        return Screenshot.fromFile(createScreenshot());
+    }
+
     public Page getMockedPage() {
         return mockedPage;
     }
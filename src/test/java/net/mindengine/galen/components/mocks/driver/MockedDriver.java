@@ -17,16 +17,16 @@ package net.mindengine.galen.components.mocks.driver;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import net.mindengine.galen.components.validation.MockedPage;
+import net.mindengine.galen.page.selenium.PageSnapshot;
 import net.mindengine.galen.utils.GalenUtils;
-import net.mindengine.rainbow4j.Rainbow4J;
+import org.apache.commons.io.FileUtils;
 import org.openqa.selenium.*;
 import org.openqa.selenium.logging.Logs;
 
-import java.awt.image.BufferedImage;
-import java.awt.image.DataBufferByte;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -36,6 +36,8 @@ public class MockedDriver implements WebDriver, TakesScreenshot, JavascriptExecu
     private String currrentUrl;
 
     private Dimension screenSize = new Dimension(1024, 768);
+    private int findElementsCallsCount = 0;
+    private int screenshotsCount = 0;
 
     public MockedDriver() {
     }
@@ -74,6 +76,7 @@ public class MockedDriver implements WebDriver, TakesScreenshot, JavascriptExecu
 
     @Override
     public List<WebElement> findElements(By by) {
+        findElementsCallsCount++;
         List<WebElement> elements = new LinkedList<WebElement>();
 
         for (MockedPageItem item : page.getItems()) {
@@ -204,34 +207,68 @@ public class MockedDriver implements WebDriver, TakesScreenshot, JavascriptExecu
         };
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public <X> X getScreenshotAs(OutputType<X> xOutputType) throws WebDriverException {
+        screenshotsCount++;
         if (xOutputType.equals(OutputType.FILE)) {
             return (X) new File(getClass().getResource("/mocks/pages/screenshot.png").getFile());
         }
         else if (xOutputType.equals(OutputType.BYTES)) {
             File file = new File(getClass().getResource("/mocks/pages/screenshot.png").getFile());
-
-            BufferedImage image = null;
             try {
-                image = Rainbow4J.loadImage(file.getAbsolutePath());
+                return (X) FileUtils.readFileToByteArray(file);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
-            return (X)((DataBufferByte) image.getData().getDataBuffer()).getData();
 
         }
         else throw new RuntimeException("Cannot make screenshot");
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public Object executeScript(String s, Object... objects) {
         if (s.equals(GalenUtils.JS_RETRIEVE_DEVICE_PIXEL_RATIO)) {
             return 1L;
         }
+        else if (s.equals(PageSnapshot.getScript())) {
+            return takePageSnapshot((List<List<String>>) objects[0]);
+        }
         else return null;
     }
 
+    private Object takePageSnapshot(List<List<String>> queries) {
+        List<Object> results = new LinkedList<Object>();
+        for (List<String> query : queries) {
+            List<Object> items = new LinkedList<Object>();
+            for (MockedPageItem item : page.getItems()) {
+                if (item.getLocator().equals(query.get(0) + ": " + query.get(1))) {
+                    Integer[] area = item.getArea();
+                    items.add(Arrays.<Object>asList(item.asWebElement(), (long) area[0], (long) area[1], (long) area[2], (long) area[3],
+                            item.isVisible(), item.getText() != null ? item.getText() : ""));
+                }
+            }
+            results.add(items);
+        }
+        return Arrays.<Object>asList(
+                Arrays.asList((long) screenSize.getWidth(), (long) screenSize.getHeight()),
+                Arrays.asList((long) screenSize.getWidth(), (long) screenSize.getHeight()),
+                results);
+    }
+
+    public MockedDriverPage getMockedPage() {
+        return page;
+    }
+
+    public int getFindElementsCallsCount() {
+        return findElementsCallsCount;
+    }
+
+    public int getScreenshotsCount() {
+        return screenshotsCount;
+    }
+
     @Override
     public Object executeAsyncScript(String s, Object... objects) {
         return null;
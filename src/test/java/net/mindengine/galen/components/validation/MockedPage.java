@@ -17,11 +17,13 @@ package net.mindengine.galen.components.validation;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.Collection;
 import java.util.HashMap;
 
 import net.mindengine.galen.page.AbsentPageElement;
 import net.mindengine.galen.page.Page;
 import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.Screenshot;
 import net.mindengine.galen.specs.page.Locator;
 
 public class MockedPage implements Page {
@@ -94,11 +96,32 @@ public class MockedPage implements Page {
         return null;
     }
 
+    @Override
+    public Screenshot getScreenshot() {
+        if (screenshotImage != null) {
+            return Screenshot.fromImage(screenshotImage);
+        }
+        return null;
+    }
+
     @Override
     public String getTitle() {
         return "";
     }
 
+    @Override
+    public void prefetchObjects(Collection<Locator> locators) {
+    }
+
+    @Override
+    public void clearCache() {
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     public void setScreenshotImage(BufferedImage screenshotImage) {
         this.screenshotImage = screenshotImage;
     }
@@ -26,13 +26,18 @@ import static org.hamcrest.Matchers.notNullValue;
 import java.util.HashMap;
 import java.util.concurrent.TimeoutException;
 
+import net.mindengine.galen.browser.SeleniumBrowser;
 import net.mindengine.galen.components.MockedBrowser;
+import net.mindengine.galen.components.mocks.driver.MockedDriver;
+import net.mindengine.galen.components.mocks.driver.MockedPageItem;
 import net.mindengine.galen.components.validation.MockedInvisiblePageElement;
 import net.mindengine.galen.components.validation.MockedPage;
 import net.mindengine.galen.components.validation.MockedPageElement;
 import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.Rect;
 import net.mindengine.galen.reports.TestReport;
 import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.galen.suite.actions.GalenPageActionCheck;
 import net.mindengine.galen.suite.actions.GalenPageActionWait;
 import net.mindengine.galen.suite.actions.GalenPageActionWait.UntilType;
 
@@ -88,6 +93,53 @@ public class GalenPageActionWaitTest {
     }
     
     
+    @Test
+    public void shouldClearPageCache_afterWaitWithoutConditions() throws Exception {
+        MockedDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-sample-page.json");
+        SeleniumBrowser browser = new SeleniumBrowser(driver);
+
+        assertThat(browser.getPage().getObject("save-button", css(".save-button")).getArea(), is(new Rect(10, 10, 100, 50)));
+
+        moveSaveButton(driver, 30, 40);
+        GalenPageActionWait wait = new GalenPageActionWait();
+        wait.setTimeout(10);
+        wait.execute(new TestReport(), browser, null, null);
+
+        assertThat(browser.getPage().getObject("save-button", css(".save-button")).getArea(), is(new Rect(30, 40, 100, 50)));
+    }
+
+    @Test
+    public void shouldCheckMovedElements_whenCheckRunsAfterWait() throws Exception {
+        MockedDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-sample-page.json");
+        SeleniumBrowser browser = new SeleniumBrowser(driver);
+        GalenPageActionCheck check = new GalenPageActionCheck().withSpecs(asList("/specs/galen4j/moved-element.spec"));
+
+        TestReport reportBeforeWait = new TestReport();
+        check.execute(reportBeforeWait, browser, null, null);
+
+        moveSaveButton(driver, 10, 200);
+        GalenPageActionWait wait = new GalenPageActionWait();
+        wait.setTimeout(10);
+        wait.execute(new TestReport(), browser, null, null);
+
+        TestReport reportAfterWait = new TestReport();
+        check.execute(reportAfterWait, browser, null, null);
+
+        assertThat(reportBeforeWait.fetchStatistic().getErrors(), is(0));
+        assertThat(reportAfterWait.fetchStatistic().getErrors(), is(1));
+    }
+
+    private void moveSaveButton(MockedDriver driver, int left, int top) {
+        for (MockedPageItem item : driver.getMockedPage().getItems()) {
+            if (item.getLocator().equals("css: .save-button")) {
+                Integer[] area = item.getArea();
+                item.setArea(new Integer[]{left, top, area[2], area[3]});
+            }
+        }
+    }
+
     @SuppressWarnings("serial")
     private MockedPage createMockedPage() {
         MockedPage page = new MockedPage();
@@ -18,8 +18,14 @@ package net.mindengine.galen.tests.api;
 import com.google.common.io.Files;
 import net.mindengine.galen.api.Galen;
 import net.mindengine.galen.components.mocks.driver.MockedDriver;
+import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.reports.GalenTestInfo;
+import net.mindengine.galen.reports.model.LayoutObject;
 import net.mindengine.galen.reports.model.LayoutReport;
+import net.mindengine.galen.reports.model.LayoutSection;
+import net.mindengine.galen.reports.model.LayoutSpec;
+import net.mindengine.galen.tests.TestSession;
 import net.mindengine.galen.validation.ErrorArea;
 import net.mindengine.galen.validation.ValidationError;
 import org.apache.commons.io.FileUtils;
@@ -29,6 +35,8 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Properties;
 
 import static java.util.Arrays.asList;
@@ -53,6 +61,167 @@ public class GalenTest {
                         .withArea(new ErrorArea(new Rect(10, 10, 100, 50), "save-button"))));
     }
 
+    @Test
+    public void checkLayout_shouldFetchAllObjects_withSinglePageSnapshot() throws IOException {
+        MockedDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-sample-page.json");
+
+        System.setProperty(GalenConfig.PAGE_SNAPSHOT, "true");
+        LayoutReport layoutReport;
+        try {
+            layoutReport = Galen.checkLayout(driver, "/specs/galen4j/sample-spec-with-error.spec", asList("mobile"), null, new Properties(), null);
+        }
+        finally {
+            System.clearProperty(GalenConfig.PAGE_SNAPSHOT);
+        }
+
+        assertThat(layoutReport.getValidationErrors(), contains(
+                new ValidationError().withMessage("\"save-button\" is 10px left instead of 50px")
+                        .withArea(new ErrorArea(new Rect(10, 10, 100, 50), "save-button"))
+                        .withArea(new ErrorArea(new Rect(120, 10, 200, 50), "name-textfield")),
+                new ValidationError().withMessage("\"save-button\" text is \"Save\" but should be \"Store\"")
+                        .withArea(new ErrorArea(new Rect(10, 10, 100, 50), "save-button"))));
+        assertThat("Driver should not be asked for elements", driver.getFindElementsCallsCount(), is(0));
+    }
+
+    @Test
+    public void checkLayout_shouldNotMakeScreenshot_whenPolicyIsNever_andNoSpecsNeedPixels() throws IOException {
+        MockedDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-sample-page.json");
+
+        LayoutReport layoutReport = checkLayoutWithScreenshotPolicy(driver, GalenConfig.LAYOUT_SCREENSHOT_NEVER);
+
+        assertThat(layoutReport.errors(), is(2));
+        assertThat(driver.getScreenshotsCount(), is(0));
+        assertThat(layoutReport.getScreenshotFullPath(), is(nullValue()));
+    }
+
+    @Test
+    public void checkLayout_shouldMakeScreenshot_afterFailedCheck_whenPolicyIsOnFailure() throws IOException {
+        MockedDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-sample-page.json");
+
+        LayoutReport layoutReport = checkLayoutWithScreenshotPolicy(driver, GalenConfig.LAYOUT_SCREENSHOT_ON_FAILURE);
+
+        assertThat(driver.getScreenshotsCount(), is(1));
+        assertThat(layoutReport.getScreenshotFullPath(), is(notNullValue()));
+    }
+
+    @Test
+    public void checkLayout_shouldMakeScreenshot_beforeCheck_byDefault() throws IOException {
+        MockedDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-sample-page.json");
+
+        LayoutReport layoutReport = Galen.checkLayout(driver, "/specs/galen4j/sample-spec-with-error.spec", asList("mobile"), null, new Properties(), null);
+
+        assertThat(driver.getScreenshotsCount(), is(1));
+        assertThat(layoutReport.getScreenshotFullPath(), is(notNullValue()));
+    }
+
+    @Test
+    public void checkLayout_shouldNotMakeScreenshot_byDefault_whenTestIsNotReported_andNoSpecsNeedPixels() throws IOException {
+        MockedDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-sample-page.json");
+
+        LayoutReport layoutReport = checkLayoutInUnreportedTest(driver, "/specs/galen4j/sample-spec-with-error.spec");
+
+        assertThat(layoutReport.errors(), is(2));
+        assertThat(driver.getScreenshotsCount(), is(0));
+        assertThat(layoutReport.getScreenshotFullPath(), is(nullValue()));
+    }
+
+    @Test
+    public void checkLayout_shouldMakeScreenshot_byDefault_whenTestIsNotReported_butSpecsNeedPixels() throws IOException {
+        MockedDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-sample-page.json");
+
+        LayoutReport layoutReport = checkLayoutInUnreportedTest(driver, "/specs/galen4j/sample-spec-with-color-scheme.spec");
+
+        assertThat("Color scheme spec should reuse the screenshot of the report", driver.getScreenshotsCount(), is(1));
+        assertThat(layoutReport.getScreenshotFullPath(), is(notNullValue()));
+    }
+
+    @Test
+    public void checkLayout_shouldReportObjectsInSpecOrder_whenValidatedInParallel() throws IOException {
+        LayoutReport sequentialReport = checkLayoutForParallelValidation(false);
+        LayoutReport parallelReport = checkLayoutForParallelValidation(true);
+
+        assertThat(parallelReport.getValidationErrors(), is(sequentialReport.getValidationErrors()));
+        assertThat(parallelReport.errors(), is(3));
+        assertThat(describe(parallelReport), is(describe(sequentialReport)));
+    }
+
+    @Test
+    public void checkLayout_shouldReportSubObjects_forEachRepeatedComponentSpec() throws IOException {
+        File dumpFolder = dumpSamplePage("/specs/galen4j/parallel-validation.spec");
+
+        LayoutReport report = Galen.checkPageDump(dumpFolder, asList(getClass().getResource("/specs/galen4j/repeated-component.spec").getFile()),
+                null, null, new Properties(), null);
+
+        assertThat(report.getSections().size(), is(2));
+        for (LayoutSection section : report.getSections()) {
+            LayoutSpec componentSpec = section.getObjects().get(0).getSpecs().get(0);
+            assertThat("Component spec in section \"" + section.getName() + "\" should have sub objects",
+                    componentSpec.getSubObjects(), is(notNullValue()));
+            assertThat(componentSpec.getSubObjects().get(0).getName(), is("button-save"));
+        }
+    }
+
+    private File dumpSamplePage(String specPath) throws IOException {
+        MockedDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-pagedump.json");
+
+        File dumpFolder = new File(Files.createTempDir(), "pagedump");
+        Galen.dumpPage(driver, "sample page", specPath, dumpFolder.getAbsolutePath());
+        return dumpFolder;
+    }
+
+    private LayoutReport checkLayoutForParallelValidation(boolean parallel) throws IOException {
+        File dumpFolder = dumpSamplePage("/specs/galen4j/parallel-validation.spec");
+
+        System.setProperty(GalenConfig.VALIDATION_PARALLEL, Boolean.toString(parallel));
+        try {
+            return Galen.checkPageDump(dumpFolder, asList("/specs/galen4j/parallel-validation.spec"), null, null, new Properties(), null);
+        }
+        finally {
+            System.clearProperty(GalenConfig.VALIDATION_PARALLEL);
+        }
+    }
+
+    private List<String> describe(LayoutReport layoutReport) {
+        List<String> lines = new LinkedList<String>();
+        for (LayoutSection section : layoutReport.getSections()) {
+            lines.add("section: " + section.getName());
+            for (LayoutObject object : section.getObjects()) {
+                for (LayoutSpec spec : object.getSpecs()) {
+                    lines.add(object.getName() + " -> " + spec.getText() + (spec.getFailed() ? " (failed)" : ""));
+                }
+            }
+        }
+        return lines;
+    }
+
+    private LayoutReport checkLayoutInUnreportedTest(WebDriver driver, String specPath) throws IOException {
+        TestSession session = TestSession.register(new GalenTestInfo("unreported test", null));
+        session.setScreenshotsReported(false);
+        try {
+            return Galen.checkLayout(driver, specPath, asList("mobile"), null, new Properties(), null);
+        }
+        finally {
+            TestSession.clear();
+        }
+    }
+
+    private LayoutReport checkLayoutWithScreenshotPolicy(WebDriver driver, String policy) throws IOException {
+        System.setProperty(GalenConfig.LAYOUT_SCREENSHOT, policy);
+        try {
+            return Galen.checkLayout(driver, "/specs/galen4j/sample-spec-with-error.spec", asList("mobile"), null, new Properties(), null);
+        }
+        finally {
+            System.clearProperty(GalenConfig.LAYOUT_SCREENSHOT);
+        }
+    }
+
 
     @Test
     public void dumpPage_shouldGenereate_htmlJsonReport_andStorePicturesOfElements() throws IOException {
@@ -0,0 +1,195 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.browser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.awt.Dimension;
+
+import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.browser.BrowserFactory;
+import net.mindengine.galen.browser.BrowserPool;
+import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.components.MockedBrowser;
+import net.mindengine.galen.components.mocks.driver.MockedDriver;
+
+import org.testng.annotations.Test;
+
+public class BrowserPoolTest {
+
+    @Test
+    public void shouldReuse_session_forSameBrowserConfiguration() {
+        BrowserPool pool = new BrowserPool(2, 20);
+
+        Browser first = pool.lease(new PoolTestBrowserFactory("firefox"));
+        pool.release(first);
+        Browser second = pool.lease(new PoolTestBrowserFactory("firefox"));
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(pool.getCreatedSessions(), is(1));
+        assertThat(pool.getReusedSessions(), is(1));
+    }
+
+    @Test
+    public void shouldNotShare_sessions_betweenDifferentConfigurations() {
+        BrowserPool pool = new BrowserPool(2, 20);
+
+        Browser first = pool.lease(new PoolTestBrowserFactory("firefox"));
+        pool.release(first);
+        Browser second = pool.lease(new PoolTestBrowserFactory("chrome"));
+
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(pool.getCreatedSessions(), is(2));
+    }
+
+    @Test
+    public void shouldReset_session_whenItIsReleased() {
+        BrowserPool pool = new BrowserPool(2, 20);
+
+        SeleniumBrowser browser = (SeleniumBrowser) pool.lease(new PoolTestBrowserFactory("firefox"));
+        browser.changeWindowSize(new Dimension(400, 300));
+        browser.load("/mocks/pages/galen4j-sample-page.json");
+        pool.release(browser);
+
+        PoolTestDriver driver = (PoolTestDriver) browser.getDriver();
+        assertThat(driver.getCurrentUrl(), is("about:blank"));
+        assertThat("Storage should be cleared before blank page is opened", driver.storageClearedOnUrl, is("/mocks/pages/galen4j-sample-page.json"));
+        assertThat(browser.getScreenSize(), is(new Dimension(1024, 768)));
+    }
+
+    @Test
+    public void shouldReplace_unhealthySessions() {
+        BrowserPool pool = new BrowserPool(2, 20);
+
+        SeleniumBrowser first = (SeleniumBrowser) pool.lease(new PoolTestBrowserFactory("firefox"));
+        pool.release(first);
+        PoolTestDriver driver = (PoolTestDriver) first.getDriver();
+        driver.broken = true;
+
+        Browser second = pool.lease(new PoolTestBrowserFactory("firefox"));
+
+        assertThat(second, is(not(sameInstance((Browser) first))));
+        assertThat(driver.quitCalls, is(1));
+    }
+
+    @Test
+    public void shouldRecycle_sessions_afterMaxUses() {
+        BrowserPool pool = new BrowserPool(2, 2);
+
+        SeleniumBrowser browser = (SeleniumBrowser) pool.lease(new PoolTestBrowserFactory("firefox"));
+        pool.release(browser);
+        assertThat(pool.lease(new PoolTestBrowserFactory("firefox")), is(sameInstance((Browser) browser)));
+        pool.release(browser);
+
+        assertThat(((PoolTestDriver) browser.getDriver()).quitCalls, is(1));
+        assertThat(pool.getIdleSessions(), is(0));
+    }
+
+    @Test
+    public void shouldLimit_amountOfIdleSessions() {
+        BrowserPool pool = new BrowserPool(1, 20);
+
+        SeleniumBrowser first = (SeleniumBrowser) pool.lease(new PoolTestBrowserFactory("firefox"));
+        SeleniumBrowser second = (SeleniumBrowser) pool.lease(new PoolTestBrowserFactory("firefox"));
+        pool.release(first);
+        pool.release(second);
+
+        assertThat(pool.getIdleSessions(), is(1));
+        assertThat(((PoolTestDriver) second.getDriver()).quitCalls, is(1));
+
+        pool.closeAll();
+        assertThat(pool.getIdleSessions(), is(0));
+        assertThat(((PoolTestDriver) first.getDriver()).quitCalls, is(1));
+    }
+
+    @Test
+    public void shouldClose_notSeleniumBrowsers_insteadOfPoolingThem() {
+        BrowserPool pool = new BrowserPool(2, 20);
+        BrowserFactory factory = new BrowserFactory() {
+            @Override
+            public Browser openBrowser() {
+                return new MockedBrowser("http://example.com", new Dimension(400, 300), null);
+            }
+        };
+
+        Browser browser = pool.lease(factory);
+        pool.release(browser);
+
+        assertThat(pool.getIdleSessions(), is(0));
+        assertThat(pool.getCreatedSessions(), is(0));
+    }
+
+    private static class PoolTestDriver extends MockedDriver {
+        private String url;
+        private int quitCalls = 0;
+        private boolean broken = false;
+        private String storageClearedOnUrl;
+
+        @Override
+        public void get(String url) {
+            if (!"about:blank".equals(url)) {
+                super.get(url);
+            }
+            this.url = url;
+        }
+
+        @Override
+        public String getCurrentUrl() {
+            if (broken) {
+                throw new RuntimeException("Session is closed");
+            }
+            return url;
+        }
+
+        @Override
+        public Object executeScript(String script, Object... args) {
+            if (BrowserPool.JS_CLEAR_STORAGE.equals(script)) {
+                storageClearedOnUrl = url;
+                return null;
+            }
+            return super.executeScript(script, args);
+        }
+
+        @Override
+        public void quit() {
+            quitCalls++;
+        }
+    }
+
+    private static class PoolTestBrowserFactory implements BrowserFactory {
+        private final String browserType;
+
+        private PoolTestBrowserFactory(String browserType) {
+            this.browserType = browserType;
+        }
+
+        @Override
+        public Browser openBrowser() {
+            return new SeleniumBrowser(new PoolTestDriver());
+        }
+
+        @Override
+        public int hashCode() {
+            return browserType.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof PoolTestBrowserFactory && ((PoolTestBrowserFactory) obj).browserType.equals(browserType);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.javascript;
+
+import com.google.common.io.Files;
+import net.mindengine.galen.javascript.GalenJsExecutor;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class GalenJsExecutorTest {
+
+    @Test
+    public void shouldNotShare_variables_betweenExecutors() {
+        GalenJsExecutor first = new GalenJsExecutor();
+        GalenJsExecutor second = new GalenJsExecutor();
+
+        first.eval("var name = 'first';");
+        first.evalAllLibraries();
+
+        assertThat((String) second.eval("typeof name"), is("undefined"));
+        assertThat((String) second.eval("typeof GalenPages"), is("undefined"));
+        assertThat((String) first.eval("typeof GalenPages"), is("object"));
+    }
+
+    @Test
+    public void shouldProvide_importedClasses_andImportNewClasses_intoOwnScope() {
+        GalenJsExecutor first = new GalenJsExecutor();
+        GalenJsExecutor second = new GalenJsExecutor();
+
+        first.eval("importClass(java.util.ArrayList);");
+
+        assertThat(((Number) first.eval("new ArrayList().size()")).intValue(), is(0));
+        assertThat((String) second.eval("typeof ArrayList"), is("undefined"));
+        assertThat((String) second.eval("typeof By.id"), is("function"));
+    }
+
+    @Test
+    public void shouldAllow_scriptsToAssignGlobals_withoutVar_includingImportedNames() {
+        GalenJsExecutor first = new GalenJsExecutor();
+        GalenJsExecutor second = new GalenJsExecutor();
+        first.evalAllLibraries();
+
+        first.eval("counter = 1; By = {id: function (id) { return 'custom:' + id; }}; Galen = 'custom galen'; GalenPages = null;");
+        first.eval("importPackage(java.util); list = new ArrayList();");
+
+        assertThat(((Number) first.eval("counter")).intValue(), is(1));
+        assertThat((String) first.eval("By.id('save')"), is("custom:save"));
+        assertThat((String) first.eval("Galen"), is("custom galen"));
+        assertThat(((Number) first.eval("list.size()")).intValue(), is(0));
+
+        assertThat((String) second.eval("typeof counter"), is("undefined"));
+        assertThat((String) second.eval("typeof By.id"), is("function"));
+        assertThat((String) second.eval("typeof Galen.checkLayout"), is("function"));
+        assertThat((String) second.eval("typeof ArrayList"), is("undefined"));
+    }
+
+    @Test
+    public void shouldNotAllow_scriptsToModify_sharedStandardObjects() {
+        GalenJsExecutor first = new GalenJsExecutor();
+        GalenJsExecutor second = new GalenJsExecutor();
+        first.evalAllLibraries();
+
+        assertThat((String) first.eval("try { String.prototype.shout = function () { return this + '!'; }; 'modified'; } catch (e) { 'sealed'; }"), is("sealed"));
+        assertThat((String) second.eval("typeof 'a'.shout"), is("undefined"));
+        assertThat((String) first.eval("'  text '.trim()"), is("text"));
+    }
+
+    @Test
+    public void shouldRecompile_scriptFile_whenItIsModified() throws IOException {
+        File file = new File(Files.createTempDir(), "script.js");
+        FileUtils.writeStringToFile(file, "1 + 1");
+
+        GalenJsExecutor js = new GalenJsExecutor();
+        assertThat(((Number) js.eval(new FileReader(file), file.getAbsolutePath())).intValue(), is(2));
+        assertThat(((Number) js.eval(new FileReader(file), file.getAbsolutePath())).intValue(), is(2));
+
+        FileUtils.writeStringToFile(file, "1 + 10");
+        file.setLastModified(file.lastModified() + 10000);
+
+        assertThat(((Number) js.eval(new FileReader(file), file.getAbsolutePath())).intValue(), is(11));
+    }
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.page;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+import net.mindengine.galen.api.Galen;
+import net.mindengine.galen.api.PageDump;
+import net.mindengine.galen.browser.PageDumpBrowser;
+import net.mindengine.galen.components.mocks.driver.MockedDriver;
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.page.dump.PageDumpPage;
+import net.mindengine.galen.reports.model.LayoutReport;
+import net.mindengine.galen.specs.page.Locator;
+
+import org.openqa.selenium.WebDriver;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.io.Files;
+
+public class PageDumpPageTest {
+
+    private File dumpFolder;
+
+    @BeforeClass
+    public void createPageDump() throws IOException {
+        dumpFolder = new File(Files.createTempDir(), "pagedump");
+
+        WebDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-pagedump.json");
+        Galen.dumpPage(driver, "test page", "/specs/galen4j/pagedump.spec", dumpFolder.getAbsolutePath());
+    }
+
+    @Test
+    public void shouldFindObjects_byName_andByLocator() throws IOException {
+        PageDumpPage page = new PageDumpPage(PageDump.loadFromJson(new File(dumpFolder, "page.json")), dumpFolder);
+
+        PageElement button = page.getObject("button-save", Locator.css(".save-button"));
+        assertThat(button.isVisible(), is(true));
+        assertThat(button.getArea(), is(new Rect(10, 10, 100, 50)));
+        assertThat(button.getText(), is("Save"));
+
+        assertThat(page.getObject(new Locator("css", ".menu-item", 2)).getArea(), is(new Rect(50, 10, 20, 10)));
+        assertThat(page.getObjectCount(Locator.css(".menu-item")), is(3));
+
+        assertThat(page.getObject("unexistent-element", Locator.css(".i-do-not-exist")).isPresent(), is(false));
+        assertThat(page.getTitle(), is("My page"));
+    }
+
+    @Test
+    public void shouldCheckLayout_againstPageDump_withoutBrowser() throws IOException {
+        LayoutReport report = Galen.checkPageDump(dumpFolder, asList("/specs/galen4j/pagedump-check.spec"),
+                null, null, new Properties(), null);
+
+        assertThat(report.getValidationErrors().size(), is(0));
+    }
+
+    @Test
+    public void shouldReportErrors_whenLayoutDoesNotMatchPageDump() throws IOException {
+        LayoutReport report = Galen.checkPageDump(dumpFolder, asList("/specs/galen4j/pagedump-check-failing.spec"),
+                null, null, new Properties(), null);
+
+        assertThat(report.getValidationErrors().size(), is(1));
+        assertThat(report.getValidationErrors().get(0).getMessages(), contains("\"button-save\" width is 100px instead of 120px"));
+    }
+
+    @Test(expectedExceptions = RuntimeException.class,
+            expectedExceptionsMessageRegExp = "Page dump doesn't support loading url \"http://example.com\"\\. Only layout specs without browser actions and javascript can be checked against page dump: .*")
+    public void shouldGiveDescriptiveError_forBrowserActions() throws IOException {
+        new PageDumpBrowser(dumpFolder).load("http://example.com");
+    }
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.page;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import net.mindengine.galen.page.Screenshot;
+import net.mindengine.rainbow4j.Rainbow4J;
+import net.mindengine.rainbow4j.Spectrum;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+public class ScreenshotTest {
+
+    @Test
+    public void shouldWrite_originalPngBytes_toFile_withoutReencoding() throws IOException {
+        byte[] bytes = FileUtils.readFileToByteArray(new File(getClass().getResource("/imgs/button-sample-correct.png").getFile()));
+        Screenshot screenshot = Screenshot.fromPngBytes(bytes);
+
+        File file = screenshot.getFile();
+
+        assertThat(FileUtils.readFileToByteArray(file), is(bytes));
+        assertThat("File should be written only once", screenshot.getFile(), is(sameInstance(file)));
+    }
+
+    @Test
+    public void shouldDecode_pngBytes_sameWayAsRainbow4J() throws IOException {
+        String path = getClass().getResource("/imgs/button-sample-correct.png").getFile();
+        Screenshot screenshot = Screenshot.fromPngBytes(FileUtils.readFileToByteArray(new File(path)));
+
+        BufferedImage expected = Rainbow4J.loadImage(path);
+        BufferedImage image = screenshot.getImage();
+
+        assertThat(image.getWidth(), is(expected.getWidth()));
+        assertThat(image.getHeight(), is(expected.getHeight()));
+        assertThat(image.getRGB(10, 10), is(expected.getRGB(10, 10)));
+        assertThat(screenshot.getImage(), is(sameInstance(image)));
+    }
+
+    @Test
+    public void shouldConvert_inMemoryImages_soTheyCanBeUsedForColorSpectrum() throws IOException {
+        BufferedImage source = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 10; y++) {
+            for (int x = 0; x < 10; x++) {
+                source.setRGB(x, y, y < 5 ? Color.red.getRGB() : Color.blue.getRGB());
+            }
+        }
+
+        BufferedImage image = Screenshot.fromImage(source).getImage();
+        Spectrum spectrum = Rainbow4J.readSpectrum(image, new Rectangle(0, 0, 10, 10));
+
+        assertThat(new Color(image.getRGB(3, 7)), is(Color.blue));
+        assertThat((double) spectrum.getPercentage(255, 0, 0, 0), is(closeTo(50.0, 0.01)));
+        assertThat((double) spectrum.getPercentage(0, 0, 255, 0), is(closeTo(50.0, 0.01)));
+    }
+
+    @Test
+    public void shouldKeepOnlyFile_afterMemoryIsReleased_andReadImageFromIt() throws IOException {
+        BufferedImage source = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        source.setRGB(3, 4, Color.red.getRGB());
+        Screenshot screenshot = Screenshot.fromImage(source);
+
+        screenshot.releaseMemory();
+        File file = screenshot.getFile();
+
+        assertThat(file.exists(), is(true));
+        BufferedImage image = screenshot.getImage();
+        assertThat(image, is(not(sameInstance(source))));
+        assertThat(new Color(image.getRGB(3, 4)), is(Color.red));
+    }
+}
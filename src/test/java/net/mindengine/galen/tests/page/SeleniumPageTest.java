@@ -0,0 +1,63 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.page;
+
+import net.mindengine.galen.components.mocks.driver.MockedDriver;
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.page.selenium.SeleniumPage;
+import net.mindengine.galen.specs.page.Locator;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class SeleniumPageTest {
+
+    @Test
+    public void shouldResolve_eachLocator_onlyOnce_forCountAndIndexedObjects() {
+        MockedDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-pagedump.json");
+        SeleniumPage page = new SeleniumPage(driver);
+
+        assertThat(page.getObjectCount(Locator.css(".menu-item")), is(3));
+        for (int index = 1; index <= 3; index++) {
+            PageElement element = page.getObject("menu-item-" + index, new Locator("css", ".menu-item", index));
+            assertThat(element.getArea(), is(new Rect(10 + index * 20, 10, 20, 10)));
+        }
+        assertThat(page.getObject("menu-item-4", new Locator("css", ".menu-item", 4)).isPresent(), is(false));
+
+        assertThat(driver.getFindElementsCallsCount(), is(1));
+        assertThat(page.getElementCache().getMisses(), is(1L));
+        assertThat(page.getElementCache().getHits(), is(4L));
+    }
+
+    @Test
+    public void shouldResolve_locatorsAgain_afterCacheIsCleared() {
+        MockedDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-pagedump.json");
+        SeleniumPage page = new SeleniumPage(driver);
+
+        page.getObject("button", Locator.css(".save-button"));
+        page.getObject("button", Locator.css(".save-button"));
+        assertThat(driver.getFindElementsCallsCount(), is(1));
+
+        page.clearCache();
+
+        page.getObject("button", Locator.css(".save-button"));
+        assertThat(driver.getFindElementsCallsCount(), is(2));
+    }
+}
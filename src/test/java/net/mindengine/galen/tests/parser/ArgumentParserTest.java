@@ -184,7 +184,14 @@ public class ArgumentParserTest {
                     .withUrl("http://mindengine.net")
                     .withExport("export-page-dir")
                     .withMaxWidth(100)
-                    .withMaxHeight(150)}
+                    .withMaxHeight(150)},
+
+            {args("checkdump", "my-page.spec", "--dumps", "dumps-dir", "--parallel-suites", "4"),
+                new GalenArguments()
+                    .withAction("checkdump")
+                    .withPaths(asList("my-page.spec"))
+                    .withDumps("dumps-dir")
+                    .withParallelSuites(4)}
         };
     }
     
@@ -206,6 +213,9 @@ public class ArgumentParserTest {
     @DataProvider
     public Object[][] provideBadSamples() {
         return new Object[][]{
+          {"Missing page dumps folder",
+              args("checkdump", "some.spec")},
+
           {"Incorrect size: 123", 
               args("check", "some.spec", "--url", "http://example.com", "--size", "123")},
           
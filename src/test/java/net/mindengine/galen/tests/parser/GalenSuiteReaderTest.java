@@ -24,6 +24,7 @@ import static org.hamcrest.Matchers.nullValue;
 import java.awt.Dimension;
 import java.io.File;
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -36,6 +37,7 @@ import net.mindengine.galen.suite.GalenPageTest;
 import net.mindengine.galen.suite.reader.GalenSuiteReader;
 import net.mindengine.galen.tests.GalenBasicTest;
 
+import org.apache.commons.io.FileUtils;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -158,6 +160,47 @@ public class GalenSuiteReaderTest {
     
     
     @SuppressWarnings("unchecked")
+    @Test public void shouldRead_suiteWithParameterizations_lazily_inTheSameOrder() throws IOException {
+        File file = new File(getClass().getResource("/suites/suite-parameterized.test").getFile());
+
+        List<String> expectedNames = new LinkedList<String>();
+        for (GalenBasicTest test : new GalenSuiteReader().read(file)) {
+            expectedNames.add(test.getName());
+        }
+
+        List<String> names = new LinkedList<String>();
+        for (GalenBasicTest test : new GalenSuiteReader().readLazily(file)) {
+            names.add(test.getName());
+        }
+
+        assertThat(names, is(expectedNames));
+    }
+
+    @Test(timeOut = 10000)
+    public void shouldExpand_nestedParameterizations_onlyWhenTestsAreIterated() throws IOException {
+        StringBuilder suite = new StringBuilder();
+        for (String tableName : asList("outer", "inner")) {
+            suite.append("@@ table ").append(tableName).append("\n");
+            suite.append("    | ").append(tableName).append(" |\n");
+            for (int i = 0; i < 1000; i++) {
+                suite.append("    | ").append(i).append(" |\n");
+            }
+        }
+        suite.append("@@ parameterized using outer\n");
+        suite.append("@@ parameterized using inner\n");
+        suite.append("Test ${outer} ${inner}\n");
+        suite.append("    http://example.com 640x480\n");
+        suite.append("        check page1.spec\n");
+
+        File file = File.createTempFile("lazy-suite", ".test");
+        FileUtils.writeStringToFile(file, suite.toString());
+
+        Iterator<GalenBasicTest> tests = new GalenSuiteReader().readLazily(file).iterator();
+
+        assertThat(tests.next().getName(), is("Test 0 0"));
+        assertThat(tests.next().getName(), is("Test 0 1"));
+    }
+
     @Test public void shouldRead_suiteWithParameterizations_successfully() throws IOException {
         GalenSuiteReader reader = new GalenSuiteReader();
         
@@ -182,7 +225,7 @@ public class GalenSuiteReaderTest {
                 assertThat(page.getScreenSize(), is((Dimension)table[i][0]));
                 
                 assertThat(page.getActions(), is(actions(
-                        GalenPageActions.check(asList("page1.spec")).withIncludedTags((List<String>) table[i][1]).withExcludedTags((List<String>) table[i][3])
+                        GalenPageActions.check(asList("page1.spec")).withIncludedTags(tags(table[i][1])).withExcludedTags(tags(table[i][3]))
                         )));
             }
         }
@@ -206,7 +249,7 @@ public class GalenSuiteReaderTest {
                 assertThat(page.getScreenSize(), is((Dimension)table[j][0]));
                 
                 assertThat(page.getActions(), is(actions(
-                        GalenPageActions.check(asList("page1.spec")).withIncludedTags((List<String>) table[j][1]).withExcludedTags((List<String>) table[j][3])
+                        GalenPageActions.check(asList("page1.spec")).withIncludedTags(tags(table[j][1])).withExcludedTags(tags(table[j][3]))
                         )));
             }
         }
@@ -242,7 +285,7 @@ public class GalenSuiteReaderTest {
                 assertThat(page.getScreenSize(), is((Dimension)table[j][0]));
                 
                 assertThat(page.getActions(), is(actions(
-                        GalenPageActions.check(asList("page1.spec")).withIncludedTags((List<String>) table[j][1]).withExcludedTags((List<String>) table[j][3])
+                        GalenPageActions.check(asList("page1.spec")).withIncludedTags(tags(table[j][1])).withExcludedTags(tags(table[j][3]))
                         )));
             }
         }
@@ -296,6 +339,11 @@ public class GalenSuiteReaderTest {
     
     
     
+    @SuppressWarnings("unchecked")
+    private List<String> tags(Object tags) {
+        return (List<String>) tags;
+    }
+
     private List<GalenPageAction> actions(GalenPageAction...actions) {
         List<GalenPageAction> list = new LinkedList<GalenPageAction>();
         for (GalenPageAction action : actions) {
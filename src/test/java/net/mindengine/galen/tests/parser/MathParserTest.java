@@ -19,6 +19,8 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import net.mindengine.galen.parser.MathParser;
 
+import org.mozilla.javascript.Context;
+
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -46,9 +48,37 @@ public class MathParserTest {
 				{"inside: box-@{%3} 20px left", "10", "inside: box-1 20px left"},
 				{"centered horizontally inside: box-@", "10", "centered horizontally inside: box-10"},
 				{"text is: box-@@{*2} 20px left", "10", "text is: box-@{*2} 20px left"},
-                {"above: box-@{index*2 + 1}", "10", "above: box-21"}
+                {"above: box-@{index*2 + 1}", "10", "above: box-21"},
+                {"above: box-@{index / 3}", "10", "above: box-3"},
+                {"above: box-@{-index/4}", "10", "above: box-7"},
+                {"above: box-@{(index + 2) * 3 % 7}", "10", "above: box-1"},
+                {"above: box-@{Math.max(index, 15)}", "10", "above: box-15"},
+                {"above: box-@{index > 5 ? 1 : 2}", "10", "above: box-1"}
 		};
 	}
 	
+	@Test
+	public void shouldNotShare_globals_betweenExpressions() {
+	    MathParser mathParser = new MathParser();
+	    assertThat(mathParser.parse("box-@{x = index * 2}", "10"), is("box-20"));
+	    assertThat(mathParser.parse("box-@{typeof(x) == 'undefined' ? 1 : 0}", "10"), is("box-1"));
+	}
+
+	@Test
+	public void shouldExit_javascriptContext_afterEvaluatingExpression() throws InterruptedException {
+	    final boolean[] contextLeft = new boolean[1];
+	    Thread thread = new Thread(new Runnable() {
+	        @Override
+	        public void run() {
+	            new MathParser().parse("box-@{Math.max(index, 15)}", "10");
+	            contextLeft[0] = Context.getCurrentContext() != null;
+	        }
+	    });
+	    thread.start();
+	    thread.join();
+
+	    assertThat(contextLeft[0], is(false));
+	}
+	
 	//TODO Negative tests for MathParser
 }
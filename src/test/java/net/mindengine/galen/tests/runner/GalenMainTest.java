@@ -19,8 +19,13 @@ import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 
 import java.awt.Dimension;
 import java.io.File;
@@ -33,6 +38,8 @@ import java.util.List;
 import net.mindengine.galen.GalenMain;
 import net.mindengine.galen.components.DummyCompleteListener;
 import net.mindengine.galen.components.JsTestRegistry;
+import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.galen.reports.GalenTestInfo;
 import net.mindengine.galen.runner.CompleteListener;
 import net.mindengine.galen.runner.GalenArguments;
 import net.mindengine.galen.tests.GalenTest;
@@ -290,5 +297,73 @@ public class GalenMainTest {
                 "Test 1 with filter two",
                 "Test 2 with filter"));
     }
-}
 
+    @Test public void shouldCancel_unfinishedTests_whenSuiteTimeoutIsReached() throws Exception {
+        GalenMain galen = new GalenMain();
+
+        final List<GalenTestInfo> finishedTests = new LinkedList<GalenTestInfo>();
+        galen.setListener(new DummyCompleteListener() {
+            @Override
+            public void afterTestSuite(List<GalenTestInfo> tests) {
+                finishedTests.addAll(tests);
+            }
+        });
+
+        System.setProperty(GalenConfig.SUITE_TIMEOUT, "1");
+        long startedAt = System.currentTimeMillis();
+        try {
+            galen.execute(new GalenArguments()
+                .withAction("test")
+                .withPaths(asList(getClass().getResource("/js-tests/long-running.test.js").getFile()))
+                .withParallelSuites(2)
+            );
+        }
+        finally {
+            System.clearProperty(GalenConfig.SUITE_TIMEOUT);
+        }
+
+        assertThat("Suite should not wait for the long test", System.currentTimeMillis() - startedAt, is(lessThan(30000L)));
+        assertThat(finishedTests.size(), is(2));
+        assertThat(galen.getSuiteProgress().getCompleted(), is(greaterThanOrEqualTo(1)));
+
+        for (GalenTestInfo info : finishedTests) {
+            if (info.getName().equals("Long test")) {
+                assertThat("Long test should fail", info.getException(), is(notNullValue()));
+            }
+            else {
+                assertThat("Quick test should pass", info.getException(), is(nullValue()));
+            }
+        }
+    }
+
+    @Test public void shouldReport_queuedAndNotPulledTests_asFailed_whenSuiteTimeoutIsReached() throws Exception {
+        GalenMain galen = new GalenMain();
+
+        final List<GalenTestInfo> finishedTests = new LinkedList<GalenTestInfo>();
+        galen.setListener(new DummyCompleteListener() {
+            @Override
+            public void afterTestSuite(List<GalenTestInfo> tests) {
+                finishedTests.addAll(tests);
+            }
+        });
+
+        System.setProperty(GalenConfig.SUITE_TIMEOUT, "1");
+        try {
+            galen.execute(new GalenArguments()
+                .withAction("test")
+                .withPaths(asList(getClass().getResource("/js-tests/long-running-queued.test.js").getFile()))
+            );
+        }
+        finally {
+            System.clearProperty(GalenConfig.SUITE_TIMEOUT);
+        }
+
+        List<String> testNames = new LinkedList<String>();
+        for (GalenTestInfo info : finishedTests) {
+            testNames.add(info.getName());
+            assertThat("\"" + info.getName() + "\" should fail", info.getException(), is(notNullValue()));
+            assertThat(info.getEndedAt(), is(notNullValue()));
+        }
+        assertThat(testNames, containsInAnyOrder("Long test", "Queued test", "Not pulled test"));
+    }
+}
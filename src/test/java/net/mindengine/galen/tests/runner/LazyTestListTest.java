@@ -0,0 +1,99 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.runner;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import net.mindengine.galen.runner.LazyTestList;
+import net.mindengine.galen.tests.GalenBasicTest;
+import net.mindengine.galen.tests.GalenTest;
+
+import org.testng.annotations.Test;
+
+public class LazyTestListTest {
+
+    @Test
+    public void shouldPull_testsFromSources_onlyWhenIterated() {
+        CountingSource first = new CountingSource("A", "B");
+        CountingSource second = new CountingSource("C");
+        LazyTestList tests = new LazyTestList(asList(first, second));
+
+        Iterator<GalenTest> it = tests.iterator();
+        assertThat(it.next().getName(), is("A"));
+        assertThat(first.pulled, is(1));
+        assertThat(second.pulled, is(0));
+
+        assertThat(it.next().getName(), is("B"));
+        assertThat(it.next().getName(), is("C"));
+        assertThat(it.hasNext(), is(false));
+        assertThat(second.pulled, is(1));
+    }
+
+    @Test
+    public void shouldLoad_allTests_whenSizeIsRequested() {
+        CountingSource first = new CountingSource("A", "B");
+        CountingSource second = new CountingSource("C");
+        LazyTestList tests = new LazyTestList(asList(first, second));
+
+        assertThat(tests.size(), is(3));
+        assertThat(tests.get(2).getName(), is("C"));
+
+        List<String> names = new LinkedList<String>();
+        for (GalenTest test : tests) {
+            names.add(test.getName());
+        }
+        assertThat(names, contains("A", "B", "C"));
+    }
+
+    private static class CountingSource implements Iterable<GalenTest> {
+        private final List<String> names;
+        private int pulled = 0;
+
+        private CountingSource(String...names) {
+            this.names = asList(names);
+        }
+
+        @Override
+        public Iterator<GalenTest> iterator() {
+            final Iterator<String> it = names.iterator();
+            return new Iterator<GalenTest>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public GalenTest next() {
+                    pulled++;
+                    GalenBasicTest test = new GalenBasicTest();
+                    test.setName(it.next());
+                    return test;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+}
@@ -15,9 +15,13 @@
 ******************************************************************************/
 package net.mindengine.galen.tests.runner;
 
+import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
@@ -26,7 +30,9 @@ import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.util.Date;
 import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import junit.framework.Assert;
 import net.mindengine.galen.components.report.FakeException;
@@ -38,7 +44,13 @@ import net.mindengine.galen.reports.LayoutReportNode;
 import net.mindengine.galen.reports.TestNgReportBuilder;
 import net.mindengine.galen.reports.TestReport;
 import net.mindengine.galen.reports.TestReportNode;
+import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.page.Screenshot;
+import net.mindengine.galen.reports.model.LayoutObject;
 import net.mindengine.galen.reports.model.LayoutReport;
+import net.mindengine.galen.reports.model.LayoutSection;
+import net.mindengine.galen.reports.model.LayoutSpec;
+import net.mindengine.galen.validation.ImageComparison;
 import net.mindengine.galen.validation.LayoutReportListener;
 
 import org.apache.commons.io.FileUtils;
@@ -123,6 +135,119 @@ public class ReportingTest {
         assertThat("Should place attachment file in same folder", new File(reportDirPath + "/report-1-home-page-test-attachment-1-custom.txt").exists(), is(true));
     }
     
+    @Test public void shouldRender_testReports_whenTestsAreAdded_andKeepTestOrder_inMainReport() throws IOException, TemplateException {
+        String reportDirPath = Files.createTempDir().getAbsolutePath() + "/reports";
+
+        GalenTestInfo firstTest = new GalenTestInfo("First test", null);
+        GalenTestInfo secondTest = new GalenTestInfo("Second test", null);
+        for (GalenTestInfo testInfo : asList(firstTest, secondTest)) {
+            testInfo.setStartedAt(new Date(1404681346000L));
+            testInfo.setEndedAt(new Date(1404681416000L));
+        }
+
+        HtmlReportBuilder htmlReportBuilder = new HtmlReportBuilder();
+        htmlReportBuilder.start(reportDirPath);
+        htmlReportBuilder.addTest(secondTest);
+        htmlReportBuilder.addTest(firstTest);
+        htmlReportBuilder.finish(asList(firstTest, secondTest));
+
+        assertThat(new File(reportDirPath + "/report-1-second-test.html").exists(), is(true));
+        assertThat(new File(reportDirPath + "/report-2-first-test.html").exists(), is(true));
+
+        String mainReport = FileUtils.readFileToString(new File(reportDirPath + "/report.html"));
+        assertThat(mainReport.indexOf("report-2-first-test.html"), is(lessThan(mainReport.indexOf("report-1-second-test.html"))));
+    }
+
+    @Test public void shouldStore_sameScreenshots_andSampleImages_onlyOnce() throws IOException, TemplateException {
+        String reportDirPath = Files.createTempDir().getAbsolutePath() + "/reports";
+        Screenshot screenshot = Screenshot.fromImage(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB));
+
+        List<GalenTestInfo> testInfos = new LinkedList<GalenTestInfo>();
+        for (String name : asList("First test", "Second test")) {
+            LayoutReport layoutReport = new LayoutReport();
+            layoutReport.setScreenshotFullPath(screenshot.getFile().getAbsolutePath());
+
+            LayoutSpec spec = new LayoutSpec();
+            spec.setImageComparison(new ImageComparison(new Rect(0, 0, 10, 10), "/imgs/button-sample-correct.png",
+                    new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB)));
+            LayoutObject layoutObject = new LayoutObject();
+            layoutObject.setName("button");
+            layoutObject.getSpecs().add(spec);
+            LayoutSection section = new LayoutSection();
+            section.getObjects().add(layoutObject);
+            layoutReport.getSections().add(section);
+
+            GalenTestInfo testInfo = new GalenTestInfo(name, null);
+            testInfo.getReport().addNode(new LayoutReportNode(layoutReport, "check layout"));
+            testInfo.setStartedAt(new Date(1404681346000L));
+            testInfo.setEndedAt(new Date(1404681416000L));
+            testInfos.add(testInfo);
+        }
+
+        new HtmlReportBuilder().build(testInfos, reportDirPath);
+
+        Set<String> screenshots = new HashSet<String>();
+        Set<String> samples = new HashSet<String>();
+        Set<String> comparisonMaps = new HashSet<String>();
+        for (GalenTestInfo testInfo : testInfos) {
+            LayoutReport layoutReport = ((LayoutReportNode) testInfo.getReport().getNodes().get(0)).getLayoutReport();
+            screenshots.add(layoutReport.getScreenshot());
+
+            ImageComparison imageComparison = layoutReport.getSections().get(0).getObjects().get(0).getSpecs().get(0).getImageComparison();
+            samples.add(imageComparison.getImageSamplePath());
+            comparisonMaps.add(imageComparison.getComparisonMapPath());
+        }
+
+        assertThat(screenshots, hasSize(1));
+        assertThat(samples, hasSize(1));
+        assertThat(comparisonMaps, hasSize(1));
+        assertThat(new File(reportDirPath + "/" + screenshots.iterator().next()).exists(), is(true));
+        assertThat(new File(reportDirPath + "/" + samples.iterator().next()).exists(), is(true));
+        assertThat(new File(reportDirPath + "/" + comparisonMaps.iterator().next()).exists(), is(true));
+        assertThat(FileUtils.listFiles(new File(reportDirPath), new String[]{"png"}, true).size(), is(3));
+    }
+
+    @Test public void shouldMove_temporaryScreenshots_intoReport() throws IOException, TemplateException {
+        String reportDirPath = Files.createTempDir().getAbsolutePath() + "/reports";
+        Screenshot screenshot = Screenshot.fromImage(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB));
+        File screenshotFile = screenshot.getFile();
+        File userFile = File.createTempFile("user-screenshot", ".png");
+        FileUtils.copyFile(screenshotFile, userFile);
+
+        List<GalenTestInfo> testInfos = new LinkedList<GalenTestInfo>();
+        for (String name : asList("First test", "Second test", "Third test")) {
+            LayoutReport layoutReport = new LayoutReport();
+            if (name.equals("Third test")) {
+                layoutReport.setScreenshotFullPath(userFile.getAbsolutePath());
+            }
+            else {
+                layoutReport.setScreenshotFullPath(screenshotFile.getAbsolutePath());
+                layoutReport.setScreenshotTemporary(screenshot.isTemporaryFile());
+            }
+
+            GalenTestInfo testInfo = new GalenTestInfo(name, null);
+            testInfo.getReport().addNode(new LayoutReportNode(layoutReport, "check layout"));
+            testInfo.setStartedAt(new Date(1404681346000L));
+            testInfo.setEndedAt(new Date(1404681416000L));
+            testInfos.add(testInfo);
+        }
+
+        new HtmlReportBuilder().build(testInfos, reportDirPath);
+
+        Set<String> screenshots = new HashSet<String>();
+        for (GalenTestInfo testInfo : testInfos) {
+            screenshots.add(((LayoutReportNode) testInfo.getReport().getNodes().get(0)).getLayoutReport().getScreenshot());
+        }
+
+        assertThat(screenshot.isTemporaryFile(), is(true));
+        assertThat("Temporary screenshot should be moved", screenshotFile.exists(), is(false));
+        assertThat("Screenshot which does not belong to Galen should be copied", userFile.exists(), is(true));
+        assertThat(screenshots, hasSize(2));
+        for (String storedScreenshot : screenshots) {
+            assertThat(new File(reportDirPath + "/" + storedScreenshot).exists(), is(true));
+        }
+    }
+
     @Test public void shouldReport_inHtmlFormat_successfully_andSplitFiles_perTest() throws IOException, TemplateException {
         String reportDirPath = Files.createTempDir().getAbsolutePath() + "/reports";
         
@@ -0,0 +1,84 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.specs;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.HashMap;
+
+import net.mindengine.galen.components.validation.MockedPage;
+import net.mindengine.galen.components.validation.MockedPageElement;
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.parser.SyntaxException;
+import net.mindengine.galen.specs.Range;
+import net.mindengine.galen.specs.ValuePath;
+import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.validation.PageValidation;
+
+import org.testng.annotations.Test;
+
+public class ValuePathTest {
+
+    @Test
+    public void shouldRead_valuesOfPageElement() {
+        PageElement element = new MockedPageElement(10, 20, 100, 50);
+
+        assertThat(ValuePath.compile("object/width").readValue(element), is(100));
+        assertThat(ValuePath.compile("object/height").readValue(element), is(50));
+        assertThat(ValuePath.compile("object/area/left").readValue(element), is(10));
+        assertThat(ValuePath.compile("object/area/top").readValue(element), is(20));
+        assertThat(ValuePath.compile("object/area/width").getObjectName(), is("object"));
+    }
+
+    @Test(expectedExceptions = {SyntaxException.class},
+            expectedExceptionsMessageRegExp = "Value path is incorrect object/")
+    public void shouldGiveError_forIncorrectPath() {
+        ValuePath.compile("object/").getObjectName();
+    }
+
+    @Test(expectedExceptions = {SyntaxException.class},
+            expectedExceptionsMessageRegExp = "Cannot read field: \"unknownField\"")
+    public void shouldGiveError_forUnknownField() {
+        ValuePath.compile("object/area/unknownField").readValue(new MockedPageElement(10, 20, 100, 50));
+    }
+
+    @Test(expectedExceptions = {SyntaxException.class},
+            expectedExceptionsMessageRegExp = "Cannot convert value to integer. The obtained value is of class java.lang.String type")
+    public void shouldGiveError_forNonNumericField() {
+        ValuePath.compile("object/text").readValue(new MockedPageElement(10, 20, 100, 50).withText("some text"));
+    }
+
+    @Test
+    public void pageValidation_shouldReadBaseValue_onlyOnce_perPageState() {
+        final HashMap<String, PageElement> elements = new HashMap<String, PageElement>();
+        elements.put("container", new MockedPageElement(0, 0, 200, 100));
+
+        PageSpec pageSpec = new PageSpec();
+        pageSpec.addObject("container", new Locator("id", "container"));
+        PageValidation pageValidation = new PageValidation(null, new MockedPage(elements), pageSpec, null, null);
+
+        Range range = Range.between(10.0, 50.0).withPercentOf("container/width");
+        assertThat(pageValidation.convertRange(range), is(Range.between(20.0, 100.0)));
+
+        elements.put("container", new MockedPageElement(0, 0, 400, 100));
+        assertThat("Base value should be taken from cache", pageValidation.convertRange(range), is(Range.between(20.0, 100.0)));
+
+        pageValidation.invalidateSpecResults();
+        assertThat(pageValidation.convertRange(range), is(Range.between(40.0, 200.0)));
+    }
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.specs.reader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.components.mocks.driver.MockedDriver;
+import net.mindengine.galen.page.Page;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.specs.reader.page.PageSpecCache;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+import com.google.common.io.Files;
+
+public class PageSpecCacheTest {
+
+    private static final Page PAGE = new SeleniumBrowser(new MockedDriver("/mocks/pages/object-values-in-js.json")).getPage();
+
+    @Test
+    public void shouldReturn_copyOfCachedSpec_whenSameSpecIsReadAgain() throws IOException {
+        PageSpecCache cache = new PageSpecCache();
+
+        PageSpec first = cache.read("/specs/count-via-js.spec", new Properties(), null);
+        PageSpec second = cache.read("/specs/count-via-js.spec", new Properties(), null);
+
+        assertThat(cache.getMisses(), is(1L));
+        assertThat(cache.getHits(), is(1L));
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(second.getObjects(), is(first.getObjects()));
+        assertThat(second.getSections().size(), is(first.getSections().size()));
+
+        second.getObjects().clear();
+        PageSpec third = cache.read("/specs/count-via-js.spec", new Properties(), null);
+        assertThat(third.getObjects(), is(first.getObjects()));
+    }
+
+    @Test
+    public void shouldRead_specAgain_whenPropertiesAreDifferent() throws IOException {
+        PageSpecCache cache = new PageSpecCache();
+        Properties properties = new Properties();
+        properties.put("some.property", "value");
+
+        cache.read("/specs/count-via-js.spec", new Properties(), null);
+        cache.read("/specs/count-via-js.spec", properties, null);
+
+        assertThat(cache.getMisses(), is(2L));
+        assertThat(cache.getHits(), is(0L));
+    }
+
+    @Test
+    public void shouldApply_setVariables_whenCachedSpecIsUsed() throws IOException {
+        File dir = Files.createTempDir();
+        File spec = new File(dir, "variables.spec");
+        FileUtils.writeStringToFile(spec, "@@ set width 100px\n");
+
+        PageSpecCache cache = new PageSpecCache();
+        cache.read(spec.getAbsolutePath(), new Properties(), null);
+
+        Properties properties = new Properties();
+        cache.read(spec.getAbsolutePath(), properties, null);
+
+        assertThat(cache.getHits(), is(1L));
+        assertThat(properties.getProperty("width"), is("100px"));
+    }
+
+    @Test
+    public void shouldRead_specAgain_whenUsedSystemPropertyIsChanged() throws IOException {
+        File dir = Files.createTempDir();
+        File spec = new File(dir, "system-property.spec");
+        FileUtils.writeStringToFile(spec, "@@ set width ${spec.cache.test.width}\n");
+
+        PageSpecCache cache = new PageSpecCache();
+        Properties properties = new Properties();
+        System.setProperty("spec.cache.test.width", "100px");
+        try {
+            cache.read(spec.getAbsolutePath(), new Properties(), null);
+            System.setProperty("some.unrelated.property", "value");
+            cache.read(spec.getAbsolutePath(), new Properties(), null);
+
+            System.setProperty("spec.cache.test.width", "200px");
+            cache.read(spec.getAbsolutePath(), properties, null);
+        }
+        finally {
+            System.clearProperty("spec.cache.test.width");
+            System.clearProperty("some.unrelated.property");
+        }
+
+        assertThat(cache.getHits(), is(1L));
+        assertThat(cache.getMisses(), is(2L));
+        assertThat(properties.getProperty("width"), is("200px"));
+    }
+
+    @Test
+    public void shouldNotCache_specs_whichUsePageElements() throws IOException {
+        PageSpecCache cache = new PageSpecCache();
+
+        cache.read("/specs/spec-with-object-values-in-js.spec", new Properties(), PAGE);
+        cache.read("/specs/spec-with-object-values-in-js.spec", new Properties(), PAGE);
+
+        assertThat(cache.getMisses(), is(2L));
+        assertThat(cache.getHits(), is(0L));
+    }
+
+    @Test
+    public void shouldRead_specAgain_whenImportedSpecIsModified() throws IOException {
+        File dir = Files.createTempDir();
+        File importedSpec = new File(dir, "imported.spec");
+        File mainSpec = new File(dir, "main.spec");
+        FileUtils.writeStringToFile(importedSpec, "==================\nheader  id header\n==================\n");
+        FileUtils.writeStringToFile(mainSpec, "@@ import imported.spec\n");
+
+        PageSpecCache cache = new PageSpecCache();
+        PageSpec pageSpec = cache.read(mainSpec.getAbsolutePath(), new Properties(), null);
+        assertThat(pageSpec.getObjects(), hasKey("header"));
+
+        FileUtils.writeStringToFile(importedSpec, "==================\nfooter  id footer\n==================\n");
+        pageSpec = cache.read(mainSpec.getAbsolutePath(), new Properties(), null);
+
+        assertThat(cache.getMisses(), is(2L));
+        assertThat(pageSpec.getObjects(), hasKey("footer"));
+        assertThat(pageSpec.getObjects(), not(hasKey("header")));
+    }
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.specs.reader;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.components.mocks.driver.MockedDriver;
+import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+
+import org.testng.annotations.Test;
+
+public class PageSpecTest {
+
+    @Test
+    public void shouldFind_objectsMatchingSimpleRegex() {
+        PageSpec pageSpec = new PageSpec();
+        pageSpec.addObject("menu-item-1", Locator.css(".menu-item"));
+        pageSpec.addObject("menu-item-2", Locator.css(".menu-item"));
+        pageSpec.addObject("menu-item-2-icon", Locator.css(".icon"));
+        pageSpec.addObject("menu", Locator.css(".menu"));
+        pageSpec.addObject("main-menu-item-1", Locator.css(".main-item"));
+
+        assertThat(pageSpec.findMatchingObjectNames("menu-item-*"), contains("menu-item-1", "menu-item-2"));
+        assertThat(pageSpec.findMatchingObjectNames("*-item-1"), contains("menu-item-1"));
+        assertThat(pageSpec.findObjectNamesByWildcard("*-item-1"), contains("main-menu-item-1", "menu-item-1"));
+        assertThat(pageSpec.findMatchingObjectNames("header-*"), is(empty()));
+
+        assertThat(pageSpec.findObjectNamesByWildcard("menu-item-*"), contains("menu-item-1", "menu-item-2", "menu-item-2-icon"));
+        assertThat(pageSpec.findObjectNamesByWildcard("menu*"), hasSize(4));
+    }
+
+    @Test
+    public void shouldFind_objects_addedByMergeAndMultiObjects() {
+        PageSpec pageSpec = new PageSpec();
+        pageSpec.addObject("header", Locator.css("#header"));
+
+        PageSpec importedSpec = new PageSpec();
+        importedSpec.addObject("menu-button", Locator.css(".menu-button"));
+        importedSpec.addMultiObject("menu-item-*", Locator.css(".menu-item"));
+        pageSpec.merge(importedSpec);
+
+        pageSpec.updateMultiObjects(new SeleniumBrowser(new MockedDriver("/mocks/pages/galen4j-pagedump.json")).getPage());
+
+        assertThat(pageSpec.findMatchingObjectNames("menu-*"), contains("menu-button"));
+        assertThat(pageSpec.findMatchingObjectNames("menu-item-*"), contains("menu-item-1", "menu-item-2", "menu-item-3"));
+        assertThat(pageSpec.findObjectNamesByWildcard("*"), is(asList("header", "menu-button", "menu-item-1", "menu-item-2", "menu-item-3")));
+    }
+}
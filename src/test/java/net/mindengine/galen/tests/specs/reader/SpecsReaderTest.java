@@ -23,6 +23,7 @@ import static net.mindengine.galen.specs.Side.RIGHT;
 import static net.mindengine.galen.specs.Side.TOP;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 
@@ -938,6 +939,18 @@ public class SpecsReaderTest {
         readSpec(" ");
     }
     
+    @Test(expectedExceptions={SyntaxException.class}, expectedExceptionsMessageRegExp="Such constraint does not exist: insid") 
+    public void givesError_whenSpecIsUnknown() throws IOException {
+        readSpec("insid: object");
+    }
+
+    @Test
+    public void shouldRead_specs_whenKeywordIsFollowedByOtherText() throws IOException {
+        assertThat(readSpec("insidepartly: object 10px right"), is(instanceOf(SpecInside.class)));
+        assertThat(readSpec("below: object 10px"), is(instanceOf(SpecBelow.class)));
+        assertThat(readSpec("on: object 10px left"), is(instanceOf(SpecOn.class)));
+    }
+
     @Test(expectedExceptions={SyntaxException.class}, expectedExceptionsMessageRegExp="Incorrect error rate syntax: \" 23 to 123px\"") 
     public void givesError_withIncorrect_errorRate_inSpec_centered() throws IOException {
         readSpec("centered horizontally inside: object 23 to 123px");
@@ -0,0 +1,86 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.utils;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import net.mindengine.galen.utils.FileContent;
+import net.mindengine.galen.utils.GalenUtils;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.Test;
+
+import com.google.common.io.Files;
+
+public class FileContentTest {
+
+    @Test
+    public void shouldCalculate_md5Digest_ofFileContent() throws IOException {
+        File file = createFile("a.spec", "hello".getBytes("UTF-8"));
+
+        assertThat(FileContent.load(file.getAbsolutePath()).getDigest(), is("5d41402abc4b2a76b9719d911017c592"));
+    }
+
+    @Test
+    public void shouldGive_differentFileIds_forFilesWithSameName_butDifferentContent() throws Exception {
+        File a = createFile("main.spec", "first".getBytes("UTF-8"));
+        File b = createFile("main.spec", "second".getBytes("UTF-8"));
+
+        assertThat(GalenUtils.calculateFileId(a.getAbsolutePath()), is(not(GalenUtils.calculateFileId(b.getAbsolutePath()))));
+        assertThat(GalenUtils.calculateFileId(a.getAbsolutePath()), startsWith("main.spec"));
+    }
+
+    @Test
+    public void shouldRead_contentOfResources() throws IOException {
+        FileContent fileContent = FileContent.load("/specs/empty.spec");
+        byte[] expected = IOUtils.toByteArray(getClass().getResourceAsStream("/specs/empty.spec"));
+
+        assertThat(IOUtils.toByteArray(fileContent.openStream()), is(expected));
+    }
+
+    @Test
+    public void shouldRead_contentOfBigFiles_viaMemoryMapping() throws IOException {
+        byte[] content = new byte[(int) FileContent.MAPPING_THRESHOLD + 100];
+        Arrays.fill(content, (byte) 'a');
+        content[content.length - 1] = 'z';
+        File file = createFile("big.spec", content);
+
+        FileContent fileContent = FileContent.load(file.getAbsolutePath());
+
+        assertThat(fileContent.getSize(), is(content.length));
+        assertThat(IOUtils.toByteArray(fileContent.openStream()), is(content));
+        assertThat("Content should be readable again after digest", IOUtils.toByteArray(fileContent.openStream()).length, is(content.length));
+        assertThat(fileContent.getDigest().length(), is(32));
+    }
+
+    @Test(expectedExceptions = java.io.FileNotFoundException.class,
+            expectedExceptionsMessageRegExp = "Can't find file or resource: /non-existing/file.spec")
+    public void shouldThrowError_whenFileDoesNotExist() throws IOException {
+        FileContent.load("/non-existing/file.spec");
+    }
+
+    private File createFile(String name, byte[] content) throws IOException {
+        File file = new File(Files.createTempDir(), name);
+        FileUtils.writeByteArrayToFile(file, content);
+        return file;
+    }
+}
@@ -0,0 +1,91 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.utils;
+
+import com.google.common.io.Files;
+import net.mindengine.galen.utils.ImageCache;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ImageCacheTest {
+
+    @Test
+    public void shouldDecode_sameImage_onlyOnce() throws IOException {
+        ImageCache cache = new ImageCache(10 * 1024 * 1024, false);
+
+        BufferedImage first = cache.loadImage("/imgs/button-sample-correct.png");
+        BufferedImage second = cache.loadImage("/imgs/button-sample-correct.png");
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(cache.getMisses(), is(1L));
+        assertThat(cache.getHits(), is(1L));
+    }
+
+    @Test
+    public void shouldEvict_leastRecentlyUsedImages_whenSizeIsExceeded() throws IOException {
+        File dir = Files.createTempDir();
+        File a = createImage(dir, "a.png", 10, 10);
+        File b = createImage(dir, "b.png", 10, 10);
+        File c = createImage(dir, "c.png", 10, 10);
+
+        long imageSize = 10 * 10 * 4;
+        ImageCache cache = new ImageCache(imageSize * 2, false);
+
+        cache.loadImage(a.getAbsolutePath());
+        cache.loadImage(b.getAbsolutePath());
+        cache.loadImage(a.getAbsolutePath());
+        cache.loadImage(c.getAbsolutePath());
+
+        assertThat(cache.getImagesCount(), is(2));
+        assertThat(cache.getEvictions(), is(1L));
+        assertThat(cache.getCurrentSize(), is(lessThanOrEqualTo(imageSize * 2)));
+
+        cache.loadImage(a.getAbsolutePath());
+        assertThat("Image 'a' was used recently so it should stay in cache", cache.getHits(), is(2L));
+
+        cache.loadImage(b.getAbsolutePath());
+        assertThat("Image 'b' should have been evicted", cache.getMisses(), is(4L));
+    }
+
+    @Test
+    public void shouldDecode_imageAgain_whenFileIsModified() throws IOException {
+        File dir = Files.createTempDir();
+        File a = createImage(dir, "a.png", 10, 10);
+        ImageCache cache = new ImageCache(1024 * 1024, false);
+
+        cache.loadImage(a.getAbsolutePath());
+
+        createImage(dir, "a.png", 20, 20);
+        a.setLastModified(a.lastModified() + 10000);
+
+        BufferedImage image = cache.loadImage(a.getAbsolutePath());
+        assertThat(image.getWidth(), is(20));
+        assertThat(cache.getMisses(), is(2L));
+    }
+
+    private File createImage(File dir, String name, int width, int height) throws IOException {
+        File file = new File(dir, name);
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", file);
+        return file;
+    }
+}
@@ -0,0 +1,105 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.utils;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import net.mindengine.galen.utils.ImageDownscaler;
+
+import org.testng.annotations.Test;
+
+public class ImageDownscalerTest {
+
+    @Test
+    public void shouldAverage_blocksOfPixels_forIntegerRatio() {
+        BufferedImage image = new BufferedImage(4, 2, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, new Color(100, 0, 0).getRGB());
+        image.setRGB(1, 0, new Color(200, 0, 0).getRGB());
+        image.setRGB(0, 1, new Color(0, 40, 0).getRGB());
+        image.setRGB(1, 1, new Color(0, 80, 20).getRGB());
+        image.setRGB(2, 0, Color.white.getRGB());
+        image.setRGB(3, 0, Color.white.getRGB());
+        image.setRGB(2, 1, Color.white.getRGB());
+        image.setRGB(3, 1, Color.white.getRGB());
+
+        BufferedImage scaled = new ImageDownscaler(1).downscale(image, 2, 1);
+
+        assertThat(scaled.getWidth(), is(2));
+        assertThat(scaled.getHeight(), is(1));
+        assertThat(new Color(scaled.getRGB(0, 0)), is(new Color(75, 30, 5)));
+        assertThat(new Color(scaled.getRGB(1, 0)), is(Color.white));
+    }
+
+    @Test
+    public void shouldDownscale_withFractionalRatio_closeToSmoothScaling() {
+        BufferedImage image = createRandomImage(300, 200);
+
+        BufferedImage scaled = new ImageDownscaler(1).downscale(image, 200, 133);
+        BufferedImage expected = scaleSmooth(image, 200, 133);
+
+        for (int y = 0; y < 133; y++) {
+            for (int x = 0; x < 200; x++) {
+                Color a = new Color(scaled.getRGB(x, y));
+                Color b = new Color(expected.getRGB(x, y));
+                assertThat(Math.abs(a.getRed() - b.getRed()), is(lessThanOrEqualTo(3)));
+                assertThat(Math.abs(a.getGreen() - b.getGreen()), is(lessThanOrEqualTo(3)));
+                assertThat(Math.abs(a.getBlue() - b.getBlue()), is(lessThanOrEqualTo(3)));
+            }
+        }
+    }
+
+    @Test
+    public void shouldGive_sameResult_whenScalingInParallel() {
+        BufferedImage image = createRandomImage(301, 457);
+
+        assertSameImages(new ImageDownscaler(4).downscale(image, 150, 228), new ImageDownscaler(1).downscale(image, 150, 228));
+        assertSameImages(new ImageDownscaler(4).downscale(image, 200, 300), new ImageDownscaler(1).downscale(image, 200, 300));
+    }
+
+    private void assertSameImages(BufferedImage actual, BufferedImage expected) {
+        assertThat(actual.getWidth(), is(expected.getWidth()));
+        assertThat(actual.getHeight(), is(expected.getHeight()));
+        assertThat(actual.getRGB(0, 0, actual.getWidth(), actual.getHeight(), null, 0, actual.getWidth()),
+                is(expected.getRGB(0, 0, expected.getWidth(), expected.getHeight(), null, 0, expected.getWidth())));
+    }
+
+    private BufferedImage createRandomImage(int width, int height) {
+        Random random = new Random(1234);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0xffffff));
+            }
+        }
+        return image;
+    }
+
+    private BufferedImage scaleSmooth(BufferedImage image, int width, int height) {
+        Image tmp = image.getScaledInstance(width, height, Image.SCALE_SMOOTH);
+        BufferedImage scaledImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = scaledImage.createGraphics();
+        g2d.drawImage(tmp, 0, 0, null);
+        g2d.dispose();
+        return scaledImage;
+    }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.utils;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import net.mindengine.galen.utils.ScreenshotStitcher;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class ScreenshotStitcherTest {
+
+    @DataProvider
+    public Object[][] threads() {
+        return new Object[][] {{0}, {2}};
+    }
+
+    @Test(dataProvider = "threads")
+    public void shouldStitch_tiles_intoSingleImage(int threads) throws Exception {
+        ScreenshotStitcher stitcher = new ScreenshotStitcher(10, 25, threads);
+
+        stitcher.addTile(createTile(Color.red, 10, 10), 0);
+        stitcher.addTile(toPng(createTile(Color.green, 10, 10)), 10, 0);
+        stitcher.addTile(toPng(createTwoColorTile(Color.white, Color.blue, 10, 10)), 20, 5);
+
+        BufferedImage image = stitcher.finish();
+
+        assertThat(image.getHeight(), is(25));
+        assertThat(new Color(image.getRGB(5, 5)), is(Color.red));
+        assertThat(new Color(image.getRGB(5, 15)), is(Color.green));
+        assertThat(new Color(image.getRGB(5, 20)), is(Color.blue));
+        assertThat(new Color(image.getRGB(5, 24)), is(Color.blue));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void shouldFail_whenTileCannotBeDecoded() throws Exception {
+        ScreenshotStitcher stitcher = new ScreenshotStitcher(10, 10, 2);
+        stitcher.addTile(new byte[]{1, 2, 3}, 0, 0);
+        stitcher.finish();
+    }
+
+    private BufferedImage createTile(Color color, int width, int height) {
+        return createTwoColorTile(color, color, width, height);
+    }
+
+    private BufferedImage createTwoColorTile(Color top, Color bottom, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(top);
+        g2d.fillRect(0, 0, width, height / 2);
+        g2d.setColor(bottom);
+        g2d.fillRect(0, height / 2, width, height - height / 2);
+        g2d.dispose();
+        return image;
+    }
+
+    private byte[] toPng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.utils;
+
+import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.utils.SpectrumCache;
+import net.mindengine.rainbow4j.Rainbow4J;
+import net.mindengine.rainbow4j.Spectrum;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class SpectrumCacheTest {
+
+    private static final Color[] COLORS = {Color.white, Color.black, new Color(58, 112, 208), new Color(200, 30, 30)};
+
+    @Test(dataProvider = "spectrumSettings")
+    public void shouldCalculate_samePercentage_asRainbow4J(int precision, int range, boolean integralHistogram) throws IOException {
+        BufferedImage image = createImage(120, 90);
+        SpectrumCache cache = new SpectrumCache(image);
+
+        Rect[] areas = {new Rect(0, 0, 120, 90), new Rect(10, 20, 30, 15), new Rect(60, 50, 60, 40)};
+        for (Rect area : areas) {
+            Spectrum spectrum = Rainbow4J.readSpectrum(image, new Rectangle(area.getLeft(), area.getTop(), area.getWidth(), area.getHeight()), precision);
+
+            for (Color color : COLORS) {
+                float expected = spectrum.getPercentage(color.getRed(), color.getGreen(), color.getBlue(), range);
+                assertThat(cache.getPercentage(area, precision, color, range, integralHistogram), is(expected));
+            }
+        }
+    }
+
+    @DataProvider
+    public Object[][] spectrumSettings() {
+        return new Object[][] {
+            {256, 6, false},
+            {256, 6, true},
+            {64, 20, false},
+            {8, 40, true}
+        };
+    }
+
+    @Test
+    public void shouldRead_spectrumOfArea_onlyOnce() {
+        SpectrumCache cache = new SpectrumCache(createImage(50, 50));
+
+        cache.getPercentage(new Rect(0, 0, 20, 20), 256, Color.white, 6, false);
+        cache.getPercentage(new Rect(0, 0, 20, 20), 256, Color.black, 6, false);
+        cache.getPercentage(new Rect(5, 0, 20, 20), 256, Color.black, 6, false);
+
+        assertThat(cache.getMisses(), is(2L));
+        assertThat(cache.getHits(), is(1L));
+    }
+
+    @Test
+    public void shouldBind_cache_toScreenshotInstance() {
+        BufferedImage image = createImage(10, 10);
+
+        assertThat(SpectrumCache.forScreenshot(image), is(sameInstance(SpectrumCache.forScreenshot(image))));
+    }
+
+    private BufferedImage createImage(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Random random = new Random(width * height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, COLORS[random.nextInt(COLORS.length)].getRGB() + random.nextInt(3));
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.validation;
+
+import net.mindengine.galen.validation.specs.ImageMismatchCounter;
+import net.mindengine.rainbow4j.ComparisonOptions;
+import net.mindengine.rainbow4j.ImageCompareResult;
+import net.mindengine.rainbow4j.ImageHandler;
+import net.mindengine.rainbow4j.Rainbow4J;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ImageMismatchCounterTest {
+
+    @Test(dataProvider = "comparisons")
+    public void shouldCount_mismatchingPixels_sameAsRainbow4J(Rectangle areaA, Rectangle areaB, int tolerance, boolean stretch) {
+        BufferedImage imageA = createNoisyImage(100, 80, 1);
+        BufferedImage imageB = createNoisyImage(100, 80, 2);
+
+        ComparisonOptions options = new ComparisonOptions();
+        options.setTolerance(tolerance);
+        options.setStretchToFit(stretch);
+        ImageCompareResult result = Rainbow4J.compare(imageA, imageB, areaA, areaB, options);
+
+        ImageMismatchCounter counter = new ImageMismatchCounter(new ImageHandler(imageA), areaA, new ImageHandler(imageB), areaB, tolerance, stretch);
+
+        assertThat(counter.count(Long.MAX_VALUE), is(result.getTotalPixels()));
+    }
+
+    @DataProvider
+    public Object[][] comparisons() {
+        return new Object[][] {
+            {new Rectangle(0, 0, 100, 80), new Rectangle(0, 0, 100, 80), 25, false},
+            {new Rectangle(10, 5, 40, 30), new Rectangle(20, 15, 40, 30), 60, false},
+            {new Rectangle(10, 5, 40, 30), new Rectangle(0, 0, 90, 70), 10, true},
+            {new Rectangle(0, 0, 90, 70), new Rectangle(30, 20, 25, 13), 100, true}
+        };
+    }
+
+    @Test
+    public void shouldStop_whenBudgetIsExceeded() {
+        BufferedImage imageA = createNoisyImage(50, 50, 1);
+        BufferedImage imageB = createNoisyImage(50, 50, 2);
+        Rectangle area = new Rectangle(0, 0, 50, 50);
+
+        ImageMismatchCounter counter = new ImageMismatchCounter(new ImageHandler(imageA), area, new ImageHandler(imageB), area, 25, false);
+        long total = counter.count(Long.MAX_VALUE);
+
+        assertThat(counter.count(total), is(total));
+        assertThat(counter.count(total - 1), is(ImageMismatchCounter.BUDGET_EXCEEDED));
+    }
+
+    private BufferedImage createNoisyImage(int width, int height, long seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Random random = new Random(seed);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        return image;
+    }
+}
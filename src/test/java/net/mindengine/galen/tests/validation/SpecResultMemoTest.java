@@ -0,0 +1,107 @@
+/*******************************************************************************
+* Copyright 2014 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.validation;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Properties;
+
+import net.mindengine.galen.api.Galen;
+import net.mindengine.galen.components.mocks.driver.MockedDriver;
+import net.mindengine.galen.components.validation.MockedPage;
+import net.mindengine.galen.components.validation.MockedPageElement;
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.reports.model.LayoutReport;
+import net.mindengine.galen.specs.Spec;
+import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.galen.specs.reader.SpecReader;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.validation.PageValidation;
+import net.mindengine.galen.validation.SpecResultMemo;
+import net.mindengine.galen.validation.ValidationError;
+
+import org.testng.annotations.Test;
+
+public class SpecResultMemoTest {
+
+    @Test
+    public void shouldReuseResult_ofSpecWithSameText_forSameObject() throws IOException {
+        PageValidation validation = createValidation(100);
+        SpecReader specReader = new SpecReader(new Properties());
+
+        ValidationError error = validation.check("object", specReader.read("width: 120px"));
+        ValidationError repeatedError = validation.check("object", specReader.read("width: 120px"));
+
+        assertThat(error, is(notNullValue()));
+        assertThat(repeatedError, is(sameInstance(error)));
+        assertThat(validation.check("object", specReader.read("width: 100px")), is(nullValue()));
+        assertThat(validation.getSpecResults().getHits(), is(1L));
+    }
+
+    @Test
+    public void shouldNotReuseResult_ofWarningSpec_forNormalSpec() throws IOException {
+        PageValidation validation = createValidation(100);
+        SpecReader specReader = new SpecReader(new Properties());
+
+        Spec warningSpec = specReader.read("width: 120px");
+        warningSpec.setOnlyWarn(true);
+
+        assertThat(validation.check("object", warningSpec).isOnlyWarn(), is(true));
+        assertThat(validation.check("object", specReader.read("width: 120px")).isOnlyWarn(), is(false));
+        assertThat(validation.getSpecResults().getHits(), is(0L));
+    }
+
+    @Test
+    public void shouldCheckSpecAgain_whenPageIsChanged() throws IOException {
+        PageValidation validation = createValidation(100);
+        Spec spec = new SpecReader(new Properties()).read("width: 120px");
+
+        assertThat(validation.check("object", spec), is(notNullValue()));
+
+        validation.setPage(createPage(120));
+        assertThat(validation.check("object", spec), is(nullValue()));
+        assertThat(validation.getSpecResults().getHits(), is(0L));
+    }
+
+    @Test
+    public void conditionalBlock_shouldNotCheck_statementSpecsTwice() throws IOException {
+        MockedDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-sample-page.json");
+
+        long hitsBefore = SpecResultMemo.getTotalHits();
+        LayoutReport layoutReport = Galen.checkLayout(driver, "/specs/galen4j/conditional-memo.spec", null, null, new Properties(), null);
+
+        assertThat(layoutReport.errors(), is(0));
+        assertThat(SpecResultMemo.getTotalHits() - hitsBefore, is(greaterThanOrEqualTo(1L)));
+    }
+
+    private PageValidation createValidation(int width) {
+        PageSpec pageSpec = new PageSpec();
+        pageSpec.getObjects().put("object", new Locator("id", "object"));
+        return new PageValidation(null, createPage(width), pageSpec, null, null);
+    }
+
+    @SuppressWarnings("serial")
+    private MockedPage createPage(final int width) {
+        return new MockedPage(new HashMap<String, PageElement>() {{
+            put("object", new MockedPageElement(10, 10, width, 50));
+        }});
+    }
+}
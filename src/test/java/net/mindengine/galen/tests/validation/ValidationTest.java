@@ -1362,6 +1362,38 @@ public class ValidationTest {
         assertThat("Comparison map should not be null", error.getImageComparison().getComparisonMap(), is(notNullValue()));
     }
     
+    @SuppressWarnings("unchecked")
+    @Test
+    public void imageSpec_withMultipleImages_shouldGiveSameResults_inParallel_asSequentially() {
+        List<List<String>> imageSets = asList(
+                asList("/imgs/button-sample-incorrect.png", "/imgs/button-sample-incorrect.png", "/imgs/page-sample-correct.png"),
+                asList("/imgs/button-sample-incorrect.png", "/imgs/button-sample-correct.png", "/imgs/undefined-image.png"),
+                asList("/imgs/button-sample-incorrect.png", "/imgs/undefined-image.png", "/imgs/button-sample-correct.png")
+        );
+
+        for (List<String> imagePaths : imageSets) {
+            ValidationError sequentialError = checkImageSpec(imagePaths, "1");
+            ValidationError parallelError = checkImageSpec(imagePaths, "4");
+
+            assertThat("Results for " + imagePaths, parallelError, is(sequentialError));
+        }
+    }
+
+    private ValidationError checkImageSpec(List<String> imagePaths, String threads) {
+        System.setProperty(GalenConfig.IMAGES_COMPARISON_THREADS, threads);
+        try {
+            MockedPage page = page(new HashMap<String, PageElement>() {{
+                put("object", element(100, 90, 100, 40));
+            }}, imageComparisonTestScreenshot);
+
+            PageValidation validation = new PageValidation(null, page, createMockedPageSpec(page), null, null);
+            return validation.check("object", specImage(imagePaths, 600, PIXEL_UNIT, 0, 10));
+        }
+        finally {
+            System.clearProperty(GalenConfig.IMAGES_COMPARISON_THREADS);
+        }
+    }
+
     private List<ErrorArea> areas(ErrorArea...errorAreas) {
         return asList(errorAreas);
     }
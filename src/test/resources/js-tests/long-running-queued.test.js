@@ -0,0 +1,9 @@
+test("Long test", function () {
+    Thread.sleep(60000);
+});
+
+test("Queued test", function () {
+});
+
+test("Not pulled test", function () {
+});
@@ -0,0 +1,6 @@
+test("Quick test", function () {
+});
+
+test("Long test", function () {
+    Thread.sleep(60000);
+});
@@ -0,0 +1,12 @@
+====================================
+save-button     css .save-button
+====================================
+
+@@ if
+save-button
+    width: 100px
+@@ do
+save-button
+    width: 100px
+    text is: Save
+@@ end
@@ -0,0 +1,10 @@
+
+====================================
+save-button     css .save-button
+name-textfield  id  name-textfield
+====================================
+
+
+@ *
+save-button
+    aligned horizontally all: name-textfield
@@ -0,0 +1,8 @@
+=================================
+
+button-save         css .save-button
+
+=================================
+
+button-save
+    width: 120px
@@ -0,0 +1,20 @@
+=================================
+
+button-save         css .save-button
+menu-item-*         css .menu-item
+big-container       css .container
+unexistent-element  css .i-do-not-exist
+
+=================================
+
+button-save
+    width: 100px
+    height: 50px
+    inside: big-container 10px left, 10px top
+    text is: Save
+
+menu-item-1
+    near: menu-item-2 0px left
+
+unexistent-element
+    absent
@@ -0,0 +1,43 @@
+=================================
+
+button-save         css .save-button
+name-textfield      id  name-textfield
+menu-item-*         css .menu-item
+big-container       css .container
+
+=================================
+
+@ Header
+--------------------------
+button-save
+    width: 100px
+    height: 40px
+    text is: Save
+
+menu-item-*
+    height: 10px
+    inside: big-container 10px top
+
+name-textfield
+    near: button-save 10px right
+
+@@ if
+button-save
+    width: > 200px
+@@ do
+menu-item-1
+    width: 30px
+@@ otherwise
+menu-item-2
+    width: 30px
+@@ end
+
+
+@ Content
+--------------------------
+big-container
+    width: 500px
+    height: 200px
+
+menu-item-1
+    near: menu-item-2 0px left
@@ -0,0 +1,11 @@
+
+=================================
+
+button-save         css .save-button
+
+=================================
+
+@ Child
+--------------------------
+button-save
+    width: 100px
@@ -0,0 +1,16 @@
+
+=================================
+
+big-container       css .container
+
+=================================
+
+@ First
+--------------------------
+big-container
+    component: repeated-component-child.spec
+
+@ Second
+--------------------------
+big-container
+    component: repeated-component-child.spec
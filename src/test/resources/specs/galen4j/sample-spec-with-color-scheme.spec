@@ -0,0 +1,9 @@
+
+====================================
+save-button     css .save-button
+====================================
+
+
+@ *
+save-button
+    color scheme: > 0% white